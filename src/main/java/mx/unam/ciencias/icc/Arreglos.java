@@ -28,7 +28,13 @@ public class Arreglos {
      */
     public static <T> void
     selectionSort(T[] arreglo, Comparator<T> comparador) {
-        // Aquí va su código.
+        for (int i = 0; i < arreglo.length - 1; i++) {
+            int m = i;
+            for (int j = i + 1; j < arreglo.length; j++)
+                if (comparador.compare(arreglo[j], arreglo[m]) < 0)
+                    m = j;
+            intercambia(arreglo, i, m);
+        }
     }
 
     /**
@@ -49,7 +55,29 @@ public class Arreglos {
      */
     public static <T> void
     quickSort(T[] arreglo, Comparator<T> comparador) {
-        // Aquí va su código.
+        quickSort(arreglo, 0, arreglo.length - 1, comparador);
+    }
+
+    /* Ordena el subarreglo entre a y b usando QuickSort. */
+    private static <T> void
+    quickSort(T[] arreglo, int a, int b, Comparator<T> comparador) {
+        if (b <= a)
+            return;
+        int i = a + 1, j = b;
+        while (i < j) {
+            if (comparador.compare(arreglo[i], arreglo[a]) > 0 &&
+                comparador.compare(arreglo[j], arreglo[a]) <= 0)
+                intercambia(arreglo, i++, j--);
+            else if (comparador.compare(arreglo[i], arreglo[a]) <= 0)
+                i++;
+            else
+                j--;
+        }
+        if (comparador.compare(arreglo[i], arreglo[a]) > 0)
+            i--;
+        intercambia(arreglo, a, i);
+        quickSort(arreglo, a, i - 1, comparador);
+        quickSort(arreglo, i + 1, b, comparador);
     }
 
     /**
@@ -76,6 +104,24 @@ public class Arreglos {
      */
     public static <T> int
     busquedaBinaria(T[] arreglo, T elemento, Comparator<T> comparador) {
-        // Aquí va su código.
+        int a = 0, b = arreglo.length - 1;
+        while (a <= b) {
+            int m = a + (b - a) / 2;
+            int c = comparador.compare(elemento, arreglo[m]);
+            if (c == 0)
+                return m;
+            if (c < 0)
+                b = m - 1;
+            else
+                a = m + 1;
+        }
+        return -1;
+    }
+
+    /* Intercambia los elementos en los índices i y j del arreglo. */
+    private static <T> void intercambia(T[] arreglo, int i, int j) {
+        T t = arreglo[i];
+        arreglo[i] = arreglo[j];
+        arreglo[j] = t;
     }
 }
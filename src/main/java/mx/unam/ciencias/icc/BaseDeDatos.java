@@ -3,6 +3,13 @@ package mx.unam.ciencias.icc;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Clase abstracta para bases de datos genéricas. Provee métodos para agregar y
@@ -14,7 +21,39 @@ import java.io.IOException;
  * #creaRegistro}, que crea un registro genérico en blanco.
  *
  * Las modificaciones a la base de datos son notificadas a los escuchas {@link
- * EscuchaBaseDeDatos}.
+ * EscuchaBaseDeDatos}. Por omisión los escuchas son notificados dentro del
+ * método que modifica la base de datos; en modo asíncrono (ver {@link
+ * #setAsincrona}) cada escucha recibe sus eventos en orden desde su propio
+ * hilo. Un escucha puede suscribirse sólo a algunos tipos de eventos (ver
+ * {@link #agregaEscucha(EscuchaBaseDeDatos,EnumSet)}).
+ *
+ * Las clases que extiendan a BaseDeDatos pueden rechazar registros al
+ * agregarlos o modificarlos (por ejemplo, para mantener una llave única)
+ * sobrecargando los métodos {@link #reservaRegistro} y {@link
+ * #liberaRegistro}, y mantener estructuras derivadas de los registros
+ * sobrecargando los métodos {@link #registroAgregado}, {@link
+ * #registroEliminado} y {@link #registroModificado}. Cada aparición de un
+ * registro en la base de datos tiene un <em>ordinal</em>, un entero no
+ * negativo que la identifica mientras está en la base de datos: los ordinales
+ * crecen en el orden de los registros y nunca se reutilizan, así que sirven
+ * de llave estable para esas estructuras.
+ *
+ * Dentro de una transacción (ver {@link #iniciaTransaccion}) las
+ * modificaciones consecutivas de un mismo registro se agrupan en un solo
+ * evento.
+ *
+ * La base de datos puede usarse desde varios hilos. Las lecturas (como {@link
+ * #getRegistros} y {@link #buscaRegistros}) pueden ejecutarse en paralelo, y
+ * las escrituras son exclusivas; {@link #getNumRegistros} ni siquiera
+ * bloquea. Los escuchas síncronos son notificados mientras la escritura
+ * sigue siendo exclusiva, por lo que reciben los eventos en el mismo orden
+ * en que ocurrieron las modificaciones; desde el hilo que notifica pueden
+ * leer y modificar la base de datos sin bloquearse.
+ *
+ * Para leer los registros de manera consistente mientras otros hilos los
+ * modifican, sin bloquearlos, puede obtenerse una {@link Instantanea} (ver
+ * {@link #getInstantanea}), si antes se activan las instantáneas, que tienen
+ * un costo en cada escritura (ver {@link #setInstantaneas}).
  *
  * @param <R> El tipo de los registros, que deben implementar la interfaz {@link
  * Registro}.
@@ -23,16 +62,87 @@ import java.io.IOException;
  */
 public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
 
+    /* Clase interna privada para entradas de registros. */
+    private class Entrada {
+        /* El asa del nodo del registro en la lista de registros. */
+        private Lista.Asa<R> asa;
+        /* El ordinal del registro. */
+        private int ordinal;
+        /* La entrada de la siguiente aparición del mismo registro, o null. */
+        private Entrada siguiente;
+
+        /* Construye una entrada con un asa y un ordinal. */
+        private Entrada(Lista.Asa<R> asa, int ordinal) {
+            this.asa = asa;
+            this.ordinal = ordinal;
+        }
+    }
+
     /* Lista de registros en la base de datos. */
     private Lista<R> registros;
-    /* Lista de escuchas de la base de datos. */
+    /* Las entradas de los registros, indexadas por el registro mismo; si un
+     * registro está más de una vez, sus entradas están ligadas en el orden
+     * de la lista. */
+    private IdentityHashMap<R, Entrada> entradas;
+    /* El ordinal del siguiente registro que entre a la base de datos. */
+    private int ordinales;
+    /* Lista de escuchas de la base de datos. En modo asíncrono, todos están
+     * envueltos en un EscuchaAsincrono. */
     private Lista<EscuchaBaseDeDatos<R>> escuchas;
+    /* Los escuchas suscritos a cada tipo de evento; son los mismos objetos
+     * que están en la lista de escuchas. Las listas no se modifican: se
+     * reemplazan, para que un escucha pueda agregar o eliminar escuchas
+     * mientras se le notifica, sin afectar la notificación en curso. */
+    private EnumMap<EventoBaseDeDatos, Lista<EscuchaBaseDeDatos<R>>> suscritos;
+    /* Si los escuchas se notifican de manera asíncrona. */
+    private volatile boolean asincrona;
+    /* Si se están vaciando los escuchas asíncronos al regresar al modo
+     * síncrono; mientras tanto nadie puede adquirir el candado de
+     * escritura. */
+    private volatile boolean vaciando;
+    /* El monitor donde los escritores esperan a que termine el vaciado. */
+    private Object puerta;
+    /* Número de transacciones abiertas. */
+    private int transacciones;
+    /* Las versiones originales de los registros modificados pendientes de
+     * notificar, indexadas por el registro en la base de datos. */
+    private IdentityHashMap<R, R> originales;
+    /* Las versiones nuevas de los registros modificados pendientes de
+     * notificar, indexadas por el registro en la base de datos. */
+    private IdentityHashMap<R, R> nuevos;
+    /* Los registros modificados pendientes de notificar, en orden. */
+    private Lista<R> modificados;
+    /* Los registros versionados para las instantáneas, o null si no están
+     * activadas. Se modifican con el candado de escritura. */
+    private volatile VersionesRegistros<R> versiones;
+    /* El candado de lectura y escritura. */
+    private StampedLock candado;
+    /* El hilo que tiene el candado de escritura, si hay uno. */
+    private volatile Thread escritor;
+    /* Número de hilos esperando el candado de escritura. */
+    private AtomicInteger escritores;
+    /* El monitor donde los lectores esperan a que pasen los escritores. */
+    private Object turno;
 
     /**
      * Constructor único.
      */
     public BaseDeDatos() {
-        // Aquí va su código.
+        registros = new Lista<R>();
+        entradas = new IdentityHashMap<R, Entrada>();
+        escuchas = new Lista<EscuchaBaseDeDatos<R>>();
+        suscritos = new EnumMap<EventoBaseDeDatos,
+                                Lista<EscuchaBaseDeDatos<R>>>(
+                                    EventoBaseDeDatos.class);
+        for (EventoBaseDeDatos evento : EventoBaseDeDatos.values())
+            suscritos.put(evento, new Lista<EscuchaBaseDeDatos<R>>());
+        originales = new IdentityHashMap<R, R>();
+        nuevos = new IdentityHashMap<R, R>();
+        modificados = new Lista<R>();
+        candado = new StampedLock();
+        escritores = new AtomicInteger();
+        puerta = new Object();
+        turno = new Object();
     }
 
     /**
@@ -40,7 +150,16 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
      * @return el número de registros en la base de datos.
      */
     public int getNumRegistros() {
-        // Aquí va su código.
+        long s = candado.tryOptimisticRead();
+        int n = registros.getLongitud();
+        if (candado.validate(s))
+            return n;
+        s = bloqueaLectura();
+        try {
+            return registros.getLongitud();
+        } finally {
+            desbloqueaLectura(s);
+        }
     }
 
     /**
@@ -49,36 +168,167 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
      * @return una lista con los registros en la base de datos.
      */
     public Lista<R> getRegistros() {
-        // Aquí va su código.
+        long s = bloqueaLectura();
+        try {
+            return registros.copia();
+        } finally {
+            desbloqueaLectura(s);
+        }
     }
 
     /**
      * Agrega el registro recibido a la base de datos. Los escuchas son
      * notificados con {@link EscuchaBaseDeDatos#baseDeDatosModificada} con el
-     * evento {@link EventoBaseDeDatos#REGISTRO_AGREGADO}.
+     * evento {@link EventoBaseDeDatos#REGISTRO_AGREGADO}. Si {@link
+     * #reservaRegistro} rechaza al registro, la base de datos no es
+     * modificada y no se notifica de nada a los escuchas.
      * @param registro el registro que hay que agregar a la base de datos.
      */
     public void agregaRegistro(R registro) {
-        // Aquí va su código.
+        long s = bloqueaEscritura();
+        try {
+            if (agrega(registro))
+                notifica(EventoBaseDeDatos.REGISTRO_AGREGADO, registro, null);
+        } finally {
+            desbloqueaEscritura(s);
+        }
     }
 
     /**
-     * Elimina el registro recibido de la base de datos. Los escuchas son
-     * notificados con {@link EscuchaBaseDeDatos#baseDeDatosModificada} con el
-     * evento {@link EventoBaseDeDatos#REGISTRO_ELIMINADO}.
+     * Elimina el registro recibido de la base de datos. Si el registro mismo
+     * está en la base de datos, se elimina en tiempo constante; si no, se
+     * elimina el primer registro igual a él. Los escuchas son notificados con
+     * {@link EscuchaBaseDeDatos#baseDeDatosModificada} con el evento {@link
+     * EventoBaseDeDatos#REGISTRO_ELIMINADO} y el registro eliminado, aunque
+     * no hubiera ninguno; en ese caso la base de datos no es modificada y se
+     * notifica con el registro recibido.
      * @param registro el registro que hay que eliminar de la base de datos.
      */
     public void eliminaRegistro(R registro) {
-        // Aquí va su código.
+        long s = bloqueaEscritura();
+        try {
+            R eliminado = elimina(registro);
+            if (eliminado == null)
+                eliminado = registro;
+            notifica(EventoBaseDeDatos.REGISTRO_ELIMINADO, eliminado, null);
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Agrega los registros de la lista recibida a la base de datos, en orden.
+     * Los escuchas son notificados una sola vez con {@link
+     * EscuchaBaseDeDatos#baseDeDatosModificada(EventoBaseDeDatos,Lista)} con
+     * el evento {@link EventoBaseDeDatos#REGISTROS_AGREGADOS} y los registros
+     * que sí fueron agregados, que son todos salvo los que rechace {@link
+     * #reservaRegistro}; si no se agregó ninguno no se notifica nada.
+     * @param registros los registros que hay que agregar a la base de datos.
+     */
+    public void agregaRegistros(Lista<R> registros) {
+        long s = bloqueaEscritura();
+        try {
+            /* Mientras no haya rechazos, notificamos con la lista recibida;
+             * la lista de agregados sólo se crea en el primer rechazo. */
+            Lista<R> agregados = null;
+            int i = 0;
+            for (R registro : registros) {
+                if (agrega(registro)) {
+                    if (agregados != null)
+                        agregados.agregaFinal(registro);
+                } else if (agregados == null) {
+                    agregados = new Lista<R>();
+                    Iterator<R> iterador = registros.iterator();
+                    for (int j = 0; j < i; j++)
+                        agregados.agregaFinal(iterador.next());
+                }
+                i++;
+            }
+            notifica(EventoBaseDeDatos.REGISTROS_AGREGADOS,
+                     agregados != null ? agregados : registros);
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Elimina los registros de la lista recibida de la base de datos, cada
+     * uno como en {@link #eliminaRegistro}; eliminar <em>k</em> registros que
+     * están en la base de datos cuesta tiempo proporcional a <em>k</em>. Los
+     * escuchas son notificados una sola vez con {@link
+     * EscuchaBaseDeDatos#baseDeDatosModificada(EventoBaseDeDatos,Lista)} con
+     * el evento {@link EventoBaseDeDatos#REGISTROS_ELIMINADOS} y los registros
+     * que sí fueron eliminados, en orden; si no se eliminó ninguno no se
+     * notifica nada.
+     * @param registros los registros que hay que eliminar de la base de datos.
+     */
+    public void eliminaRegistros(Lista<R> registros) {
+        long s = bloqueaEscritura();
+        try {
+            Lista<R> eliminados = new Lista<R>();
+            for (R registro : registros) {
+                R eliminado = elimina(registro);
+                if (eliminado != null)
+                    eliminados.agregaFinal(eliminado);
+            }
+            notifica(EventoBaseDeDatos.REGISTROS_ELIMINADOS, eliminados);
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Elimina de la base de datos todos los registros que casan el campo con
+     * el valor (ver {@link Registro#casa}), en una sola pasada por los
+     * registros: cuesta tiempo lineal sin importar cuántos se eliminen. Los
+     * escuchas son notificados una sola vez con {@link
+     * EscuchaBaseDeDatos#baseDeDatosModificada(EventoBaseDeDatos,Lista)} con
+     * el evento {@link EventoBaseDeDatos#REGISTROS_ELIMINADOS} y los registros
+     * eliminados, en orden; si no se eliminó ninguno no se notifica nada.
+     * @param campo el campo del registro por el cuál eliminar.
+     * @param valor el valor con el que deben casar los registros a eliminar.
+     * @return el número de registros eliminados.
+     * @throws IllegalArgumentException si el campo es <code>null</code>.
+     */
+    public int eliminaRegistros(C campo, Object valor) {
+        if (campo == null)
+            throw new IllegalArgumentException("Campo nulo.");
+        long s = bloqueaEscritura();
+        try {
+            Lista<R> eliminados = new Lista<R>();
+            registros.eliminaSi(r -> {
+                    if (!r.casa(campo, valor))
+                        return false;
+                    eliminados.agregaFinal(r);
+                    return true;
+                });
+            if (eliminados.esVacia())
+                return 0;
+            /* Si un registro estaba más de una vez, aparece otras tantas
+             * veces en la lista de eliminados, en orden. */
+            for (R registro : eliminados)
+                olvida(registro);
+            notifica(EventoBaseDeDatos.REGISTROS_ELIMINADOS, eliminados);
+            return eliminados.getLongitud();
+        } finally {
+            desbloqueaEscritura(s);
+        }
     }
 
     /**
      * Modifica el primer registro en la base de datos para que sea idéntico al
-     * segundo. Antes de modificar el registro, los escuchas son notificados con
-     * {@link EscuchaBaseDeDatos#baseDeDatosModificada} con el evento {@link
-     * EventoBaseDeDatos#REGISTRO_MODIFICADO} y las versiones original y
+     * segundo. Si el primer registro mismo está en la base de datos, es el que
+     * se modifica, en tiempo constante; si no, se modifica el primer registro
+     * igual a él. Antes de modificar el registro, los escuchas son notificados
+     * con {@link EscuchaBaseDeDatos#baseDeDatosModificada} con el evento
+     * {@link EventoBaseDeDatos#REGISTRO_MODIFICADO} y las versiones original y
      * modificada del registro. Si el primer registro no está en la base de
-     * datos, ésta no es modificada y no se notifica de nada a los escuchas.
+     * datos, o si {@link #reservaRegistro} rechaza los nuevos valores, ésta
+     * no es modificada y no se notifica de nada a los escuchas. Dentro de
+     * una transacción la notificación se pospone, como se explica
+     * en {@link #iniciaTransaccion}. En modo asíncrono la versión original es
+     * una copia del registro en la base de datos, porque los escuchas la
+     * reciben cuando el registro ya fue modificado.
      * @param registro1 un registro igual al que hay que modificar en la base de
      *                  datos.
      * @param registro2 el registro con los nuevos valores.
@@ -86,7 +336,34 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
      *         <code>null</code>.
      */
     public void modificaRegistro(R registro1, R registro2) {
-        // Aquí va su código.
+        if (registro1 == null || registro2 == null)
+            throw new IllegalArgumentException("Registro nulo.");
+        long s = bloqueaEscritura();
+        try {
+            R registro = busca(registro1);
+            if (registro == null)
+                return;
+            liberaRegistro(registro);
+            if (!reservaRegistro(registro2)) {
+                reservaRegistro(registro);
+                return;
+            }
+            if (transacciones > 0)
+                pospone(registro, registro2);
+            else
+                notifica(EventoBaseDeDatos.REGISTRO_MODIFICADO,
+                         asincrona ? copia(registro) : registro1, registro2);
+            registro.actualiza(registro2);
+            R copia = versiones != null ? copia(registro) : null;
+            for (Entrada e = entradas.get(registro); e != null;
+                 e = e.siguiente) {
+                if (versiones != null)
+                    versiones.modifica(e.ordinal, copia);
+                registroModificado(registro, e.ordinal);
+            }
+        } finally {
+            desbloqueaEscritura(s);
+        }
     }
 
     /**
@@ -95,7 +372,16 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
      * EventoBaseDeDatos#BASE_LIMPIADA}
      */
     public void limpia() {
-        // Aquí va su código.
+        long s = bloqueaEscritura();
+        try {
+            registros.limpia();
+            entradas.clear();
+            if (versiones != null)
+                versiones.limpia();
+            notifica(EventoBaseDeDatos.BASE_LIMPIADA, null, null);
+        } finally {
+            desbloqueaEscritura(s);
+        }
     }
 
     /**
@@ -104,22 +390,48 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
      * @throws IOException si ocurre un error de entrada/salida.
      */
     public void guarda(BufferedWriter out) throws IOException {
-        // Aquí va su código.
+        long s = bloqueaLectura();
+        try {
+            for (R registro : registros)
+                out.write(registro.seria());
+        } finally {
+            desbloqueaLectura(s);
+        }
     }
 
     /**
      * Carga los registros de la entrada recibida en la base de datos. Si antes
      * de llamar el método había registros en la base de datos, estos son
-     * eliminados. Los escuchas son notificados con {@link
+     * eliminados. La carga termina al final de la entrada o en la primera
+     * línea en blanco. Los escuchas son notificados con {@link
      * EscuchaBaseDeDatos#baseDeDatosModificada} con el evento {@link
-     * EventoBaseDeDatos#BASE_LIMPIADA}, y por cada registro cargado con {@link
-     * EscuchaBaseDeDatos#baseDeDatosModificada} con el evento {@link
-     * EventoBaseDeDatos#REGISTRO_AGREGADO}.
+     * EventoBaseDeDatos#BASE_LIMPIADA}, y una sola vez por todos los registros
+     * cargados, como en {@link #agregaRegistros}.
      * @param in la entrada de donde hay que cargar los registos.
-     * @throws IOException si ocurre un error de entrada/salida.
+     * @throws IOException si ocurre un error de entrada/salida, o si alguna
+     *         línea no es una seriación válida de un registro.
      */
     public void carga(BufferedReader in) throws IOException {
-        // Aquí va su código.
+        long s = bloqueaEscritura();
+        try {
+            limpia();
+            Lista<R> cargados = new Lista<R>();
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                if (linea.trim().isEmpty())
+                    break;
+                R registro = creaRegistro();
+                try {
+                    registro.deseria(linea);
+                } catch (ExcepcionLineaInvalida eli) {
+                    throw new IOException("Línea inválida: " + linea);
+                }
+                cargados.agregaFinal(registro);
+            }
+            agregaRegistros(cargados);
+        } finally {
+            desbloqueaEscritura(s);
+        }
     }
 
     /**
@@ -132,7 +444,78 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
      *         correcta.
      */
     public Lista<R> buscaRegistros(C campo, Object valor) {
-        // Aquí va su código.
+        if (campo == null)
+            throw new IllegalArgumentException("Campo nulo.");
+        long s = bloqueaLectura();
+        try {
+            Lista<R> lista = new Lista<R>();
+            for (R registro : registros)
+                if (registro.casa(campo, valor))
+                    lista.agregaFinal(registro);
+            return lista;
+        } finally {
+            desbloqueaLectura(s);
+        }
+    }
+
+    /**
+     * Define si la base de datos versiona sus registros para las instantáneas
+     * (ver {@link #getInstantanea}). Activarlas copia todos los registros en
+     * tiempo lineal, con la escritura bloqueada. Mientras están activadas, la
+     * base de datos guarda una copia más de cada registro, y cada escritura
+     * copia además el registro que cambia y a lo más un segmento de
+     * registros. Desactivarlas libera las copias, en tiempo constante; las
+     * instantáneas que ya se obtuvieron siguen siendo válidas.
+     * @param instantaneas si la base de datos debe versionar sus registros
+     *                     para las instantáneas.
+     */
+    public void setInstantaneas(boolean instantaneas) {
+        long s = bloqueaEscritura();
+        try {
+            if (!instantaneas) {
+                versiones = null;
+            } else if (versiones == null) {
+                VersionesRegistros<R> v = new VersionesRegistros<R>();
+                recorre((r, o) -> v.agrega(o, copia(r)));
+                versiones = v;
+            }
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Nos dice si la base de datos versiona sus registros para las
+     * instantáneas.
+     * @return <code>true</code> si la base de datos versiona sus registros para
+     *         las instantáneas, <code>false</code> en otro caso.
+     */
+    public boolean usaInstantaneas() {
+        return versiones != null;
+    }
+
+    /**
+     * Regresa una instantánea de los registros de la base de datos: una
+     * vista inmutable que no cambia aunque la base de datos se modifique
+     * después, y que puede leerse desde cualquier hilo sin bloquear a la base
+     * de datos. Cada instantánea cuesta tiempo constante. Los registros de la
+     * instantánea son copias, y no deben modificarse.
+     * @return una instantánea de los registros de la base de datos.
+     * @throws IllegalStateException si las instantáneas no están activadas
+     *         (ver {@link #setInstantaneas}).
+     */
+    public Instantanea<R> getInstantanea() {
+        /* Crear la instantánea marca los segmentos como compartidos, así que
+         * necesita la escritura. */
+        long s = bloqueaEscritura();
+        try {
+            if (versiones == null)
+                throw new IllegalStateException("La base de datos no usa " +
+                                                "instantáneas.");
+            return versiones.instantanea();
+        } finally {
+            desbloqueaEscritura(s);
+        }
     }
 
     /**
@@ -142,11 +525,49 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
     public abstract R creaRegistro();
 
     /**
-     * Agrega un escucha a la base de datos.
+     * Agrega un escucha a la base de datos, suscrito a todos los eventos.
      * @param escucha el escucha a agregar.
      */
     public void agregaEscucha(EscuchaBaseDeDatos<R> escucha) {
-        // Aquí va su código.
+        agregaEscucha(escucha, EnumSet.allOf(EventoBaseDeDatos.class));
+    }
+
+    /**
+     * Agrega un escucha a la base de datos, suscrito sólo a los eventos
+     * recibidos. Los eventos a los que el escucha no está suscrito no le
+     * cuestan nada: cada evento se entrega recorriendo únicamente a sus
+     * suscriptores. Suscribirse a {@link EventoBaseDeDatos#REGISTRO_AGREGADO}
+     * o a {@link EventoBaseDeDatos#REGISTRO_ELIMINADO} implica suscribirse
+     * también a {@link EventoBaseDeDatos#REGISTROS_AGREGADOS} o a {@link
+     * EventoBaseDeDatos#REGISTROS_ELIMINADOS} respectivamente, que por
+     * omisión se entregan como eventos individuales.
+     * @param escucha el escucha a agregar.
+     * @param eventos los eventos a los que se suscribe el escucha.
+     * @throws IllegalArgumentException si <code>eventos</code> es
+     *         <code>null</code>.
+     */
+    public void agregaEscucha(EscuchaBaseDeDatos<R> escucha,
+                              EnumSet<EventoBaseDeDatos> eventos) {
+        if (eventos == null)
+            throw new IllegalArgumentException("Eventos nulos.");
+        eventos = EnumSet.copyOf(eventos);
+        if (eventos.contains(EventoBaseDeDatos.REGISTRO_AGREGADO))
+            eventos.add(EventoBaseDeDatos.REGISTROS_AGREGADOS);
+        if (eventos.contains(EventoBaseDeDatos.REGISTRO_ELIMINADO))
+            eventos.add(EventoBaseDeDatos.REGISTROS_ELIMINADOS);
+        long s = bloqueaEscritura();
+        try {
+            if (asincrona)
+                escucha = new EscuchaAsincrono<R>(escucha);
+            escuchas.agregaFinal(escucha);
+            for (EventoBaseDeDatos evento : eventos) {
+                Lista<EscuchaBaseDeDatos<R>> l = suscritos.get(evento).copia();
+                l.agregaFinal(escucha);
+                suscritos.put(evento, l);
+            }
+        } finally {
+            desbloqueaEscritura(s);
+        }
     }
 
     /**
@@ -154,6 +575,506 @@ public abstract class BaseDeDatos<R extends Registro<R, C>, C extends Enum> {
      * @param escucha el escucha a eliminar.
      */
     public void eliminaEscucha(EscuchaBaseDeDatos<R> escucha) {
-        // Aquí va su código.
+        long s = bloqueaEscritura();
+        try {
+            for (EscuchaBaseDeDatos<R> e : escuchas) {
+                EscuchaBaseDeDatos<R> original = asincrona ?
+                    ((EscuchaAsincrono<R>)e).getEscucha() : e;
+                if (original.equals(escucha)) {
+                    escuchas.elimina(e);
+                    for (EventoBaseDeDatos evento : suscritos.keySet()) {
+                        Lista<EscuchaBaseDeDatos<R>> l =
+                            suscritos.get(evento).copia();
+                        l.elimina(e);
+                        suscritos.put(evento, l);
+                    }
+                    if (asincrona)
+                        ((EscuchaAsincrono<R>)e).termina();
+                    return;
+                }
+            }
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Define si los escuchas se notifican de manera asíncrona. En modo
+     * asíncrono cada escucha se envuelve en un {@link EscuchaAsincrono}: los
+     * métodos que modifican la base de datos sólo encolan los eventos y
+     * regresan de inmediato, y cada escucha los recibe en orden desde su
+     * propio hilo. Al regresar al modo síncrono, el método espera a que los
+     * escuchas reciban los eventos pendientes, y ningún otro hilo puede
+     * modificar la base de datos hasta entonces, así que ninguna modificación
+     * posterior se notifica antes que ellos. Mientras tanto los escuchas
+     * pueden leer la base de datos, pero no modificarla ni obtener
+     * instantáneas; por lo mismo, el método no debe llamarse desde un
+     * escucha.
+     * @param asincrona si los escuchas se notifican de manera asíncrona.
+     */
+    public void setAsincrona(boolean asincrona) {
+        Lista<EscuchaAsincrono<R>> l = new Lista<EscuchaAsincrono<R>>();
+        long s = bloqueaEscritura();
+        try {
+            if (this.asincrona == asincrona)
+                return;
+            if (!asincrona) {
+                for (EscuchaBaseDeDatos<R> escucha : escuchas)
+                    l.agregaFinal((EscuchaAsincrono<R>)escucha);
+                /* Los escritores esperan desde antes de soltar el candado,
+                 * para que ninguno se adelante a los eventos pendientes. */
+                vaciando = true;
+            }
+            cambiaEscuchas(asincrona);
+        } finally {
+            desbloqueaEscritura(s);
+        }
+        if (!asincrona)
+            vacia(l);
+    }
+
+    /* Espera sin el candado a que los escuchas asíncronos ya terminados
+     * entreguen sus eventos, para que puedan leer la base de datos, y deja
+     * pasar a los escritores. */
+    private void vacia(Lista<EscuchaAsincrono<R>> l) {
+        boolean interrumpido = false;
+        try {
+            for (EscuchaAsincrono<R> escucha : l) {
+                while (true) {
+                    try {
+                        escucha.espera();
+                        break;
+                    } catch (InterruptedException ie) {
+                        interrumpido = true;
+                    }
+                }
+            }
+        } finally {
+            synchronized (puerta) {
+                vaciando = false;
+                puerta.notifyAll();
+            }
+        }
+        if (interrumpido)
+            Thread.currentThread().interrupt();
+    }
+
+    /* Envuelve o desenvuelve a los escuchas. */
+    private void cambiaEscuchas(boolean asincrona) {
+        IdentityHashMap<EscuchaBaseDeDatos<R>, EscuchaBaseDeDatos<R>> nuevos =
+            new IdentityHashMap<EscuchaBaseDeDatos<R>, EscuchaBaseDeDatos<R>>();
+        for (EscuchaBaseDeDatos<R> escucha : escuchas) {
+            if (asincrona) {
+                nuevos.put(escucha, new EscuchaAsincrono<R>(escucha));
+            } else {
+                EscuchaAsincrono<R> asincrono = (EscuchaAsincrono<R>)escucha;
+                asincrono.termina();
+                nuevos.put(escucha, asincrono.getEscucha());
+            }
+        }
+        escuchas = reemplaza(escuchas, nuevos);
+        for (EventoBaseDeDatos evento : EventoBaseDeDatos.values())
+            suscritos.put(evento, reemplaza(suscritos.get(evento), nuevos));
+        this.asincrona = asincrona;
+    }
+
+    /* Regresa una lista con los reemplazos de los escuchas de la lista. */
+    private Lista<EscuchaBaseDeDatos<R>> reemplaza(
+        Lista<EscuchaBaseDeDatos<R>> lista,
+        IdentityHashMap<EscuchaBaseDeDatos<R>, EscuchaBaseDeDatos<R>> nuevos) {
+        Lista<EscuchaBaseDeDatos<R>> l = new Lista<EscuchaBaseDeDatos<R>>();
+        for (EscuchaBaseDeDatos<R> escucha : lista)
+            l.agregaFinal(nuevos.get(escucha));
+        return l;
+    }
+
+    /**
+     * Nos dice si los escuchas se notifican de manera asíncrona.
+     * @return <code>true</code> si los escuchas se notifican de manera
+     *         asíncrona, <code>false</code> en otro caso.
+     */
+    public boolean esAsincrona() {
+        return asincrona;
+    }
+
+    /**
+     * Espera a que todos los escuchas reciban los eventos generados hasta
+     * ahora. En modo síncrono el método regresa inmediatamente. No debe
+     * llamarse desde un escucha.
+     */
+    public void esperaEscuchas() {
+        if (!asincrona)
+            return;
+        /* No podemos esperar con el candado: los escuchas podrían
+         * necesitarlo para leer la base de datos. */
+        Lista<EscuchaBaseDeDatos<R>> l;
+        long s = bloqueaLectura();
+        try {
+            l = escuchas.copia();
+        } finally {
+            desbloqueaLectura(s);
+        }
+        try {
+            for (EscuchaBaseDeDatos<R> escucha : l)
+                if (escucha instanceof EscuchaAsincrono)
+                    ((EscuchaAsincrono<R>)escucha).espera();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Inicia una transacción. Mientras haya una transacción abierta, las
+     * modificaciones de registros no se notifican de inmediato: todas las
+     * modificaciones consecutivas de un mismo registro se notifican con un
+     * solo evento {@link EventoBaseDeDatos#REGISTRO_MODIFICADO}, con la
+     * versión del registro anterior a la primera modificación y la versión
+     * recibida en la última. Las modificaciones pospuestas se notifican, en
+     * el orden en que cada registro se modificó por primera vez, antes de
+     * cualquier otro evento y al terminar la última transacción abierta. Las
+     * transacciones pueden anidarse.
+     */
+    public void iniciaTransaccion() {
+        long s = bloqueaEscritura();
+        try {
+            transacciones++;
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Termina una transacción. Si era la última transacción abierta, se
+     * notifican las modificaciones pospuestas.
+     * @throws IllegalStateException si no hay una transacción abierta.
+     */
+    public void terminaTransaccion() {
+        long s = bloqueaEscritura();
+        try {
+            if (transacciones == 0)
+                throw new IllegalStateException("No hay transacción abierta.");
+            if (--transacciones == 0)
+                notificaPospuestas();
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Nos dice si hay una transacción abierta.
+     * @return <code>true</code> si hay una transacción abierta,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean enTransaccion() {
+        long s = bloqueaLectura();
+        try {
+            return transacciones > 0;
+        } finally {
+            desbloqueaLectura(s);
+        }
+    }
+
+    /**
+     * Adquiere el candado de lectura y regresa su estampa. Si el hilo actual
+     * tiene el candado de escritura, no adquiere nada y regresa 0.
+     * @return la estampa para {@link #desbloqueaLectura}.
+     */
+    protected long bloqueaLectura() {
+        if (escritor == Thread.currentThread())
+            return 0;
+        /* StampedLock no prefiere a los escritores, así que un flujo constante
+         * de lectores puede dejarlos esperando indefinidamente; los lectores
+         * nuevos les ceden el paso. */
+        if (escritores.get() > 0)
+            esperaEscritores();
+        return candado.readLock();
+    }
+
+    /* Espera, sin ocupar el procesador, a que ningún escritor esté esperando
+     * el candado de escritura. */
+    private void esperaEscritores() {
+        boolean interrumpido = false;
+        synchronized (turno) {
+            while (escritores.get() > 0) {
+                try {
+                    turno.wait();
+                } catch (InterruptedException ie) {
+                    interrumpido = true;
+                }
+            }
+        }
+        if (interrumpido)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Libera el candado de lectura.
+     * @param s la estampa regresada por {@link #bloqueaLectura}.
+     */
+    protected void desbloqueaLectura(long s) {
+        if (s != 0)
+            candado.unlockRead(s);
+    }
+
+    /**
+     * Adquiere el candado de escritura y regresa su estampa. Si el hilo actual
+     * ya tiene el candado de escritura, no adquiere nada y regresa 0. Mientras
+     * se vacían los escuchas asíncronos (ver {@link #setAsincrona}), espera a
+     * que terminen.
+     * @return la estampa para {@link #desbloqueaEscritura}.
+     */
+    protected long bloqueaEscritura() {
+        if (escritor == Thread.currentThread())
+            return 0;
+        long s;
+        while (true) {
+            esperaVaciado();
+            escritores.incrementAndGet();
+            try {
+                s = candado.writeLock();
+            } finally {
+                /* El último escritor en espera despierta a los lectores. */
+                if (escritores.decrementAndGet() == 0) {
+                    synchronized (turno) {
+                        turno.notifyAll();
+                    }
+                }
+            }
+            /* El vaciado pudo empezar mientras esperábamos el candado. */
+            if (!vaciando)
+                break;
+            candado.unlockWrite(s);
+        }
+        escritor = Thread.currentThread();
+        return s;
+    }
+
+    /* Espera a que termine el vaciado de los escuchas asíncronos, si lo
+     * hay. */
+    private void esperaVaciado() {
+        if (!vaciando)
+            return;
+        boolean interrumpido = false;
+        synchronized (puerta) {
+            while (vaciando) {
+                try {
+                    puerta.wait();
+                } catch (InterruptedException ie) {
+                    interrumpido = true;
+                }
+            }
+        }
+        if (interrumpido)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Libera el candado de escritura.
+     * @param s la estampa regresada por {@link #bloqueaEscritura}.
+     */
+    protected void desbloqueaEscritura(long s) {
+        if (s == 0)
+            return;
+        escritor = null;
+        candado.unlockWrite(s);
+    }
+
+    /**
+     * Reserva los valores de un registro que está por entrar a la base de
+     * datos, ya sea agregado o como los nuevos valores de un registro
+     * modificado. Si el método regresa <code>false</code> el registro se
+     * rechaza y la base de datos no es modificada. Se llama con el candado de
+     * escritura; la implementación por omisión acepta todos los registros.
+     * @param registro el registro que está por entrar a la base de datos.
+     * @return <code>true</code> si el registro se acepta, <code>false</code>
+     *         si se rechaza.
+     */
+    protected boolean reservaRegistro(R registro) {
+        return true;
+    }
+
+    /**
+     * Libera los valores de un registro que sale de la base de datos, ya sea
+     * eliminado o porque va a ser modificado; después de la llamada, los
+     * valores ya no están reservados. Se llama con el candado de escritura;
+     * la implementación por omisión no hace nada. Al limpiar la base de datos
+     * no se libera cada registro: las clases que reserven valores deben
+     * sobrecargar también a {@link #limpia}.
+     * @param registro el registro que sale de la base de datos.
+     */
+    protected void liberaRegistro(R registro) {}
+
+    /**
+     * Avisa que un registro entró a la base de datos, agregado o cargado, con
+     * un ordinal mayor que el de todos los que ya estaban. Se llama con el
+     * candado de escritura, antes de notificar a los escuchas; la
+     * implementación por omisión no hace nada. Las estructuras derivadas de
+     * los registros deben actualizarse aquí y no con un escucha: los
+     * escuchas pueden ser asíncronos, sus eventos se posponen dentro de una
+     * transacción, y cualquiera puede eliminarlos de la base de datos.
+     * @param registro el registro que entró a la base de datos.
+     * @param ordinal el ordinal del registro.
+     */
+    protected void registroAgregado(R registro, int ordinal) {}
+
+    /**
+     * Avisa que una aparición de un registro salió de la base de datos. Se
+     * llama con el candado de escritura, antes de notificar a los escuchas;
+     * la implementación por omisión no hace nada. Limpiar la base de datos no
+     * avisa por cada registro: las clases que sobrecarguen este método deben
+     * sobrecargar también a {@link #limpia}.
+     * @param registro el registro que salió de la base de datos.
+     * @param ordinal el ordinal de la aparición que salió.
+     */
+    protected void registroEliminado(R registro, int ordinal) {}
+
+    /**
+     * Avisa que una aparición de un registro tiene nuevos valores. Se llama
+     * con el candado de escritura, después de modificar el registro, una vez
+     * por cada aparición; la implementación por omisión no hace nada.
+     * @param registro el registro modificado, ya con sus nuevos valores.
+     * @param ordinal el ordinal de la aparición.
+     */
+    protected void registroModificado(R registro, int ordinal) {}
+
+    /**
+     * Avisa con {@link #registroModificado} de cada aparición del registro,
+     * que fue modificado directamente (por ejemplo, con sus métodos set) y no
+     * con {@link #modificaRegistro}. Sirve para que las estructuras derivadas
+     * de los registros los sigan; ni los escuchas ni las instantáneas se
+     * enteran del cambio. Si el registro no está en la base de datos no hace
+     * nada. Hay que llamarlo con el candado de escritura.
+     * @param registro el registro modificado, ya con sus nuevos valores.
+     */
+    protected void sincronizaRegistro(R registro) {
+        for (Entrada e = entradas.get(registro); e != null; e = e.siguiente)
+            registroModificado(registro, e.ordinal);
+    }
+
+    /**
+     * Recorre los registros de la base de datos en orden, con sus ordinales.
+     * Sirve para construir una estructura derivada con los registros que ya
+     * están en la base de datos; hay que llamarlo con el candado de escritura,
+     * para que no se pierda ninguna modificación entre el recorrido y los
+     * avisos siguientes.
+     * @param accion la acción a aplicar a cada registro y su ordinal.
+     */
+    protected void recorre(ObjIntConsumer<R> accion) {
+        /* Si un registro está más de una vez, la siguiente entrada a usar de
+         * cada una de sus apariciones. */
+        IdentityHashMap<R, Entrada> siguientes =
+            new IdentityHashMap<R, Entrada>();
+        for (R registro : registros) {
+            Entrada e = siguientes.remove(registro);
+            if (e == null)
+                e = entradas.get(registro);
+            if (e.siguiente != null)
+                siguientes.put(registro, e.siguiente);
+            accion.accept(registro, e.ordinal);
+        }
+    }
+
+    /* Agrega un registro al final de la lista de registros, si no se rechaza;
+     * regresa si fue agregado. */
+    private boolean agrega(R registro) {
+        if (!reservaRegistro(registro))
+            return false;
+        registros.agregaFinal(registro);
+        Entrada entrada = new Entrada(registros.asaUltimo(), ordinales++);
+        Entrada e = entradas.putIfAbsent(registro, entrada);
+        if (e != null) {
+            while (e.siguiente != null)
+                e = e.siguiente;
+            e.siguiente = entrada;
+        }
+        if (versiones != null)
+            versiones.agrega(entrada.ordinal, copia(registro));
+        registroAgregado(registro, entrada.ordinal);
+        return true;
+    }
+
+    /* Elimina de la lista de registros al registro mismo, o si no está, al
+     * primer registro igual a él; regresa el registro eliminado, o null si no
+     * había ninguno. */
+    private R elimina(R registro) {
+        R r = busca(registro);
+        if (r != null)
+            registros.eliminaAsa(olvida(r).asa);
+        return r;
+    }
+
+    /* Olvida la primera aparición del registro, que ya no debe contarse
+     * entre los de la base de datos, y regresa su entrada. */
+    private Entrada olvida(R registro) {
+        Entrada e = entradas.get(registro);
+        if (e.siguiente == null)
+            entradas.remove(registro);
+        else
+            entradas.put(registro, e.siguiente);
+        liberaRegistro(registro);
+        if (versiones != null)
+            versiones.elimina(e.ordinal);
+        registroEliminado(registro, e.ordinal);
+        return e;
+    }
+
+    /* Regresa el registro mismo si está en la base de datos, o si no, el
+     * primero igual a él; regresa null si no hay ninguno. La primera
+     * aparición del registro regresado es el primer nodo igual al recibido,
+     * así que su entrada es la primera de su registro. */
+    private R busca(R registro) {
+        if (entradas.containsKey(registro))
+            return registro;
+        Lista.Asa<R> asa = registros.buscaAsa(registro);
+        return asa != null ? asa.getElemento() : null;
+    }
+
+    /* Regresa una copia del registro. */
+    private R copia(R registro) {
+        R copia = creaRegistro();
+        copia.actualiza(registro);
+        return copia;
+    }
+
+    /* Pospone la notificación de la modificación de un registro. */
+    private void pospone(R registro, R registro2) {
+        if (!originales.containsKey(registro)) {
+            /* El registro en la base de datos va a cambiar, así que
+             * guardamos una copia de sus valores originales. */
+            originales.put(registro, copia(registro));
+            modificados.agregaFinal(registro);
+        }
+        nuevos.put(registro, registro2);
+    }
+
+    /* Notifica las modificaciones pospuestas. */
+    private void notificaPospuestas() {
+        if (modificados.esVacia())
+            return;
+        Lista<R> pospuestos = modificados;
+        modificados = new Lista<R>();
+        for (R registro : pospuestos) {
+            R original = originales.remove(registro);
+            R nuevo = nuevos.remove(registro);
+            EventoBaseDeDatos evento = EventoBaseDeDatos.REGISTRO_MODIFICADO;
+            for (EscuchaBaseDeDatos<R> escucha : suscritos.get(evento))
+                escucha.baseDeDatosModificada(evento, original, nuevo);
+        }
+    }
+
+    /* Notifica a los escuchas de un evento sobre uno o dos registros. */
+    private void notifica(EventoBaseDeDatos evento, R registro1, R registro2) {
+        notificaPospuestas();
+        for (EscuchaBaseDeDatos<R> escucha : suscritos.get(evento))
+            escucha.baseDeDatosModificada(evento, registro1, registro2);
+    }
+
+    /* Notifica a los escuchas de un evento sobre varios registros. */
+    private void notifica(EventoBaseDeDatos evento, Lista<R> registros) {
+        if (registros.esVacia())
+            return;
+        notificaPospuestas();
+        for (EscuchaBaseDeDatos<R> escucha : suscritos.get(evento))
+            escucha.baseDeDatosModificada(evento, registros);
     }
 }
@@ -1,16 +1,366 @@
 package mx.unam.ciencias.icc;
 
+import java.util.function.Consumer;
+
 /**
  * Clase para bases de datos de estudiantes.
+ *
+ * Opcionalmente, la base de datos puede mantener una copia de sus registros
+ * por columnas ({@link ColumnasEstudiantes}, ver {@link #setColumnas});
+ * cuando lo hace, las búsquedas recorren la columna del campo en lugar de los
+ * registros, y pueden regresar mapas de bits de ordinales (ver {@link
+ * #conjunto}). Las columnas son un índice secundario: guardan una segunda
+ * copia de los valores, que la base de datos mantiene al día no sólo en sus
+ * escrituras sino también cuando un estudiante suyo se modifica
+ * directamente, con sus métodos set o sus propiedades. Por eso, mientras se
+ * usan columnas, cada cambio directo a un estudiante de la base de datos
+ * toma el candado de escritura, y no debe hacerse desde un hilo que tenga el
+ * de lectura.
+ *
+ * También opcionalmente, uno de los campos numéricos puede ser llave única
+ * (ver {@link #setCampoUnico}): los registros cuyo valor en ese campo ya
+ * esté en la base de datos se rechazan al agregarlos, cargarlos o
+ * modificarlos, y quedan reportados en {@link #getRechazados}.
  */
 public class BaseDeDatosEstudiantes
     extends BaseDeDatos<Estudiante, CampoEstudiante> {
 
+    /* Las columnas de la base de datos, o null si no se usan. Sólo se
+     * modifican con el candado de escritura, y sólo se leen con el de
+     * lectura. */
+    private volatile ColumnasEstudiantes columnas;
+    /* El campo que es llave única, o null si no hay. */
+    private CampoEstudiante campoUnico;
+    /* Las llaves de los registros en la base de datos, si hay campo único. */
+    private ConjuntoLlaves llaves;
+    /* Los registros rechazados por tener una llave repetida. */
+    private Lista<Estudiante> rechazados;
+    /* El observador que registramos en cada estudiante mientras se usan
+     * columnas, una vez por aparición. */
+    private Consumer<Estudiante> observador;
+
+    /**
+     * Construye una base de datos de estudiantes vacía.
+     */
+    public BaseDeDatosEstudiantes() {
+        super();
+        rechazados = new Lista<Estudiante>();
+        observador = this::estudianteModificado;
+    }
+
     /**
      * Crea un estudiante en blanco.
      * @return un estudiante en blanco.
      */
     @Override public Estudiante creaRegistro() {
-        // Aquí va su código.
+        return new Estudiante(null, 0, 0.0, 0);
+    }
+
+    /**
+     * Define si la base de datos mantiene sus registros por columnas. Al
+     * activarlas se crean las columnas con los registros actuales, en tiempo
+     * lineal, y a partir de entonces la base de datos las actualiza en cada
+     * escritura y en cada cambio directo a uno de sus estudiantes; para eso
+     * cada estudiante recibe un observador, que se le quita al desactivarlas,
+     * también en tiempo lineal, junto con las columnas.
+     * @param columnas si la base de datos debe mantener sus registros por
+     *                 columnas.
+     */
+    public void setColumnas(boolean columnas) {
+        long s = bloqueaEscritura();
+        try {
+            if (!columnas) {
+                if (this.columnas != null)
+                    recorre((e, o) -> e.eliminaObservador(observador));
+                this.columnas = null;
+            } else if (this.columnas == null) {
+                ColumnasEstudiantes c = new ColumnasEstudiantes();
+                recorre((e, o) -> {
+                        c.agrega(e, o);
+                        e.agregaObservador(observador);
+                    });
+                this.columnas = c;
+            }
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Nos dice si la base de datos mantiene sus registros por columnas.
+     * @return <code>true</code> si la base de datos mantiene sus registros por
+     *         columnas, <code>false</code> en otro caso.
+     */
+    public boolean usaColumnas() {
+        return columnas != null;
+    }
+
+    /**
+     * Busca registros por un campo específico. Si la base de datos mantiene
+     * sus registros por columnas, la búsqueda recorre nada más la columna del
+     * campo.
+     * @param campo el campo del registro por el cuál buscar.
+     * @param valor el valor a buscar.
+     * @return una lista con los registros tales que casan el campo especificado
+     *         con el valor dado.
+     * @throws IllegalArgumentException si el campo es <code>null</code>.
+     */
+    @Override public Lista<Estudiante> buscaRegistros(CampoEstudiante campo,
+                                                      Object valor) {
+        /* El candado de lectura no es reentrante, así que la búsqueda por
+         * registros se hace después de soltarlo. */
+        long s = bloqueaLectura();
+        try {
+            if (columnas != null)
+                return columnas.busca(campo, valor);
+        } finally {
+            desbloqueaLectura(s);
+        }
+        return super.buscaRegistros(campo, valor);
+    }
+
+    /**
+     * Regresa el mapa de bits con los ordinales de los registros que casan el
+     * valor dado en el campo especificado, con la misma semántica que {@link
+     * Estudiante#casa}. Los ordinales no cambian mientras los registros están
+     * en la base de datos, así que los mapas de distintas búsquedas pueden
+     * combinarse con las operaciones de {@link MapaDeBits}, y convertirse en
+     * registros al final con {@link #registros(MapaDeBits)}, aunque la base
+     * de datos se modifique entre tanto.
+     * @param campo el campo por el cuál buscar.
+     * @param valor el valor a buscar.
+     * @return el mapa de bits con los ordinales de los registros que casan.
+     * @throws IllegalArgumentException si el campo es <code>null</code>.
+     * @throws IllegalStateException si la base de datos no mantiene sus
+     *         registros por columnas.
+     */
+    public MapaDeBits conjunto(CampoEstudiante campo, Object valor) {
+        long s = bloqueaLectura();
+        try {
+            return columnasEnUso().conjunto(campo, valor);
+        } finally {
+            desbloqueaLectura(s);
+        }
+    }
+
+    /**
+     * Regresa el mapa de bits con los ordinales de todos los registros. Sirve
+     * para complementar los mapas de {@link #conjunto}, con {@link
+     * MapaDeBits#menos}.
+     * @return el mapa de bits con los ordinales de todos los registros.
+     * @throws IllegalStateException si la base de datos no mantiene sus
+     *         registros por columnas.
+     */
+    public MapaDeBits getOrdinales() {
+        long s = bloqueaLectura();
+        try {
+            return columnasEnUso().getOrdinales();
+        } finally {
+            desbloqueaLectura(s);
+        }
+    }
+
+    /**
+     * Regresa una lista con los registros cuyos ordinales están en el mapa de
+     * bits, en el orden de la base de datos. Los ordinales de registros que
+     * ya no están en la base de datos se ignoran.
+     * @param mapa el mapa de bits de ordinales.
+     * @return una lista con los registros cuyos ordinales están en el mapa.
+     * @throws IllegalArgumentException si el mapa es <code>null</code>.
+     * @throws IllegalStateException si la base de datos no mantiene sus
+     *         registros por columnas.
+     */
+    public Lista<Estudiante> registros(MapaDeBits mapa) {
+        if (mapa == null)
+            throw new IllegalArgumentException("Mapa nulo.");
+        long s = bloqueaLectura();
+        try {
+            return columnasEnUso().registros(mapa);
+        } finally {
+            desbloqueaLectura(s);
+        }
+    }
+
+    /**
+     * Define el campo que es llave única en la base de datos. A partir de
+     * entonces, cada registro cuyo valor en el campo ya esté en la base de
+     * datos es rechazado al agregarlo, cargarlo o modificarlo, y se agrega a
+     * los registros rechazados. Revisar la llave cuesta tiempo constante
+     * esperado. Definir el campo vacía la lista de registros rechazados.
+     * @param campo el campo que es llave única, o <code>null</code> para que
+     *              no haya ninguno.
+     * @throws IllegalArgumentException si el campo es {@link
+     *         CampoEstudiante#NOMBRE}; sólo los campos numéricos pueden ser
+     *         llave única.
+     * @throws IllegalStateException si los registros que ya están en la base
+     *         de datos repiten valores del campo; en ese caso la llave única
+     *         no cambia.
+     */
+    public void setCampoUnico(CampoEstudiante campo) {
+        if (campo == CampoEstudiante.NOMBRE)
+            throw new IllegalArgumentException("El nombre no puede ser " +
+                                               "llave única.");
+        long s = bloqueaEscritura();
+        try {
+            ConjuntoLlaves l = null;
+            if (campo != null) {
+                l = new ConjuntoLlaves();
+                for (Estudiante estudiante : getRegistros())
+                    if (!l.agrega(llave(estudiante, campo)))
+                        throw new IllegalStateException("Llave repetida: " +
+                                                        estudiante);
+            }
+            campoUnico = campo;
+            llaves = l;
+            rechazados.limpia();
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Regresa el campo que es llave única en la base de datos.
+     * @return el campo que es llave única, o <code>null</code> si no hay
+     *         ninguno.
+     */
+    public CampoEstudiante getCampoUnico() {
+        long s = bloqueaLectura();
+        try {
+            return campoUnico;
+        } finally {
+            desbloqueaLectura(s);
+        }
+    }
+
+    /**
+     * Regresa una lista con los registros rechazados por repetir la llave
+     * única, en el orden en que fueron rechazados, desde que se definió el
+     * campo único o desde la última vez que se limpió la base de datos; en
+     * particular, después de {@link #carga} son los registros repetidos de
+     * la entrada. Modificar esta lista no cambia a los registros rechazados.
+     * @return una lista con los registros rechazados.
+     */
+    public Lista<Estudiante> getRechazados() {
+        long s = bloqueaLectura();
+        try {
+            return rechazados.copia();
+        } finally {
+            desbloqueaLectura(s);
+        }
+    }
+
+    /**
+     * Limpia la base de datos, las llaves únicas y los registros rechazados.
+     */
+    @Override public void limpia() {
+        long s = bloqueaEscritura();
+        try {
+            if (llaves != null)
+                llaves.limpia();
+            if (columnas != null) {
+                recorre((e, o) -> e.eliminaObservador(observador));
+                columnas.limpia();
+            }
+            rechazados.limpia();
+            super.limpia();
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /**
+     * Reserva la llave única del estudiante; si ya está en la base de datos,
+     * el estudiante es rechazado.
+     * @param estudiante el estudiante que está por entrar a la base de datos.
+     * @return <code>true</code> si no hay campo único o la llave del
+     *         estudiante no estaba en la base de datos, <code>false</code> en
+     *         otro caso.
+     */
+    @Override protected boolean reservaRegistro(Estudiante estudiante) {
+        if (llaves == null || llaves.agrega(llave(estudiante, campoUnico)))
+            return true;
+        rechazados.agregaFinal(estudiante);
+        return false;
+    }
+
+    /**
+     * Libera la llave única del estudiante.
+     * @param estudiante el estudiante que sale de la base de datos.
+     */
+    @Override protected void liberaRegistro(Estudiante estudiante) {
+        if (llaves != null)
+            llaves.elimina(llave(estudiante, campoUnico));
+    }
+
+    /**
+     * Agrega el estudiante a las columnas, si se usan, y lo observa.
+     * @param estudiante el estudiante que entró a la base de datos.
+     * @param ordinal el ordinal del estudiante.
+     */
+    @Override protected void registroAgregado(Estudiante estudiante,
+                                              int ordinal) {
+        if (columnas != null) {
+            columnas.agrega(estudiante, ordinal);
+            estudiante.agregaObservador(observador);
+        }
+    }
+
+    /**
+     * Elimina el renglón del estudiante de las columnas, si se usan, y deja
+     * de observar esa aparición.
+     * @param estudiante el estudiante que salió de la base de datos.
+     * @param ordinal el ordinal del estudiante.
+     */
+    @Override protected void registroEliminado(Estudiante estudiante,
+                                               int ordinal) {
+        if (columnas != null) {
+            columnas.elimina(ordinal);
+            estudiante.eliminaObservador(observador);
+        }
+    }
+
+    /**
+     * Reescribe el renglón del estudiante en las columnas, si se usan.
+     * @param estudiante el estudiante modificado.
+     * @param ordinal el ordinal del estudiante.
+     */
+    @Override protected void registroModificado(Estudiante estudiante,
+                                                int ordinal) {
+        if (columnas != null)
+            columnas.modifica(ordinal, estudiante);
+    }
+
+    /* Reescribe los renglones del estudiante, que fue modificado
+     * directamente. Si el hilo ya tiene el candado de escritura (por ejemplo,
+     * dentro de modificaRegistro) no se bloquea. */
+    private void estudianteModificado(Estudiante estudiante) {
+        long s = bloqueaEscritura();
+        try {
+            if (columnas != null)
+                sincronizaRegistro(estudiante);
+        } finally {
+            desbloqueaEscritura(s);
+        }
+    }
+
+    /* Regresa las columnas; hay que llamarlo con algún candado. */
+    private ColumnasEstudiantes columnasEnUso() {
+        if (columnas == null)
+            throw new IllegalStateException("La base de datos no usa " +
+                                            "columnas.");
+        return columnas;
+    }
+
+    /* Regresa el valor del campo numérico del estudiante como llave. */
+    private static long llave(Estudiante estudiante, CampoEstudiante campo) {
+        switch (campo) {
+        case CUENTA:
+            return estudiante.getCuenta();
+        case EDAD:
+            return estudiante.getEdad();
+        default:
+            /* Sumar 0.0 convierte -0.0 en 0.0, que son el mismo promedio. */
+            return Double.doubleToLongBits(estudiante.getPromedio() + 0.0);
+        }
     }
 }
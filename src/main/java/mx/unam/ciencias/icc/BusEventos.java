@@ -0,0 +1,297 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * <p>Clase para buses de eventos de bases de datos.</p>
+ *
+ * <p>Un bus es un anillo de ranuras preasignadas entre un único productor y
+ * varios consumidores. El bus implementa {@link EscuchaBaseDeDatos}, así que
+ * el productor es la base de datos a la que se agrega como escucha: cada
+ * evento se copia a la siguiente ranura del anillo y se publica avanzando un
+ * contador, sin candados. Cada consumidor es un escucha con su propio hilo,
+ * que recorre el anillo detrás del productor y entrega a su escucha, en
+ * orden, todos los eventos publicados desde la última vez (en lotes),
+ * avanzando su propio contador una sola vez por lote.</p>
+ *
+ * <p>Los consumidores reciben los eventos después de que la base de datos
+ * siguió adelante, así que el bus no guarda en las ranuras nada que ella
+ * pueda cambiar: las listas de registros se copian, y también los dos
+ * registros de {@link EventoBaseDeDatos#REGISTRO_MODIFICADO}, que suelen
+ * ser el registro mismo de la base de datos, a punto de actualizarse, y el
+ * del llamador. Para copiarlos el bus usa una fábrica de registros en
+ * blanco. Los demás eventos no reservan memoria, y sus registros se
+ * entregan por referencia.</p>
+ *
+ * <p>Sólo un hilo puede publicar eventos. Cuando el anillo está lleno, el
+ * productor espera al consumidor más lento; cuando está vacío, los
+ * consumidores esperan al productor. Cómo esperan lo determina la {@link
+ * EstrategiaEspera} del bus.</p>
+ *
+ * @param <R> El tipo de los registros.
+ */
+public class BusEventos<R extends Registro<R, ?>>
+    implements EscuchaBaseDeDatos<R> {
+
+    /**
+     * Enumeración para las estrategias de espera del bus.
+     */
+    public enum EstrategiaEspera {
+
+        /** Gira activamente; la menor latencia, pero ocupa un núcleo. */
+        GIRA {
+            @Override void espera() {
+                Thread.onSpinWait();
+            }
+        },
+
+        /** Cede el procesador a otros hilos entre intentos. */
+        CEDE {
+            @Override void espera() {
+                Thread.yield();
+            }
+        },
+
+        /** Duerme brevemente entre intentos; la mayor latencia. */
+        ESTACIONA {
+            @Override void espera() {
+                LockSupport.parkNanos(50000);
+            }
+        };
+
+        /* Espera un poco antes del siguiente intento. */
+        abstract void espera();
+    }
+
+    /* Clase interna privada para ranuras. */
+    private static class Ranura<R> {
+        /* El evento. */
+        private EventoBaseDeDatos evento;
+        /* El primer registro. */
+        private R registro1;
+        /* El segundo registro. */
+        private R registro2;
+        /* Los registros de un evento sobre varios registros. */
+        private Lista<R> registros;
+    }
+
+    /* Clase interna privada para consumidores. */
+    private class Consumidor implements Runnable {
+        /* El escucha del consumidor. */
+        private EscuchaBaseDeDatos<R> escucha;
+        /* El último evento entregado. */
+        private AtomicLong secuencia;
+        /* El hilo del consumidor. */
+        private Thread hilo;
+
+        /* Construye un consumidor que empieza en la secuencia recibida. */
+        private Consumidor(EscuchaBaseDeDatos<R> escucha, long secuencia) {
+            this.escucha = escucha;
+            this.secuencia = new AtomicLong(secuencia);
+        }
+
+        /* Entrega los eventos publicados en lotes. */
+        @Override public void run() {
+            long s = secuencia.get() + 1;
+            while (true) {
+                long disponible = publicado.get();
+                if (disponible < s) {
+                    if (terminado && publicado.get() < s)
+                        return;
+                    estrategia.espera();
+                    continue;
+                }
+                for (; s <= disponible; s++)
+                    entrega(ranuras[(int)s & mascara]);
+                secuencia.lazySet(disponible);
+            }
+        }
+
+        /* Entrega el evento de una ranura al escucha; un escucha que falla,
+         * aunque sea con un Error, no debe detener al consumidor, o espera
+         * y termina lo esperarían para siempre. */
+        private void entrega(Ranura<R> ranura) {
+            try {
+                if (ranura.registros != null)
+                    escucha.baseDeDatosModificada(ranura.evento,
+                                                  ranura.registros);
+                else
+                    escucha.baseDeDatosModificada(ranura.evento,
+                                                  ranura.registro1,
+                                                  ranura.registro2);
+            } catch (Throwable t) {
+                hilo.getUncaughtExceptionHandler().uncaughtException(hilo, t);
+            }
+        }
+    }
+
+    /* Las ranuras del anillo. */
+    private Ranura<R>[] ranuras;
+    /* Máscara para convertir secuencias en índices del anillo. */
+    private int mascara;
+    /* La estrategia de espera. */
+    private EstrategiaEspera estrategia;
+    /* El último evento publicado. */
+    private AtomicLong publicado;
+    /* El último evento reservado por el productor. */
+    private long reservado;
+    /* La secuencia del consumidor más lento, la última vez que se vio. */
+    private long minimo;
+    /* Los consumidores; el arreglo se reemplaza, nunca se modifica. */
+    private volatile Consumidor[] consumidores;
+    /* Si el bus fue terminado. */
+    private volatile boolean terminado;
+    /* La fábrica de registros en blanco, para las copias. */
+    private Supplier<R> fabrica;
+
+    /**
+     * Construye un bus con la capacidad, estrategia de espera y fábrica de
+     * registros recibidas.
+     * @param capacidad el número de ranuras del anillo; tiene que ser una
+     *        potencia de dos.
+     * @param estrategia la estrategia de espera del bus.
+     * @param fabrica la fábrica de registros en blanco para copiar los
+     *        registros de las modificaciones; por ejemplo, el método {@link
+     *        BaseDeDatos#creaRegistro} de la base de datos.
+     * @throws IllegalArgumentException si la capacidad no es una potencia de
+     *         dos positiva, o si la estrategia o la fábrica son
+     *         <code>null</code>.
+     */
+    public BusEventos(int capacidad, EstrategiaEspera estrategia,
+                      Supplier<R> fabrica) {
+        if (capacidad <= 0 || Integer.bitCount(capacidad) != 1)
+            throw new IllegalArgumentException("Capacidad inválida: " +
+                                               capacidad);
+        if (estrategia == null)
+            throw new IllegalArgumentException("Estrategia nula.");
+        if (fabrica == null)
+            throw new IllegalArgumentException("Fábrica nula.");
+        this.fabrica = fabrica;
+        @SuppressWarnings("unchecked") Ranura<R>[] r = new Ranura[capacidad];
+        ranuras = r;
+        for (int i = 0; i < capacidad; i++)
+            ranuras[i] = new Ranura<R>();
+        mascara = capacidad - 1;
+        this.estrategia = estrategia;
+        publicado = new AtomicLong(-1);
+        reservado = minimo = -1;
+        @SuppressWarnings("unchecked")
+        Consumidor[] c = new BusEventos.Consumidor[0];
+        consumidores = c;
+    }
+
+    /**
+     * Agrega un consumidor al bus, con su propio hilo. El consumidor recibe
+     * los eventos publicados después de agregarse.
+     * @param escucha el escucha del consumidor.
+     * @throws IllegalArgumentException si el escucha es <code>null</code>.
+     * @throws IllegalStateException si el bus ya fue terminado.
+     */
+    public synchronized void agregaConsumidor(EscuchaBaseDeDatos<R> escucha) {
+        if (escucha == null)
+            throw new IllegalArgumentException("Escucha nulo.");
+        if (terminado)
+            throw new IllegalStateException("Bus terminado.");
+        Consumidor consumidor = new Consumidor(escucha, publicado.get());
+        Consumidor[] c = Arrays.copyOf(consumidores, consumidores.length + 1);
+        c[c.length - 1] = consumidor;
+        consumidores = c;
+        consumidor.hilo = new Thread(consumidor);
+        consumidor.hilo.setDaemon(true);
+        consumidor.hilo.start();
+    }
+
+    /**
+     * Publica un evento sobre uno o dos registros.
+     * @param evento el tipo de cambio.
+     * @param registro1 el registro afectado.
+     * @param registro2 el registro con los nuevos valores.
+     * @throws IllegalStateException si el bus ya fue terminado.
+     */
+    @Override public void baseDeDatosModificada(EventoBaseDeDatos evento,
+                                                R registro1, R registro2) {
+        publica(evento, registro1, registro2, null);
+    }
+
+    /**
+     * Publica un evento sobre varios registros.
+     * @param evento el tipo de cambio.
+     * @param registros los registros afectados.
+     * @throws IllegalStateException si el bus ya fue terminado.
+     */
+    @Override public void baseDeDatosModificada(EventoBaseDeDatos evento,
+                                                Lista<R> registros) {
+        publica(evento, null, null, registros);
+    }
+
+    /**
+     * Espera a que todos los consumidores reciban los eventos publicados
+     * hasta ahora, usando la estrategia de espera del bus.
+     */
+    public void espera() {
+        long s = publicado.get();
+        for (Consumidor consumidor : consumidores)
+            while (consumidor.secuencia.get() < s)
+                estrategia.espera();
+    }
+
+    /**
+     * Termina el bus. Los consumidores reciben los eventos ya publicados y
+     * sus hilos terminan; el método regresa cuando todos terminaron.
+     * @throws InterruptedException si el hilo que espera es interrumpido.
+     */
+    public void termina() throws InterruptedException {
+        synchronized (this) {
+            terminado = true;
+        }
+        for (Consumidor consumidor : consumidores)
+            consumidor.hilo.join();
+    }
+
+    /* Copia el evento en la siguiente ranura y lo publica. */
+    private void publica(EventoBaseDeDatos evento, R registro1, R registro2,
+                         Lista<R> registros) {
+        if (terminado)
+            throw new IllegalStateException("Bus terminado.");
+        if (evento == EventoBaseDeDatos.REGISTRO_MODIFICADO) {
+            registro1 = copia(registro1);
+            registro2 = copia(registro2);
+        }
+        if (registros != null)
+            registros = registros.copia();
+        long s = reservado + 1;
+        long limite = s - ranuras.length;
+        while (limite > minimo) {
+            minimo = minimo();
+            if (limite > minimo)
+                estrategia.espera();
+        }
+        Ranura<R> ranura = ranuras[(int)s & mascara];
+        ranura.evento = evento;
+        ranura.registro1 = registro1;
+        ranura.registro2 = registro2;
+        ranura.registros = registros;
+        reservado = s;
+        publicado.set(s);
+    }
+
+    /* Regresa una copia del registro, o null si es null. */
+    private R copia(R registro) {
+        if (registro == null)
+            return null;
+        R copia = fabrica.get();
+        copia.actualiza(registro);
+        return copia;
+    }
+
+    /* Regresa la secuencia del consumidor más lento. */
+    private long minimo() {
+        long m = publicado.get();
+        for (Consumidor consumidor : consumidores)
+            m = Math.min(m, consumidor.secuencia.get());
+        return m;
+    }
+}
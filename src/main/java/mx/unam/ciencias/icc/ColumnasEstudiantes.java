@@ -0,0 +1,480 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Arrays;
+
+/**
+ * <p>Clase para guardar estudiantes por columnas.</p>
+ *
+ * <p>En lugar de recorrer un objeto por estudiante, cada campo se guarda en su
+ * propio arreglo: los números de cuenta y las edades en arreglos de
+ * <code>int</code>, los promedios en uno de <code>double</code>, y los nombres
+ * empacados uno tras otro en un arreglo de <code>char</code>. Recorrer un
+ * campo de todos los estudiantes es entonces un ciclo sobre un arreglo de
+ * primitivos.</p>
+ *
+ * <p>Cada renglón se identifica con un <em>ordinal</em>, que recibe al
+ * agregarse y que no cambia mientras está en las columnas; los ordinales
+ * crecen en el orden de los renglones. Eliminar o modificar un renglón por su
+ * ordinal cuesta tiempo logarítmico: el renglón eliminado queda como hueco, y
+ * los huecos se compactan cuando son más que los renglones. Los mapas de bits
+ * de las búsquedas tienen ordinales, así que siguen siendo válidos aunque las
+ * columnas se modifiquen después.</p>
+ *
+ * <p>Cada renglón conserva además una referencia al registro de la base de
+ * datos, para poder regresarlo en las búsquedas. Los valores de los campos,
+ * en cambio, son una copia: las columnas no observan a los estudiantes, y
+ * quien las mantenga debe reescribir el renglón con {@link #modifica} cada
+ * vez que uno cambie. Las columnas no son seguras para hilos. {@link
+ * BaseDeDatosEstudiantes} mantiene las suyas sin compartirlas: las modifica
+ * en sus escrituras y cuando uno de sus estudiantes cambia directamente, con
+ * el candado de escritura, y las lee con el de lectura (ver {@link
+ * BaseDeDatosEstudiantes#conjunto}).</p>
+ */
+public class ColumnasEstudiantes {
+
+    /* Capacidad inicial de las columnas. */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /* Los registros de cada renglón, o null en los huecos. */
+    private Estudiante[] registros;
+    /* Los ordinales de cada renglón, en orden creciente. */
+    private int[] ordinales;
+    /* Los renglones que no son huecos, un bit por renglón. */
+    private long[] vivos;
+    /* Los números de cuenta. */
+    private int[] cuentas;
+    /* Los promedios. */
+    private double[] promedios;
+    /* Las edades. */
+    private int[] edades;
+    /* Dónde empieza cada nombre en el arreglo de nombres. */
+    private int[] inicios;
+    /* La longitud de cada nombre. */
+    private int[] longitudes;
+    /* Los nombres, empacados uno tras otro. */
+    private char[] nombres;
+    /* Caracteres usados del arreglo de nombres. */
+    private int usados;
+    /* Caracteres del arreglo de nombres que ya no pertenecen a nadie. */
+    private int basura;
+    /* El número de renglones, incluyendo los huecos. */
+    private int renglones;
+    /* El número de huecos. */
+    private int huecos;
+
+    /**
+     * Construye columnas vacías.
+     */
+    public ColumnasEstudiantes() {
+        registros = new Estudiante[CAPACIDAD_INICIAL];
+        ordinales = new int[CAPACIDAD_INICIAL];
+        vivos = new long[CAPACIDAD_INICIAL / 64 + 1];
+        cuentas = new int[CAPACIDAD_INICIAL];
+        promedios = new double[CAPACIDAD_INICIAL];
+        edades = new int[CAPACIDAD_INICIAL];
+        inicios = new int[CAPACIDAD_INICIAL];
+        longitudes = new int[CAPACIDAD_INICIAL];
+        nombres = new char[CAPACIDAD_INICIAL * 16];
+    }
+
+    /**
+     * Regresa el número de renglones en las columnas.
+     * @return el número de renglones en las columnas.
+     */
+    public int getNumRenglones() {
+        return renglones - huecos;
+    }
+
+    /**
+     * Regresa el nombre del renglón con el ordinal recibido.
+     * @param ordinal el ordinal del renglón.
+     * @return el nombre del renglón.
+     * @throws ExcepcionIndiceInvalido si no hay renglón con el ordinal.
+     */
+    public String getNombre(int ordinal) {
+        int i = verificaOrdinal(ordinal);
+        if (longitudes[i] < 0)
+            return null;
+        return new String(nombres, inicios[i], longitudes[i]);
+    }
+
+    /**
+     * Regresa el número de cuenta del renglón con el ordinal recibido.
+     * @param ordinal el ordinal del renglón.
+     * @return el número de cuenta del renglón.
+     * @throws ExcepcionIndiceInvalido si no hay renglón con el ordinal.
+     */
+    public int getCuenta(int ordinal) {
+        return cuentas[verificaOrdinal(ordinal)];
+    }
+
+    /**
+     * Regresa el promedio del renglón con el ordinal recibido.
+     * @param ordinal el ordinal del renglón.
+     * @return el promedio del renglón.
+     * @throws ExcepcionIndiceInvalido si no hay renglón con el ordinal.
+     */
+    public double getPromedio(int ordinal) {
+        return promedios[verificaOrdinal(ordinal)];
+    }
+
+    /**
+     * Regresa la edad del renglón con el ordinal recibido.
+     * @param ordinal el ordinal del renglón.
+     * @return la edad del renglón.
+     * @throws ExcepcionIndiceInvalido si no hay renglón con el ordinal.
+     */
+    public int getEdad(int ordinal) {
+        return edades[verificaOrdinal(ordinal)];
+    }
+
+    /**
+     * Regresa el estudiante del renglón con el ordinal recibido.
+     * @param ordinal el ordinal del renglón.
+     * @return el estudiante del renglón.
+     * @throws ExcepcionIndiceInvalido si no hay renglón con el ordinal.
+     */
+    public Estudiante getEstudiante(int ordinal) {
+        return registros[verificaOrdinal(ordinal)];
+    }
+
+    /**
+     * Agrega un estudiante al final de las columnas.
+     * @param estudiante el estudiante a agregar.
+     * @param ordinal el ordinal del nuevo renglón, que tiene que ser mayor que
+     *        el de todos los renglones que ya se agregaron.
+     * @throws IllegalArgumentException si <code>estudiante</code> es
+     *         <code>null</code>, o si el ordinal es negativo o no es mayor que
+     *         el del último renglón agregado.
+     */
+    public void agrega(Estudiante estudiante, int ordinal) {
+        if (estudiante == null)
+            throw new IllegalArgumentException("Estudiante nulo.");
+        if (ordinal < 0 ||
+            (renglones > 0 && ordinal <= ordinales[renglones - 1]))
+            throw new IllegalArgumentException("Ordinal inválido: " +
+                                               ordinal);
+        if (renglones == cuentas.length)
+            crece();
+        registros[renglones] = estudiante;
+        ordinales[renglones] = ordinal;
+        vivos[renglones >>> 6] |= 1L << renglones;
+        inicios[renglones] = usados;
+        longitudes[renglones] = 0;
+        escribe(renglones, estudiante);
+        renglones++;
+    }
+
+    /**
+     * Elimina el renglón con el ordinal recibido. Si no hay ninguno, las
+     * columnas no se modifican.
+     * @param ordinal el ordinal del renglón a eliminar.
+     */
+    public void elimina(int ordinal) {
+        int i = renglon(ordinal);
+        if (i == -1)
+            return;
+        basura += Math.max(longitudes[i], 0);
+        longitudes[i] = 0;
+        registros[i] = null;
+        vivos[i >>> 6] &= ~(1L << i);
+        huecos++;
+        if (huecos > renglones / 2)
+            quitaHuecos();
+    }
+
+    /**
+     * Modifica el renglón con el ordinal recibido para que tenga los valores
+     * del estudiante. Si no hay ninguno, las columnas no se modifican.
+     * @param ordinal el ordinal del renglón a modificar.
+     * @param estudiante el estudiante con los nuevos valores.
+     */
+    public void modifica(int ordinal, Estudiante estudiante) {
+        int i = renglon(ordinal);
+        if (i != -1)
+            escribe(i, estudiante);
+    }
+
+    /**
+     * Limpia las columnas, dejándolas vacías.
+     */
+    public void limpia() {
+        for (int i = 0; i < renglones; i++)
+            registros[i] = null;
+        Arrays.fill(vivos, 0L);
+        renglones = huecos = usados = basura = 0;
+    }
+
+    /**
+     * Busca los estudiantes que casan el valor dado en el campo especificado,
+     * con la misma semántica que {@link Estudiante#casa}, pero recorriendo
+     * únicamente la columna del campo.
+     * @param campo el campo por el cuál buscar.
+     * @param valor el valor a buscar.
+     * @return una lista con los estudiantes que casan el campo especificado
+     *         con el valor dado, en el orden de las columnas.
+     * @throws IllegalArgumentException si el campo es <code>null</code>.
+     */
+    public Lista<Estudiante> busca(CampoEstudiante campo, Object valor) {
+        return registros(mascara(campo, valor));
+    }
+
+    /**
+     * Regresa el mapa de bits con los ordinales de los renglones que casan el
+     * valor dado en el campo especificado, con la misma semántica que {@link
+     * Estudiante#casa}. Los mapas de distintas búsquedas pueden combinarse
+     * con las operaciones de {@link MapaDeBits}, y convertirse en registros al
+     * final con {@link #registros(MapaDeBits)}.
+     * @param campo el campo por el cuál buscar.
+     * @param valor el valor a buscar.
+     * @return el mapa de bits con los ordinales de los renglones que casan.
+     * @throws IllegalArgumentException si el campo es <code>null</code>.
+     */
+    public MapaDeBits conjunto(CampoEstudiante campo, Object valor) {
+        return ordinales(mascara(campo, valor));
+    }
+
+    /**
+     * Regresa el mapa de bits con los ordinales de todos los renglones. Sirve
+     * para complementar los mapas de {@link #conjunto}, con {@link
+     * MapaDeBits#menos}.
+     * @return el mapa de bits con los ordinales de todos los renglones.
+     */
+    public MapaDeBits getOrdinales() {
+        return ordinales(vivos);
+    }
+
+    /**
+     * Regresa una lista con los estudiantes de los renglones cuyos ordinales
+     * están en el mapa de bits, en el orden de las columnas. Los enteros del
+     * mapa que no son el ordinal de un renglón se ignoran.
+     * @param mapa el mapa de bits de ordinales.
+     * @return una lista con los estudiantes de los renglones en el mapa.
+     */
+    public Lista<Estudiante> registros(MapaDeBits mapa) {
+        Lista<Estudiante> lista = new Lista<Estudiante>();
+        /* Los ordinales del mapa y de los renglones crecen, así que cada
+         * búsqueda empieza donde terminó la anterior. */
+        int i = 0;
+        for (int ordinal : mapa) {
+            if (i == renglones)
+                break;
+            int j = Arrays.binarySearch(ordinales, i, renglones, ordinal);
+            if (j < 0) {
+                i = -j - 1;
+                continue;
+            }
+            if (registros[j] != null)
+                lista.agregaFinal(registros[j]);
+            i = j + 1;
+        }
+        return lista;
+    }
+
+    /* Regresa la máscara de los renglones que casan el valor dado en el campo
+     * especificado; el bit i % 64 de la palabra i / 64 corresponde al
+     * i-ésimo renglón. Los huecos nunca casan. */
+    private long[] mascara(CampoEstudiante campo, Object valor) {
+        if (campo == null)
+            throw new IllegalArgumentException("Campo nulo.");
+        long[] mascara = new long[(renglones + 63) >>> 6];
+        switch (campo) {
+        case NOMBRE:
+            if (!(valor instanceof String) || ((String)valor).isEmpty())
+                break;
+            char[] patron = ((String)valor).toCharArray();
+            for (int i = 0; i < renglones; i++)
+                if (contiene(i, patron))
+                    mascara[i >>> 6] |= 1L << i;
+            break;
+        case CUENTA:
+            if (valor instanceof Integer)
+                mayoresOIguales(cuentas, (Integer)valor, mascara);
+            break;
+        case PROMEDIO:
+            if (valor instanceof Double)
+                mayoresOIguales(promedios, (Double)valor, mascara);
+            break;
+        case EDAD:
+            if (valor instanceof Integer)
+                mayoresOIguales(edades, (Integer)valor, mascara);
+            break;
+        }
+        for (int w = 0; w < mascara.length; w++)
+            mascara[w] &= vivos[w];
+        return mascara;
+    }
+
+    /* Regresa una lista con los estudiantes de los renglones prendidos en la
+     * máscara, en el orden de las columnas. */
+    private Lista<Estudiante> registros(long[] mascara) {
+        Lista<Estudiante> lista = new Lista<Estudiante>();
+        for (int w = 0; w < mascara.length; w++) {
+            long palabra = mascara[w];
+            while (palabra != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(palabra);
+                if (i >= renglones)
+                    return lista;
+                lista.agregaFinal(registros[i]);
+                palabra &= palabra - 1;
+            }
+        }
+        return lista;
+    }
+
+    /* Regresa el mapa de bits con los ordinales de los renglones prendidos en
+     * la máscara. */
+    private MapaDeBits ordinales(long[] mascara) {
+        MapaDeBits mapa = new MapaDeBits();
+        int n = Math.min(mascara.length, (renglones + 63) >>> 6);
+        for (int w = 0; w < n; w++) {
+            long palabra = mascara[w];
+            while (palabra != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(palabra);
+                mapa.agrega(ordinales[i]);
+                palabra &= palabra - 1;
+            }
+        }
+        return mapa;
+    }
+
+    /* Prende en la máscara los renglones con valor mayor o igual a v. Se
+     * recorre por bloques de 64 renglones, uno por palabra de la máscara. */
+    private void mayoresOIguales(int[] columna, int v, long[] mascara) {
+        for (int w = 0; w < mascara.length; w++) {
+            int inicio = w << 6;
+            int fin = Math.min(inicio + 64, renglones);
+            long palabra = 0;
+            for (int i = inicio; i < fin; i++)
+                palabra |= (columna[i] >= v ? 1L : 0L) << (i - inicio);
+            mascara[w] = palabra;
+        }
+    }
+
+    /* Prende en la máscara los renglones con valor mayor o igual a v. */
+    private void mayoresOIguales(double[] columna, double v, long[] mascara) {
+        for (int w = 0; w < mascara.length; w++) {
+            int inicio = w << 6;
+            int fin = Math.min(inicio + 64, renglones);
+            long palabra = 0;
+            for (int i = inicio; i < fin; i++)
+                palabra |= (columna[i] >= v ? 1L : 0L) << (i - inicio);
+            mascara[w] = palabra;
+        }
+    }
+
+    /* Regresa el renglón con el ordinal, o -1 si no hay. */
+    private int renglon(int ordinal) {
+        int i = Arrays.binarySearch(ordinales, 0, renglones, ordinal);
+        return i < 0 || registros[i] == null ? -1 : i;
+    }
+
+    /* Escribe los valores del estudiante en el renglón. */
+    private void escribe(int i, Estudiante estudiante) {
+        cuentas[i] = estudiante.getCuenta();
+        promedios[i] = estudiante.getPromedio();
+        edades[i] = estudiante.getEdad();
+        String nombre = estudiante.getNombre();
+        int n = nombre == null ? 0 : nombre.length();
+        int anterior = Math.max(longitudes[i], 0);
+        if (n <= anterior) {
+            /* Cabe donde estaba el nombre anterior. */
+            basura += anterior - n;
+        } else {
+            basura += anterior;
+            longitudes[i] = 0;
+            if (basura > usados / 2)
+                compactaNombres();
+            if (usados + n > nombres.length)
+                creceNombres(usados + n);
+            inicios[i] = usados;
+            usados += n;
+        }
+        if (nombre != null)
+            nombre.getChars(0, n, nombres, inicios[i]);
+        /* Una longitud de -1 representa un nombre nulo. */
+        longitudes[i] = nombre == null ? -1 : n;
+    }
+
+    /* Nos dice si el nombre del renglón contiene al patrón. */
+    private boolean contiene(int i, char[] patron) {
+        int inicio = inicios[i];
+        int ultimo = inicio + longitudes[i] - patron.length;
+        for (int k = inicio; k <= ultimo; k++) {
+            int j = 0;
+            while (j < patron.length && nombres[k + j] == patron[j])
+                j++;
+            if (j == patron.length)
+                return true;
+        }
+        return false;
+    }
+
+    /* Recorre los renglones hacia el inicio para quitar los huecos. Los
+     * ordinales no cambian, así que los mapas de bits siguen siendo
+     * válidos. */
+    private void quitaHuecos() {
+        int j = 0;
+        for (int i = 0; i < renglones; i++) {
+            if (registros[i] == null)
+                continue;
+            registros[j] = registros[i];
+            ordinales[j] = ordinales[i];
+            cuentas[j] = cuentas[i];
+            promedios[j] = promedios[i];
+            edades[j] = edades[i];
+            inicios[j] = inicios[i];
+            longitudes[j++] = longitudes[i];
+        }
+        for (int i = j; i < renglones; i++)
+            registros[i] = null;
+        Arrays.fill(vivos, 0L);
+        for (int i = 0; i < j; i++)
+            vivos[i >>> 6] |= 1L << i;
+        renglones = j;
+        huecos = 0;
+    }
+
+    /* Reescribe los nombres sin los huecos que dejaron los eliminados. */
+    private void compactaNombres() {
+        char[] nuevos = new char[Math.max(nombres.length, usados - basura)];
+        int k = 0;
+        for (int i = 0; i < renglones; i++) {
+            int n = Math.max(longitudes[i], 0);
+            System.arraycopy(nombres, inicios[i], nuevos, k, n);
+            inicios[i] = k;
+            k += n;
+        }
+        nombres = nuevos;
+        usados = k;
+        basura = 0;
+    }
+
+    /* Duplica la capacidad de las columnas. */
+    private void crece() {
+        int n = 2 * cuentas.length;
+        registros = Arrays.copyOf(registros, n);
+        ordinales = Arrays.copyOf(ordinales, n);
+        vivos = Arrays.copyOf(vivos, n / 64 + 1);
+        cuentas = Arrays.copyOf(cuentas, n);
+        promedios = Arrays.copyOf(promedios, n);
+        edades = Arrays.copyOf(edades, n);
+        inicios = Arrays.copyOf(inicios, n);
+        longitudes = Arrays.copyOf(longitudes, n);
+    }
+
+    /* Hace crecer el arreglo de nombres para que quepan m caracteres. */
+    private void creceNombres(int m) {
+        char[] nuevos = new char[Math.max(m, 2 * nombres.length)];
+        System.arraycopy(nombres, 0, nuevos, 0, usados);
+        nombres = nuevos;
+    }
+
+    /* Regresa el renglón con el ordinal, o lanza una excepción si no hay. */
+    private int verificaOrdinal(int ordinal) {
+        int i = renglon(ordinal);
+        if (i == -1)
+            throw new ExcepcionIndiceInvalido("Ordinal inválido: " + ordinal);
+        return i;
+    }
+}
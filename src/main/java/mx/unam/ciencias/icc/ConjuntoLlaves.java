@@ -0,0 +1,130 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Arrays;
+
+/**
+ * <p>Clase para conjuntos de llaves enteras.</p>
+ *
+ * <p>El conjunto es una tabla de dispersión con direccionamiento abierto sobre
+ * un arreglo de <code>long</code>: las llaves no se envuelven en objetos, y
+ * agregar, eliminar o buscar una llave cuesta tiempo constante esperado sin
+ * reservar memoria, salvo cuando la tabla crece.</p>
+ */
+class ConjuntoLlaves {
+
+    /* La capacidad inicial de la tabla. */
+    private static final int CAPACIDAD_INICIAL = 16;
+    /* La llave que marca las casillas vacías. */
+    private static final long VACIA = Long.MIN_VALUE;
+
+    /* La tabla; las casillas vacías tienen VACIA. */
+    private long[] tabla;
+    /* El número de llaves en la tabla. */
+    private int elementos;
+    /* Si la llave VACIA está en el conjunto; no se guarda en la tabla. */
+    private boolean tieneVacia;
+
+    /* Construye un conjunto vacío. */
+    ConjuntoLlaves() {
+        tabla = new long[CAPACIDAD_INICIAL];
+        Arrays.fill(tabla, VACIA);
+    }
+
+    /* Agrega la llave; regresa false si ya estaba. */
+    boolean agrega(long llave) {
+        if (llave == VACIA) {
+            if (tieneVacia)
+                return false;
+            return tieneVacia = true;
+        }
+        int i = busca(llave);
+        if (tabla[i] == llave)
+            return false;
+        tabla[i] = llave;
+        /* Crecemos a la mitad de la carga, para que las búsquedas lineales
+         * sean cortas. */
+        if (++elementos > tabla.length / 2)
+            crece();
+        return true;
+    }
+
+    /* Elimina la llave; regresa false si no estaba. */
+    boolean elimina(long llave) {
+        if (llave == VACIA) {
+            boolean estaba = tieneVacia;
+            tieneVacia = false;
+            return estaba;
+        }
+        int i = busca(llave);
+        if (tabla[i] != llave)
+            return false;
+        recorre(i);
+        elementos--;
+        return true;
+    }
+
+    /* Nos dice si la llave está en el conjunto. */
+    boolean contiene(long llave) {
+        if (llave == VACIA)
+            return tieneVacia;
+        return tabla[busca(llave)] == llave;
+    }
+
+    /* Regresa el número de llaves en el conjunto. */
+    int getNumLlaves() {
+        return elementos + (tieneVacia ? 1 : 0);
+    }
+
+    /* Elimina todas las llaves. */
+    void limpia() {
+        Arrays.fill(tabla, VACIA);
+        elementos = 0;
+        tieneVacia = false;
+    }
+
+    /* Regresa la casilla de la llave, o la casilla vacía donde iría. */
+    private int busca(long llave) {
+        int mascara = tabla.length - 1;
+        int i = dispersa(llave) & mascara;
+        while (tabla[i] != VACIA && tabla[i] != llave)
+            i = (i + 1) & mascara;
+        return i;
+    }
+
+    /* Vacía la casilla i, recorriendo hacia atrás las llaves siguientes que
+     * ya no serían alcanzables desde su casilla original. */
+    private void recorre(int i) {
+        int mascara = tabla.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (tabla[j] == VACIA)
+                break;
+            int k = dispersa(tabla[j]) & mascara;
+            /* La llave en j puede ocupar el hueco en i si su casilla original
+             * k no está en el intervalo cíclico (i, j]. */
+            if (i <= j ? (k <= i || k > j) : (k <= i && k > j)) {
+                tabla[i] = tabla[j];
+                i = j;
+            }
+        }
+        tabla[i] = VACIA;
+    }
+
+    /* Duplica el tamaño de la tabla. */
+    private void crece() {
+        long[] vieja = tabla;
+        tabla = new long[2 * vieja.length];
+        Arrays.fill(tabla, VACIA);
+        for (long llave : vieja)
+            if (llave != VACIA)
+                tabla[busca(llave)] = llave;
+    }
+
+    /* Mezcla los bits de la llave, para que llaves consecutivas no caigan en
+     * casillas consecutivas. */
+    private static int dispersa(long llave) {
+        long h = llave * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,145 @@
+package mx.unam.ciencias.icc;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Clase para diccionarios de cadenas.</p>
+ *
+ * <p>Un diccionario regresa siempre la misma instancia para cadenas iguales,
+ * de manera que muchas copias de una misma cadena (por ejemplo, nombres que se
+ * repiten en una base de datos) ocupen memoria una sola vez.</p>
+ *
+ * <p>El diccionario tiene una capacidad máxima; una vez que la alcanza, las
+ * cadenas nuevas se regresan tal cual sin guardarse. El diccionario lleva
+ * estadísticas del número de consultas y de cuántas de ellas encontraron la
+ * cadena ya guardada.</p>
+ *
+ * <p>El diccionario puede usarse desde varios hilos a la vez: las cadenas se
+ * guardan en un mapa concurrente y las estadísticas son atómicas. Limpiar el
+ * diccionario mientras otros hilos lo consultan no es atómico: las consultas
+ * que se traslapan con la limpieza pueden contarse antes o después de ella.
+ * </p>
+ */
+public class DiccionarioCadenas {
+
+    /* Las cadenas del diccionario. */
+    private ConcurrentHashMap<String, String> cadenas;
+    /* Número de lugares apartados para cadenas. */
+    private AtomicInteger apartados;
+    /* Máximo número de cadenas en el diccionario. */
+    private int capacidad;
+    /* Número de consultas. */
+    private AtomicLong consultas;
+    /* Número de consultas que encontraron la cadena. */
+    private AtomicLong aciertos;
+
+    /**
+     * Construye un diccionario vacío con la capacidad recibida.
+     * @param capacidad el máximo número de cadenas en el diccionario.
+     * @throws IllegalArgumentException si la capacidad es negativa.
+     */
+    public DiccionarioCadenas(int capacidad) {
+        if (capacidad < 0)
+            throw new IllegalArgumentException("Capacidad negativa.");
+        this.capacidad = capacidad;
+        cadenas = new ConcurrentHashMap<String, String>();
+        apartados = new AtomicInteger();
+        consultas = new AtomicLong();
+        aciertos = new AtomicLong();
+    }
+
+    /**
+     * Regresa la instancia del diccionario igual a la cadena recibida. Si el
+     * diccionario no tiene una cadena igual, guarda la recibida si todavía hay
+     * capacidad, y la regresa.
+     * @param cadena la cadena a buscar.
+     * @return la instancia del diccionario igual a la cadena, o la misma
+     *         cadena si no había una igual; <code>null</code> si la cadena es
+     *         <code>null</code>.
+     */
+    public String interna(String cadena) {
+        if (cadena == null)
+            return null;
+        consultas.incrementAndGet();
+        String guardada = cadenas.get(cadena);
+        if (guardada == null && aparta()) {
+            guardada = cadenas.putIfAbsent(cadena, cadena);
+            if (guardada == null)
+                return cadena;
+            apartados.decrementAndGet();
+        }
+        if (guardada == null)
+            return cadena;
+        aciertos.incrementAndGet();
+        return guardada;
+    }
+
+    /* Aparta un lugar para una cadena nueva, si todavía hay capacidad. */
+    private boolean aparta() {
+        int n;
+        do {
+            n = apartados.get();
+            if (n >= capacidad)
+                return false;
+        } while (!apartados.compareAndSet(n, n + 1));
+        return true;
+    }
+
+    /**
+     * Regresa el número de cadenas en el diccionario.
+     * @return el número de cadenas en el diccionario.
+     */
+    public int getNumCadenas() {
+        return cadenas.size();
+    }
+
+    /**
+     * Regresa la capacidad del diccionario.
+     * @return el máximo número de cadenas en el diccionario.
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Regresa el número de consultas hechas al diccionario.
+     * @return el número de consultas hechas al diccionario.
+     */
+    public long getConsultas() {
+        return consultas.get();
+    }
+
+    /**
+     * Regresa el número de consultas que encontraron la cadena en el
+     * diccionario. Cada una de ellas es una cadena repetida que no ocupa
+     * memoria adicional.
+     * @return el número de consultas que encontraron la cadena.
+     */
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    /**
+     * Limpia el diccionario y sus estadísticas.
+     */
+    public void limpia() {
+        cadenas.clear();
+        apartados.set(0);
+        consultas.set(0);
+        aciertos.set(0);
+    }
+
+    /**
+     * Regresa una representación en cadena de las estadísticas del
+     * diccionario.
+     * @return una representación en cadena de las estadísticas del
+     *         diccionario.
+     */
+    @Override public String toString() {
+        return String.format("Cadenas: %d/%d, consultas: %d, aciertos: %d",
+                             cadenas.size(), capacidad, consultas.get(),
+                             aciertos.get());
+    }
+}
@@ -0,0 +1,158 @@
+package mx.unam.ciencias.icc;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * <p>Clase para escuchas asíncronos de bases de datos.</p>
+ *
+ * <p>Un escucha asíncrono envuelve a otro escucha: cada evento que recibe lo
+ * encola y regresa inmediatamente, y un hilo propio del escucha entrega los
+ * eventos al escucha envuelto en el mismo orden en que llegaron. Así un
+ * escucha lento no detiene a quien modifica la base de datos.</p>
+ *
+ * <p>Si la máquina virtual los soporta, el hilo es virtual; si no, es un hilo
+ * de plataforma demonio. Los registros se entregan por referencia, por lo que
+ * el escucha envuelto los ve con los valores que tengan al momento de
+ * procesar el evento; las listas de registros, en cambio, se copian al
+ * encolar el evento, así que cada escucha recibe la suya.</p>
+ *
+ * @param <R> El tipo de los registros.
+ */
+public class EscuchaAsincrono<R extends Registro<R, ?>>
+    implements EscuchaBaseDeDatos<R> {
+
+    /* Evento que indica al hilo que debe terminar. */
+    private static final Runnable FIN = () -> {};
+
+    /* El escucha envuelto. */
+    private EscuchaBaseDeDatos<R> escucha;
+    /* La cola de eventos pendientes. */
+    private LinkedBlockingQueue<Runnable> eventos;
+    /* Número de eventos encolados que no se han terminado de entregar. */
+    private int pendientes;
+    /* Si el escucha ya fue terminado. */
+    private boolean terminado;
+
+    /**
+     * Construye un escucha asíncrono que envuelve al escucha recibido, y
+     * arranca su hilo.
+     * @param escucha el escucha a envolver.
+     * @throws IllegalArgumentException si <code>escucha</code> es
+     *         <code>null</code>.
+     */
+    public EscuchaAsincrono(EscuchaBaseDeDatos<R> escucha) {
+        if (escucha == null)
+            throw new IllegalArgumentException("Escucha nulo.");
+        this.escucha = escucha;
+        eventos = new LinkedBlockingQueue<Runnable>();
+        arrancaHilo(this::entrega);
+    }
+
+    /**
+     * Encola el evento para entregarlo al escucha envuelto.
+     * @param evento el tipo de cambio.
+     * @param registro1 el registro afectado.
+     * @param registro2 el registro con los nuevos valores.
+     * @throws IllegalStateException si el escucha ya fue terminado.
+     */
+    @Override public void baseDeDatosModificada(EventoBaseDeDatos evento,
+                                                R registro1, R registro2) {
+        encola(() -> escucha.baseDeDatosModificada(evento,
+                                                   registro1, registro2));
+    }
+
+    /**
+     * Encola el evento con una copia de la lista, para entregarlo al escucha
+     * envuelto.
+     * @param evento el tipo de cambio.
+     * @param registros los registros afectados.
+     * @throws IllegalStateException si el escucha ya fue terminado.
+     */
+    @Override public void baseDeDatosModificada(EventoBaseDeDatos evento,
+                                                Lista<R> registros) {
+        Lista<R> copia = registros.copia();
+        encola(() -> escucha.baseDeDatosModificada(evento, copia));
+    }
+
+    /**
+     * Regresa el escucha envuelto.
+     * @return el escucha envuelto.
+     */
+    public EscuchaBaseDeDatos<R> getEscucha() {
+        return escucha;
+    }
+
+    /**
+     * Espera a que todos los eventos encolados hasta ahora sean entregados. No
+     * debe llamarse desde el escucha envuelto.
+     * @throws InterruptedException si el hilo que espera es interrumpido.
+     */
+    public synchronized void espera() throws InterruptedException {
+        while (pendientes > 0)
+            wait();
+    }
+
+    /**
+     * Termina el escucha. Los eventos ya encolados se entregan de todas
+     * formas, pero el escucha ya no acepta eventos nuevos, y su hilo termina
+     * después de entregar el último.
+     */
+    public synchronized void termina() {
+        if (terminado)
+            return;
+        terminado = true;
+        eventos.add(FIN);
+    }
+
+    /* Encola un evento. */
+    private synchronized void encola(Runnable evento) {
+        if (terminado)
+            throw new IllegalStateException("Escucha terminado.");
+        pendientes++;
+        eventos.add(evento);
+    }
+
+    /* Entrega los eventos en orden hasta que el escucha se termina. */
+    private void entrega() {
+        while (true) {
+            Runnable evento;
+            try {
+                evento = eventos.take();
+            } catch (InterruptedException ie) {
+                continue;
+            }
+            if (evento == FIN)
+                return;
+            try {
+                evento.run();
+            } catch (Throwable t) {
+                /* Un escucha que falla, aunque sea con un Error, no debe
+                 * detener la entrega de los eventos siguientes: si el hilo
+                 * terminara, espera y BaseDeDatos.setAsincrona esperarían
+                 * para siempre. */
+                Thread hilo = Thread.currentThread();
+                hilo.getUncaughtExceptionHandler().uncaughtException(hilo, t);
+            } finally {
+                synchronized (this) {
+                    if (--pendientes == 0)
+                        notifyAll();
+                }
+            }
+        }
+    }
+
+    /* Arranca un hilo virtual si la máquina virtual los soporta, o un hilo de
+     * plataforma demonio si no. */
+    private static void arrancaHilo(Runnable tarea) {
+        try {
+            Method m = Thread.class.getMethod("startVirtualThread",
+                                              Runnable.class);
+            m.invoke(null, tarea);
+        } catch (ReflectiveOperationException roe) {
+            Thread hilo = new Thread(tarea);
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+}
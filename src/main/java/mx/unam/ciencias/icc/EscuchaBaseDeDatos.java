@@ -17,4 +17,24 @@ public interface
      */
     public void baseDeDatosModificada(EventoBaseDeDatos evento,
                                       R registro1, R registro2);
+
+    /**
+     * Nos dice que varios registros fueron agregados o eliminados de la base
+     * de datos de una vez. La implementación por omisión notifica cada
+     * registro por separado, con el evento individual correspondiente; los
+     * escuchas que puedan procesar todos los registros juntos deben
+     * sobrecargarla.
+     * @param evento {@link EventoBaseDeDatos#REGISTROS_AGREGADOS} o {@link
+     *               EventoBaseDeDatos#REGISTROS_ELIMINADOS}.
+     * @param registros los registros afectados, que no deben modificarse.
+     */
+    public default void baseDeDatosModificada(EventoBaseDeDatos evento,
+                                              Lista<R> registros) {
+        EventoBaseDeDatos individual =
+            evento == EventoBaseDeDatos.REGISTROS_AGREGADOS ?
+            EventoBaseDeDatos.REGISTRO_AGREGADO :
+            EventoBaseDeDatos.REGISTRO_ELIMINADO;
+        for (R registro : registros)
+            baseDeDatosModificada(individual, registro, null);
+    }
 }
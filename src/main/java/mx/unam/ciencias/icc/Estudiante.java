@@ -1,5 +1,7 @@
 package mx.unam.ciencias.icc;
 
+import java.util.Objects;
+import java.util.function.Consumer;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleDoubleProperty;
@@ -13,17 +15,48 @@ import javafx.beans.property.StringProperty;
  * puede seriarse en una línea de texto y deseriarse de una línea de
  * texto; además de determinar si sus campos casan valores arbitrarios y
  * actualizarse con los valores de otro estudiante.
+ *
+ * Opcionalmente, los nombres de todos los estudiantes pueden pasar por un
+ * {@link DiccionarioCadenas}, para que los nombres repetidos se compartan.
  */
 public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
 
+    /* Diccionario para los nombres, o null si no se usa. */
+    private static volatile DiccionarioCadenas diccionario;
+
     /* Nombre del estudiante. */
-    private final StringProperty nombre;
+    private String nombre;
     /* Número de cuenta. */
-    private final IntegerProperty cuenta;
+    private int cuenta;
     /* Pormedio del estudiante. */
-    private final DoubleProperty promedio;
+    private double promedio;
     /* Edad del estudiante.*/
-    private final IntegerProperty edad;
+    private int edad;
+    /* El código de dispersión, o 0 si hay que calcularlo. */
+    private int hash;
+    /* Los observadores de los cambios del estudiante, o null si no hay. La
+     * lista no se modifica: para agregar o eliminar un observador se
+     * reemplaza por una copia. */
+    private volatile Lista<Consumer<Estudiante>> observadores;
+
+    /* Las propiedades sólo se crean la primera vez que se piden (normalmente
+     * por la tabla de la interfaz gráfica); mientras tanto los valores viven
+     * en los campos de arriba. Una vez creada una propiedad, ella es la que
+     * guarda el valor; como puede modificarse directamente (por ejemplo desde
+     * la tabla), un escucha suyo invalida el código de dispersión y avisa a
+     * los observadores. Los escuchas de invalidación sólo se disparan si la
+     * propiedad era válida, pero calcular el código lee todas las
+     * propiedades, y eso las valida; los observadores también las leen al
+     * recibir el aviso. */
+
+    /* Propiedad del nombre. */
+    private StringProperty nombreProperty;
+    /* Propiedad del número de cuenta. */
+    private IntegerProperty cuentaProperty;
+    /* Propiedad del promedio. */
+    private DoubleProperty promedioProperty;
+    /* Propiedad de la edad. */
+    private IntegerProperty edadProperty;
 
     /**
      * Define el estado inicial de un estudiante.
@@ -36,7 +69,10 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
                       int    cuenta,
                       double promedio,
                       int    edad) {
-        // Aquí va su código.
+        this.nombre = interna(nombre);
+        this.cuenta = cuenta;
+        this.promedio = promedio;
+        this.edad = edad;
     }
 
     /**
@@ -44,7 +80,7 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return el nombre del estudiante.
      */
     public String getNombre() {
-        // Aquí va su código.
+        return nombreProperty == null ? nombre : nombreProperty.get();
     }
 
     /**
@@ -52,7 +88,12 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @param nombre el nuevo nombre del estudiante.
      */
     public void setNombre(String nombre) {
-        // Aquí va su código.
+        nombre = interna(nombre);
+        if (nombreProperty == null)
+            this.nombre = nombre;
+        else
+            nombreProperty.set(nombre);
+        modificado();
     }
 
     /**
@@ -60,7 +101,11 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return la propiedad del nombre.
      */
     public StringProperty nombreProperty() {
-        // Aquí va su código.
+        if (nombreProperty == null) {
+            nombreProperty = new SimpleStringProperty(this, "nombre", nombre);
+            nombreProperty.addListener(o -> modificado());
+        }
+        return nombreProperty;
     }
 
     /**
@@ -68,7 +113,7 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return el número de cuenta del estudiante.
      */
     public int getCuenta() {
-        // Aquí va su código.
+        return cuentaProperty == null ? cuenta : cuentaProperty.get();
     }
 
     /**
@@ -76,7 +121,11 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @param cuenta el nuevo número de cuenta del estudiante.
      */
     public void setCuenta(int cuenta) {
-        // Aquí va su código.
+        if (cuentaProperty == null)
+            this.cuenta = cuenta;
+        else
+            cuentaProperty.set(cuenta);
+        modificado();
     }
 
     /**
@@ -84,7 +133,11 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return la propiedad del número de cuenta.
      */
     public IntegerProperty cuentaProperty() {
-        // Aquí va su código.
+        if (cuentaProperty == null) {
+            cuentaProperty = new SimpleIntegerProperty(this, "cuenta", cuenta);
+            cuentaProperty.addListener(o -> modificado());
+        }
+        return cuentaProperty;
     }
 
     /**
@@ -92,7 +145,7 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return el promedio del estudiante.
      */
     public double getPromedio() {
-        // Aquí va su código.
+        return promedioProperty == null ? promedio : promedioProperty.get();
     }
 
     /**
@@ -100,7 +153,11 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @param promedio el nuevo promedio del estudiante.
      */
     public void setPromedio(double promedio) {
-        // Aquí va su código.
+        if (promedioProperty == null)
+            this.promedio = promedio;
+        else
+            promedioProperty.set(promedio);
+        modificado();
     }
 
     /**
@@ -108,7 +165,12 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return la propiedad del promedio.
      */
     public DoubleProperty promedioProperty() {
-        // Aquí va su código.
+        if (promedioProperty == null) {
+            promedioProperty = new SimpleDoubleProperty(this, "promedio",
+                                                        promedio);
+            promedioProperty.addListener(o -> modificado());
+        }
+        return promedioProperty;
     }
 
     /**
@@ -116,7 +178,7 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return la edad del estudiante.
      */
     public int getEdad() {
-        // Aquí va su código.
+        return edadProperty == null ? edad : edadProperty.get();
     }
 
     /**
@@ -124,7 +186,11 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @param edad la nueva edad del estudiante.
      */
     public void setEdad(int edad) {
-        // Aquí va su código.
+        if (edadProperty == null)
+            this.edad = edad;
+        else
+            edadProperty.set(edad);
+        modificado();
     }
 
     /**
@@ -132,7 +198,11 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return la propiedad de la edad.
      */
     public IntegerProperty edadProperty() {
-        // Aquí va su código.
+        if (edadProperty == null) {
+            edadProperty = new SimpleIntegerProperty(this, "edad", edad);
+            edadProperty.addListener(o -> modificado());
+        }
+        return edadProperty;
     }
 
     /**
@@ -140,7 +210,12 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return una representación en cadena del estudiante.
      */
     @Override public String toString() {
-        // Aquí va su código.
+        return String.format("Nombre   : %s\n" +
+                             "Cuenta   : %09d\n" +
+                             "Promedio : %2.2f\n" +
+                             "Edad     : %d",
+                             getNombre(), getCuenta(), getPromedio(),
+                             getEdad());
     }
 
     /**
@@ -152,7 +227,38 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      *         <code>false</code> en otro caso.
      */
     @Override public boolean equals(Object objeto) {
-        // Aquí va su código.
+        if (objeto == this)
+            return true;
+        if (objeto == null || getClass() != objeto.getClass())
+            return false;
+        Estudiante estudiante = (Estudiante)objeto;
+        /* Los códigos de dispersión se guardan, así que casi siempre
+         * descartamos a los estudiantes distintos sin comparar sus nombres. */
+        if (hashCode() != estudiante.hashCode())
+            return false;
+        return getCuenta() == estudiante.getCuenta() &&
+            getEdad() == estudiante.getEdad() &&
+            getPromedio() == estudiante.getPromedio() &&
+            Objects.equals(getNombre(), estudiante.getNombre());
+    }
+
+    /**
+     * Regresa un código de dispersión para el estudiante, consistente con
+     * {@link #equals}. El código se calcula una sola vez, y se vuelve a
+     * calcular sólo después de que alguna propiedad del estudiante cambia.
+     * @return un código de dispersión para el estudiante.
+     */
+    @Override public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            /* Sumarle 0.0 convierte -0.0 en 0.0, que son iguales con ==. */
+            h = Objects.hashCode(getNombre());
+            h = 31 * h + getCuenta();
+            h = 31 * h + Double.hashCode(getPromedio() + 0.0);
+            h = 31 * h + getEdad();
+            hash = h;
+        }
+        return h;
     }
 
     /**
@@ -162,7 +268,9 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @return la seriación del estudiante en una línea de texto.
      */
     @Override public String seria() {
-        // Aquí va su código.
+        return String.format("%s\t%d\t%2.2f\t%d\n",
+                             getNombre(), getCuenta(), getPromedio(),
+                             getEdad());
     }
 
     /**
@@ -174,7 +282,24 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      *         es una seriación válida de un estudiante.
      */
     @Override public void deseria(String linea) {
-        // Aquí va su código.
+        if (linea == null)
+            throw new ExcepcionLineaInvalida("Línea nula.");
+        String[] campos = linea.trim().split("\t");
+        if (campos.length != 4)
+            throw new ExcepcionLineaInvalida("Línea inválida: " + linea);
+        int c, e;
+        double p;
+        try {
+            c = Integer.parseInt(campos[1]);
+            p = Double.parseDouble(campos[2]);
+            e = Integer.parseInt(campos[3]);
+        } catch (NumberFormatException nfe) {
+            throw new ExcepcionLineaInvalida("Línea inválida: " + linea);
+        }
+        setNombre(campos[0]);
+        setCuenta(c);
+        setPromedio(p);
+        setEdad(e);
     }
 
     /**
@@ -183,7 +308,14 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @throws IllegalArgumentException si el estudiante es <code>null</code>.
      */
     public void actualiza(Estudiante estudiante) {
-        // Aquí va su código.
+        if (estudiante == null)
+            throw new IllegalArgumentException("Estudiante nulo.");
+        /* Los métodos set pasan el nombre por el diccionario e invalidan el
+         * código de dispersión. */
+        setNombre(estudiante.getNombre());
+        setCuenta(estudiante.getCuenta());
+        setPromedio(estudiante.getPromedio());
+        setEdad(estudiante.getEdad());
     }
 
     /**
@@ -212,6 +344,78 @@ public class Estudiante implements Registro<Estudiante, CampoEstudiante> {
      * @throws IllegalArgumentException si el campo es <code>null</code>.
      */
     @Override public boolean casa(CampoEstudiante campo, Object valor) {
-        // Aquí va su código.
+        if (campo == null)
+            throw new IllegalArgumentException("Campo nulo.");
+        switch (campo) {
+        case NOMBRE:
+            if (!(valor instanceof String) || ((String)valor).isEmpty())
+                return false;
+            return getNombre() != null &&
+                getNombre().contains((String)valor);
+        case CUENTA:
+            return valor instanceof Integer &&
+                (Integer)valor <= getCuenta();
+        case PROMEDIO:
+            return valor instanceof Double &&
+                (Double)valor <= getPromedio();
+        default:
+            return valor instanceof Integer &&
+                (Integer)valor <= getEdad();
+        }
+    }
+
+    /* Agrega un observador, que recibe al estudiante cada vez que alguno de
+     * sus valores cambia, ya sea con los métodos set, con actualiza o
+     * directamente en sus propiedades. El observador se llama desde el hilo
+     * que hizo el cambio. */
+    synchronized void agregaObservador(Consumer<Estudiante> observador) {
+        Lista<Consumer<Estudiante>> l = observadores == null ?
+            new Lista<Consumer<Estudiante>>() : observadores.copia();
+        l.agregaFinal(observador);
+        observadores = l;
+    }
+
+    /* Elimina una aparición del observador. */
+    synchronized void eliminaObservador(Consumer<Estudiante> observador) {
+        if (observadores == null)
+            return;
+        Lista<Consumer<Estudiante>> l = observadores.copia();
+        l.elimina(observador);
+        observadores = l.esVacia() ? null : l;
+    }
+
+    /* Invalida el código de dispersión y avisa a los observadores. */
+    private void modificado() {
+        hash = 0;
+        Lista<Consumer<Estudiante>> l = observadores;
+        if (l != null)
+            for (Consumer<Estudiante> observador : l)
+                observador.accept(this);
+    }
+
+    /**
+     * Define el diccionario por el que pasan los nombres de todos los
+     * estudiantes, tanto al construirse como con {@link #setNombre} y {@link
+     * #deseria}. Con <code>null</code> los nombres se guardan tal cual.
+     * @param diccionario el diccionario para los nombres, o <code>null</code>.
+     */
+    public static void setDiccionario(DiccionarioCadenas diccionario) {
+        Estudiante.diccionario = diccionario;
+    }
+
+    /* Pasa el nombre por el diccionario, si lo hay. El diccionario se lee
+     * una sola vez, porque otro hilo puede cambiarlo en cualquier momento. */
+    private static String interna(String nombre) {
+        DiccionarioCadenas d = diccionario;
+        return d == null ? nombre : d.interna(nombre);
+    }
+
+    /**
+     * Regresa el diccionario por el que pasan los nombres de los estudiantes.
+     * @return el diccionario para los nombres, o <code>null</code> si no se
+     *         usa ninguno.
+     */
+    public static DiccionarioCadenas getDiccionario() {
+        return diccionario;
     }
 }
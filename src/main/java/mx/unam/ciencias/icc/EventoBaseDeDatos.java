@@ -13,5 +13,9 @@ public enum EventoBaseDeDatos {
     /** Un registro fue eliminado. */
     REGISTRO_ELIMINADO,
     /** Un registro fue modificado. */
-    REGISTRO_MODIFICADO;
+    REGISTRO_MODIFICADO,
+    /** Varios registros fueron agregados de una vez. */
+    REGISTROS_AGREGADOS,
+    /** Varios registros fueron eliminados de una vez. */
+    REGISTROS_ELIMINADOS;
 }
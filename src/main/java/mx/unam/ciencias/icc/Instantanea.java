@@ -0,0 +1,178 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para instantáneas de los registros de una base de datos.</p>
+ *
+ * <p>Una instantánea es una vista inmutable de los registros de una base de
+ * datos en una versión dada; las modificaciones posteriores a la base de
+ * datos no la afectan. Las instantáneas comparten su estructura con la base
+ * de datos y con otras instantáneas, por lo que crearlas cuesta tiempo
+ * constante, y no hay que liberarlas: la memoria que sólo ellas usan se
+ * recupera cuando dejan de usarse.</p>
+ *
+ * <p>Las instantáneas se obtienen con {@link BaseDeDatos#getInstantanea},
+ * una vez activadas con {@link BaseDeDatos#setInstantaneas}, y pueden leerse
+ * desde cualquier hilo sin bloquear a la base de datos.</p>
+ *
+ * <p>Los registros de una instantánea son copias de los de la base de datos,
+ * compartidas con otras instantáneas; no deben modificarse.</p>
+ *
+ * @param <R> El tipo de los registros.
+ */
+public class Instantanea<R> implements Iterable<R> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador implements Iterator<R> {
+        /* El segmento del siguiente elemento. */
+        private int segmento;
+        /* La ranura del siguiente elemento en su segmento. */
+        private int ranura;
+        /* El número de elementos que faltan. */
+        private int faltan = longitud;
+
+        /* Nos dice si hay un elemento siguiente. */
+        @Override public boolean hasNext() {
+            return faltan > 0;
+        }
+
+        /* Nos da el elemento siguiente. */
+        @Override public R next() {
+            if (faltan == 0)
+                throw new NoSuchElementException("No hay siguiente.");
+            while (true) {
+                if (ranura == VersionesRegistros.TAMANO) {
+                    segmento++;
+                    ranura = 0;
+                }
+                Object r = segmentos[segmento][ranura++];
+                if (r != null) {
+                    faltan--;
+                    @SuppressWarnings("unchecked") R registro = (R)r;
+                    return registro;
+                }
+            }
+        }
+    }
+
+    /* Los segmentos de registros; los huecos son null. */
+    private final Object[][] segmentos;
+    /* El número de registros en cada segmento. */
+    private final int[] cuentas;
+    /* El número de segmentos. */
+    private final int numSegmentos;
+    /* El número de registros. */
+    private final int longitud;
+    /* La versión de la base de datos. */
+    private final long version;
+    /* El índice final (exclusivo) de cada segmento; se calcula la primera
+     * vez que se necesita. Si dos hilos lo calculan a la vez, calculan lo
+     * mismo. */
+    private volatile int[] finales;
+
+    /* Construye una instantánea con los segmentos recibidos, que ya nadie
+     * va a modificar. */
+    Instantanea(Object[][] segmentos, int[] cuentas, int numSegmentos,
+                int longitud, long version) {
+        this.segmentos = segmentos;
+        this.cuentas = cuentas;
+        this.numSegmentos = numSegmentos;
+        this.longitud = longitud;
+        this.version = version;
+    }
+
+    /**
+     * Regresa la versión de la base de datos de la instantánea. Cada
+     * modificación a la base de datos incrementa su versión.
+     * @return la versión de la base de datos de la instantánea.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Regresa el número de registros en la instantánea.
+     * @return el número de registros en la instantánea.
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Nos dice si la instantánea es vacía.
+     * @return <code>true</code> si la instantánea es vacía,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean esVacia() {
+        return longitud == 0;
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo registro de la instantánea.
+     * @param i el índice del registro que queremos.
+     * @return el <em>i</em>-ésimo registro de la instantánea.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que cero o mayor o
+     *         igual que el número de registros en la instantánea.
+     */
+    public R get(int i) {
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido("Índice inválido: " + i);
+        int[] f = finales;
+        if (f == null) {
+            f = new int[numSegmentos];
+            for (int k = 0, n = 0; k < numSegmentos; k++)
+                f[k] = n += cuentas[k];
+            finales = f;
+        }
+        int a = 0, b = numSegmentos - 1;
+        while (a < b) {
+            int m = (a + b) >>> 1;
+            if (f[m] <= i)
+                a = m + 1;
+            else
+                b = m;
+        }
+        /* Saltamos los huecos hasta el registro que queremos. */
+        Object[] segmento = segmentos[a];
+        int r = -1;
+        for (int j = i - (a == 0 ? 0 : f[a - 1]); j >= 0; j--)
+            while (segmento[++r] == null)
+                ;
+        @SuppressWarnings("unchecked") R registro = (R)segmento[r];
+        return registro;
+    }
+
+    /**
+     * Nos dice si un registro está en la instantánea.
+     * @param registro el registro que queremos verificar.
+     * @return <code>true</code> si el registro está en la instantánea,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(R registro) {
+        for (R r : this)
+            if (r.equals(registro))
+                return true;
+        return false;
+    }
+
+    /**
+     * Regresa una lista con los registros de la instantánea.
+     * @return una lista con los registros de la instantánea.
+     */
+    public Lista<R> getRegistros() {
+        Lista<R> lista = new Lista<R>();
+        for (R r : this)
+            lista.agregaFinal(r);
+        return lista;
+    }
+
+    /**
+     * Regresa un iterador para recorrer la instantánea.
+     * @return un iterador para recorrer la instantánea.
+     */
+    @Override public Iterator<R> iterator() {
+        return new Iterador();
+    }
+}
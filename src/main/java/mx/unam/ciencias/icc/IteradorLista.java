@@ -39,4 +39,32 @@ public interface IteradorLista<T> extends Iterator<T> {
      * <code>true</code> si la lista no es vacía.
      */
     public void end();
+
+    /**
+     * Reemplaza el último elemento regresado por {@link Iterator#next} o
+     * {@link IteradorLista#previous} con el elemento recibido. La
+     * implementación por omisión lanza {@link UnsupportedOperationException}.
+     * @param elemento el elemento que reemplaza al último regresado.
+     * @throws UnsupportedOperationException si el iterador no permite
+     *         reemplazar elementos.
+     * @throws IllegalStateException si no se ha llamado {@link Iterator#next}
+     *         ni {@link IteradorLista#previous}, o si después de la última
+     *         llamada se eliminó o insertó un elemento con el iterador.
+     */
+    public default void set(T elemento) {
+        throw new UnsupportedOperationException("set");
+    }
+
+    /**
+     * Inserta un elemento en la posición del iterador, que queda después del
+     * elemento insertado: una llamada a {@link IteradorLista#previous} lo
+     * regresaría. La implementación por omisión lanza {@link
+     * UnsupportedOperationException}.
+     * @param elemento el elemento a insertar.
+     * @throws UnsupportedOperationException si el iterador no permite
+     *         insertar elementos.
+     */
+    public default void add(T elemento) {
+        throw new UnsupportedOperationException("add");
+    }
 }
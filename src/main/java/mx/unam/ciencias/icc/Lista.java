@@ -1,8 +1,15 @@
 package mx.unam.ciencias.icc;
 
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>Clase para listas genéricas doblemente ligadas.</p>
@@ -15,12 +22,27 @@ import java.util.NoSuchElementException;
  * pueden recorrer usando la estructura de control <em>for-each</em>. Las listas
  * no aceptan a <code>null</code> como elemento.</p>
  *
+ * <p>Los iteradores de las listas fallan rápido: si la lista se modifica
+ * mientras se recorre, salvo por medio del mismo iterador, el iterador lanza
+ * {@link ConcurrentModificationException} en lugar de recorrer nodos
+ * inválidos. Los iteradores pueden eliminar, reemplazar e insertar elementos
+ * en tiempo constante.</p>
+ *
  * @param <T> El tipo de los elementos de la lista.
  */
 public class Lista<T> implements Iterable<T> {
 
+    /* Interfaz para asas de nodos. Un asa identifica a un nodo de la lista,
+     * y permite consultarlo y eliminarlo en tiempo constante. Sólo las
+     * listas con nodos propios dan asas, y esas listas nunca copian sus
+     * nodos, así que un asa es válida mientras su nodo esté en la lista. */
+    interface Asa<T> {
+        /* Regresa el elemento del nodo. */
+        T getElemento();
+    }
+
     /* Clase interna privada para nodos. */
-    private class Nodo {
+    private class Nodo implements Asa<T> {
         /* El elemento del nodo. */
         private T elemento;
         /* El nodo anterior. */
@@ -30,7 +52,12 @@ public class Lista<T> implements Iterable<T> {
 
         /* Construye un nodo con un elemento. */
         private Nodo(T elemento) {
-            // Aquí va su código.
+            this.elemento = elemento;
+        }
+
+        /* Regresa el elemento del nodo. */
+        @Override public T getElemento() {
+            return elemento;
         }
     }
 
@@ -40,41 +67,211 @@ public class Lista<T> implements Iterable<T> {
         private Nodo anterior;
         /* El nodo siguiente. */
         private Nodo siguiente;
+        /* El último nodo regresado por next o previous, o null. */
+        private Nodo ultimo;
+        /* El número de modificaciones de la lista que espera el iterador. */
+        private int esperadas;
 
         /* Construye un nuevo iterador. */
         private Iterador() {
-            // Aquí va su código.
+            start();
         }
 
         /* Nos dice si hay un elemento siguiente. */
         @Override public boolean hasNext() {
-            // Aquí va su código.
+            return siguiente != null;
         }
 
         /* Nos da el elemento siguiente. */
         @Override public T next() {
-            // Aquí va su código.
+            revisa();
+            if (siguiente == null)
+                throw new NoSuchElementException("No hay siguiente.");
+            anterior = ultimo = siguiente;
+            siguiente = despues(siguiente);
+            return anterior.elemento;
         }
 
         /* Nos dice si hay un elemento anterior. */
         @Override public boolean hasPrevious() {
-            // Aquí va su código.
+            return anterior != null;
         }
 
         /* Nos da el elemento anterior. */
         @Override public T previous() {
-            // Aquí va su código.
+            revisa();
+            if (anterior == null)
+                throw new NoSuchElementException("No hay anterior.");
+            siguiente = ultimo = anterior;
+            anterior = antes(anterior);
+            return siguiente.elemento;
         }
 
         /* Mueve el iterador al inicio de la lista. */
         @Override public void start() {
-            // Aquí va su código.
+            anterior = ultimo = null;
+            siguiente = primerNodo();
+            esperadas = modificaciones;
         }
 
         /* Mueve el iterador al final de la lista. */
         @Override public void end() {
-            // Aquí va su código.
+            anterior = ultimoNodo();
+            siguiente = ultimo = null;
+            esperadas = modificaciones;
+        }
+
+        /* Elimina el último elemento regresado por next o previous. */
+        @Override public void remove() {
+            revisa();
+            if (ultimo == null)
+                throw new IllegalStateException("No hay elemento que " +
+                                                "eliminar.");
+            propia();
+            if (ultimo == anterior)
+                anterior = antes(ultimo);
+            else
+                siguiente = despues(ultimo);
+            eliminaNodo(ultimo);
+            ultimo = null;
+            esperadas = modificaciones;
+        }
+
+        /* Reemplaza el último elemento regresado por next o previous. */
+        @Override public void set(T elemento) {
+            if (elemento == null)
+                throw new IllegalArgumentException("Elemento nulo.");
+            revisa();
+            if (ultimo == null)
+                throw new IllegalStateException("No hay elemento que " +
+                                                "reemplazar.");
+            propia();
+            desindiza(ultimo);
+            ultimo.elemento = elemento;
+            indiza(ultimo);
+            reemplazos++;
+        }
+
+        /* Inserta un elemento antes del iterador. */
+        @Override public void add(T elemento) {
+            if (elemento == null)
+                throw new IllegalArgumentException("Elemento nulo.");
+            revisa();
+            propia();
+            Nodo n = nuevoNodo(elemento);
+            indiza(n);
+            liga(anterior, n, n, siguiente);
+            longitud++;
+            modificaciones++;
+            anterior = n;
+            ultimo = null;
+            esperadas = modificaciones;
+        }
+
+        /* Lanza una excepción si la lista fue modificada por alguien más que
+         * el iterador. */
+        private void revisa() {
+            if (esperadas != modificaciones)
+                throw new ConcurrentModificationException("La lista fue " +
+                                                          "modificada.");
+            revisaFuente();
+        }
+
+        /* Si la lista comparte sus nodos, los copia con propia y mueve al
+         * iterador a los nodos nuevos. */
+        private void propia() {
+            if (fuente == null)
+                return;
+            int i = indice();
+            boolean ultimoAnterior = ultimo != null && ultimo == anterior;
+            boolean ultimoSiguiente = ultimo != null && ultimo == siguiente;
+            Lista.this.propia();
+            anterior = i == 0 ? null : buscaNodo(i - 1);
+            siguiente = anterior == null ? primerNodo() : despues(anterior);
+            ultimo = ultimoAnterior ? anterior :
+                ultimoSiguiente ? siguiente : null;
+            esperadas = modificaciones;
+        }
+
+        /* Regresa el número de elementos antes del iterador. */
+        private int indice() {
+            int i = 0;
+            for (Nodo n = anterior; n != null; n = antes(n))
+                i++;
+            return i;
+        }
+
+        /* Regresa la lista del iterador. */
+        private Lista<T> lista() {
+            return Lista.this;
+        }
+    }
+
+    /* Clase interna privada para divisores. Un divisor recorre un intervalo
+     * de nodos consecutivos, y se divide a la mitad caminando desde su primer
+     * nodo; así las dos mitades conocen su tamaño exacto. */
+    private class Divisor implements Spliterator<T> {
+        /* El siguiente nodo a recorrer. */
+        private Nodo nodo;
+        /* El número de nodos que faltan por recorrer. */
+        private int restantes;
+
+        /* Construye un divisor para los nodos a partir del recibido. */
+        private Divisor(Nodo nodo, int restantes) {
+            this.nodo = nodo;
+            this.restantes = restantes;
+        }
+
+        /* Aplica la acción al siguiente elemento, si hay. */
+        @Override public boolean tryAdvance(Consumer<? super T> accion) {
+            if (restantes == 0)
+                return false;
+            T elemento = nodo.elemento;
+            nodo = despues(nodo);
+            restantes--;
+            accion.accept(elemento);
+            return true;
+        }
+
+        /* Aplica la acción a los elementos que faltan. */
+        @Override public void forEachRemaining(Consumer<? super T> accion) {
+            for (; restantes > 0; restantes--) {
+                accion.accept(nodo.elemento);
+                nodo = despues(nodo);
+            }
         }
+
+        /* Regresa un divisor para la primera mitad de los elementos que
+         * faltan, y se queda con la segunda. */
+        @Override public Spliterator<T> trySplit() {
+            if (restantes < 2)
+                return null;
+            int mitad = restantes / 2;
+            Nodo inicio = nodo;
+            for (int i = 0; i < mitad; i++)
+                nodo = despues(nodo);
+            restantes -= mitad;
+            return new Divisor(inicio, mitad);
+        }
+
+        /* Regresa el número de elementos que faltan. */
+        @Override public long estimateSize() {
+            return restantes;
+        }
+
+        /* Regresa las características del divisor. */
+        @Override public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+    /* Clase interna privada para entradas del índice. */
+    private class Entrada {
+        /* El nodo del elemento si está una sola vez en la lista y ya se
+         * conoce, o null. */
+        private Nodo nodo;
+        /* El número de veces que el elemento está en la lista. */
+        private int cuenta;
     }
 
     /* Primer elemento de la lista. */
@@ -83,13 +280,34 @@ public class Lista<T> implements Iterable<T> {
     private Nodo rabo;
     /* Número de elementos en la lista. */
     private int longitud;
+    /* Número de modificaciones a la estructura de la lista; los iteradores
+     * lo usan para detectar modificaciones concurrentes. */
+    private int modificaciones;
+    /* Número de elementos reemplazados por medio de iteradores; no cambia
+     * la estructura, pero sí lo que ven las vistas reversas. */
+    private int reemplazos;
+    /* Si la lista recorre sus nodos de rabo a cabeza. */
+    private boolean invertida;
+    /* La lista dueña de los nodos que esta lista comparte, o null si los
+     * nodos de esta lista son propios. */
+    private Lista<T> fuente;
+    /* La versión de la fuente cuando se compartieron sus nodos. */
+    private int vigencia;
+    /* El índice de los elementos, o null si la lista no está indizada. */
+    private HashMap<T, Entrada> indice;
+    /* Los nodos libres para reutilizar, ligados por su siguiente. */
+    private Nodo libres;
+    /* Número de nodos libres. */
+    private int numLibres;
+    /* Número máximo de nodos libres. */
+    private int maxLibres;
 
     /**
      * Regresa la longitud de la lista.
      * @return la longitud de la lista, el número de elementos que contiene.
      */
     public int getLongitud() {
-        // Aquí va su código.
+        return longitud;
     }
 
     /**
@@ -98,7 +316,7 @@ public class Lista<T> implements Iterable<T> {
      *         otro caso.
      */
     public boolean esVacia() {
-        // Aquí va su código.
+        return longitud == 0;
     }
 
     /**
@@ -109,7 +327,20 @@ public class Lista<T> implements Iterable<T> {
      *         <code>null</code>.
      */
     public void agregaFinal(T elemento) {
-        // Aquí va su código.
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento nulo.");
+        propia();
+        Nodo n = nuevoNodo(elemento);
+        indiza(n);
+        longitud++;
+        modificaciones++;
+        if (rabo == null) {
+            cabeza = rabo = n;
+        } else {
+            rabo.siguiente = n;
+            n.anterior = rabo;
+            rabo = n;
+        }
     }
 
     /**
@@ -120,7 +351,20 @@ public class Lista<T> implements Iterable<T> {
      *         <code>null</code>.
      */
     public void agregaInicio(T elemento) {
-        // Aquí va su código.
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento nulo.");
+        propia();
+        Nodo n = nuevoNodo(elemento);
+        indiza(n);
+        longitud++;
+        modificaciones++;
+        if (cabeza == null) {
+            cabeza = rabo = n;
+        } else {
+            cabeza.anterior = n;
+            n.siguiente = cabeza;
+            cabeza = n;
+        }
     }
 
     /**
@@ -139,7 +383,127 @@ public class Lista<T> implements Iterable<T> {
      *         <code>null</code>.
      */
     public void inserta(int i, T elemento) {
-        // Aquí va su código.
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento nulo.");
+        if (i <= 0) {
+            agregaInicio(elemento);
+            return;
+        }
+        if (i >= longitud) {
+            agregaFinal(elemento);
+            return;
+        }
+        propia();
+        Nodo s = buscaNodo(i);
+        Nodo n = nuevoNodo(elemento);
+        indiza(n);
+        longitud++;
+        modificaciones++;
+        n.anterior = s.anterior;
+        n.siguiente = s;
+        s.anterior.siguiente = n;
+        s.anterior = n;
+    }
+
+    /**
+     * Agrega los elementos recibidos al final de la lista, en orden. Los nodos
+     * se ligan entre sí antes de agregarlos, y se agregan a la lista de una
+     * sola vez; si algún elemento es <code>null</code>, la lista no se
+     * modifica.
+     * @param elementos los elementos a agregar.
+     * @throws IllegalArgumentException si <code>elementos</code> es
+     *         <code>null</code> o tiene algún elemento <code>null</code>.
+     */
+    public void agregaTodos(Iterable<? extends T> elementos) {
+        if (elementos == null)
+            throw new IllegalArgumentException("Elementos nulos.");
+        Nodo primero = null, ultimo = null;
+        int n = 0;
+        for (T elemento : elementos) {
+            if (elemento == null)
+                throw new IllegalArgumentException("Elemento nulo.");
+            Nodo nodo = nuevoNodo(elemento);
+            if (primero == null) {
+                primero = nodo;
+            } else {
+                ultimo.siguiente = nodo;
+                nodo.anterior = ultimo;
+            }
+            ultimo = nodo;
+            n++;
+        }
+        if (n == 0)
+            return;
+        propia();
+        indiza(primero, ultimo);
+        liga(rabo, primero, ultimo, null);
+        longitud += n;
+        modificaciones++;
+    }
+
+    /**
+     * Mueve todos los elementos de la lista recibida al inicio de la lista,
+     * en orden, dejando vacía a la lista recibida. Los nodos no se copian:
+     * se ligan en tiempo constante, salvo que la lista esté indizada (cada
+     * elemento movido se agrega al índice) o alguna de las dos comparta sus
+     * nodos (ver {@link #vistaReversa}).
+     * @param lista la lista cuyos elementos se mueven.
+     * @throws IllegalArgumentException si <code>lista</code> es
+     *         <code>null</code> o es la misma lista.
+     */
+    public void empalmaInicio(Lista<T> lista) {
+        revisaEmpalme(lista);
+        propia();
+        lista.propia();
+        empalma(null, cabeza, lista);
+    }
+
+    /**
+     * Mueve todos los elementos de la lista recibida al final de la lista, en
+     * orden, dejando vacía a la lista recibida. Los nodos no se copian: se
+     * ligan en tiempo constante, con las mismas salvedades que en {@link
+     * #empalmaInicio}.
+     * @param lista la lista cuyos elementos se mueven.
+     * @throws IllegalArgumentException si <code>lista</code> es
+     *         <code>null</code> o es la misma lista.
+     */
+    public void empalmaFinal(Lista<T> lista) {
+        revisaEmpalme(lista);
+        propia();
+        lista.propia();
+        empalma(rabo, null, lista);
+    }
+
+    /**
+     * Mueve todos los elementos de la lista recibida a la posición del
+     * iterador, en orden, dejando vacía a la lista recibida. Después de
+     * llamar el método, el iterador queda después de los elementos movidos.
+     * Los nodos no se copian: se ligan en tiempo constante, con las mismas
+     * salvedades que en {@link #empalmaInicio}.
+     * @param iterador un iterador de la lista, creado con {@link
+     *                 #iteradorLista}.
+     * @param lista la lista cuyos elementos se mueven.
+     * @throws IllegalArgumentException si <code>lista</code> es
+     *         <code>null</code> o es la misma lista, o si el iterador no es
+     *         de la lista.
+     * @throws ConcurrentModificationException si la lista fue modificada
+     *         después de crear el iterador, salvo por el iterador mismo.
+     */
+    public void empalma(IteradorLista<T> iterador, Lista<T> lista) {
+        revisaEmpalme(lista);
+        if (!(iterador instanceof Lista.Iterador) ||
+            ((Iterador)iterador).lista() != this)
+            throw new IllegalArgumentException("Iterador de otra lista.");
+        Iterador i = (Iterador)iterador;
+        i.revisa();
+        i.propia();
+        lista.propia();
+        Nodo ultimo = lista.rabo;
+        empalma(i.anterior, i.siguiente, lista);
+        if (ultimo != null)
+            i.anterior = ultimo;
+        i.ultimo = null;
+        i.esperadas = modificaciones;
     }
 
     /**
@@ -148,7 +512,49 @@ public class Lista<T> implements Iterable<T> {
      * @param elemento el elemento a eliminar.
      */
     public void elimina(T elemento) {
-        // Aquí va su código.
+        Nodo n = buscaNodo(elemento);
+        if (n == null)
+            return;
+        if (fuente != null) {
+            propia();
+            n = buscaNodo(elemento);
+        }
+        eliminaNodo(n);
+    }
+
+    /**
+     * Elimina todos los elementos de la lista que cumplen el predicado, en una
+     * sola pasada: cuesta tiempo lineal sin importar cuántos elementos se
+     * eliminen. El predicado se evalúa una vez por elemento, en orden, y no
+     * debe modificar la lista.
+     * @param predicado el predicado que cumplen los elementos a eliminar.
+     * @return el número de elementos eliminados.
+     * @throws IllegalArgumentException si <code>predicado</code> es
+     *         <code>null</code>.
+     */
+    public int eliminaSi(Predicate<? super T> predicado) {
+        if (predicado == null)
+            throw new IllegalArgumentException("Predicado nulo.");
+        int eliminados = 0, i = 0;
+        Nodo n = primerNodo();
+        while (n != null) {
+            if (!predicado.test(n.elemento)) {
+                n = despues(n);
+                i++;
+                continue;
+            }
+            /* Sólo copiamos los nodos compartidos si hay algo que eliminar;
+             * el nodo a eliminar es el i-ésimo de la copia. */
+            if (fuente != null) {
+                propia();
+                n = buscaNodo(i);
+            }
+            Nodo siguiente = despues(n);
+            eliminaNodo(n);
+            eliminados++;
+            n = siguiente;
+        }
+        return eliminados;
     }
 
     /**
@@ -157,7 +563,12 @@ public class Lista<T> implements Iterable<T> {
      * @throws NoSuchElementException si la lista es vacía.
      */
     public T eliminaPrimero() {
-        // Aquí va su código.
+        if (longitud == 0)
+            throw new NoSuchElementException("Lista vacía.");
+        propia();
+        T elemento = cabeza.elemento;
+        eliminaNodo(cabeza);
+        return elemento;
     }
 
     /**
@@ -166,7 +577,12 @@ public class Lista<T> implements Iterable<T> {
      * @throws NoSuchElementException si la lista es vacía.
      */
     public T eliminaUltimo() {
-        // Aquí va su código.
+        if (longitud == 0)
+            throw new NoSuchElementException("Lista vacía.");
+        propia();
+        T elemento = rabo.elemento;
+        eliminaNodo(rabo);
+        return elemento;
     }
 
     /**
@@ -176,31 +592,76 @@ public class Lista<T> implements Iterable<T> {
      *         <code>false</code> en otro caso.
      */
     public boolean contiene(T elemento) {
-        // Aquí va su código.
+        revisaFuente();
+        if (indice != null)
+            return indice.containsKey(elemento);
+        return buscaNodo(elemento) != null;
     }
 
     /**
-     * Regresa la reversa de la lista.
+     * Regresa la reversa de la lista. La reversa es una lista independiente,
+     * con nodos propios; para no copiarlos, ver {@link #vistaReversa}.
      * @return una nueva lista que es la reversa la que manda llamar el método.
      */
     public Lista<T> reversa() {
-        // Aquí va su código.
+        revisaFuente();
+        Lista<T> reversa = new Lista<T>();
+        for (Nodo n = primerNodo(); n != null; n = despues(n))
+            reversa.agregaInicio(n.elemento);
+        return reversa;
+    }
+
+    /**
+     * Regresa una vista de la reversa de la lista. La vista comparte los
+     * nodos de la lista y los recorre en el otro sentido, así que crearla,
+     * recorrerla y consultarla con {@link #get}, {@link #contiene} o {@link
+     * #indiceDe} no reserva nodos nuevos, y la lista original no paga nada por
+     * tenerla. La primera vez que la vista se modifica, copia sus elementos a
+     * nodos propios y a partir de entonces es independiente. Si la lista
+     * original se modifica mientras la vista todavía comparte sus nodos, la
+     * vista deja de ser válida, igual que un iterador: usarla lanza {@link
+     * ConcurrentModificationException}.
+     * @return una vista de la reversa de la lista que manda llamar el método.
+     */
+    public Lista<T> vistaReversa() {
+        revisaFuente();
+        Lista<T> reversa = new Lista<T>();
+        if (longitud == 0)
+            return reversa;
+        reversa.cabeza = cabeza;
+        reversa.rabo = rabo;
+        reversa.longitud = longitud;
+        reversa.invertida = !invertida;
+        reversa.fuente = fuente == null ? this : fuente;
+        reversa.vigencia = fuente == null ? version() : vigencia;
+        return reversa;
     }
 
     /**
      * Regresa una copia de la lista. La copia tiene los mismos elementos que la
-     * lista que manda llamar el método, en el mismo orden.
+     * lista que manda llamar el método, en el mismo orden, y está indizada si
+     * la lista lo está.
      * @return una copiad de la lista.
      */
     public Lista<T> copia() {
-        // Aquí va su código.
+        Lista<T> copia = new Lista<T>();
+        copia.setIndizada(indice != null);
+        for (Nodo n = primerNodo(); n != null; n = despues(n))
+            copia.agregaFinal(n.elemento);
+        return copia;
     }
 
     /**
      * Limpia la lista de elementos, dejándola vacía.
      */
     public void limpia() {
-        // Aquí va su código.
+        cabeza = rabo = null;
+        longitud = 0;
+        modificaciones++;
+        invertida = false;
+        fuente = null;
+        if (indice != null)
+            indice.clear();
     }
 
     /**
@@ -209,7 +670,9 @@ public class Lista<T> implements Iterable<T> {
      * @throws NoSuchElementException si la lista es vacía.
      */
     public T getPrimero() {
-        // Aquí va su código.
+        if (longitud == 0)
+            throw new NoSuchElementException("Lista vacía.");
+        return primerNodo().elemento;
     }
 
     /**
@@ -218,7 +681,9 @@ public class Lista<T> implements Iterable<T> {
      * @throws NoSuchElementException si la lista es vacía.
      */
     public T getUltimo() {
-        // Aquí va su código.
+        if (longitud == 0)
+            throw new NoSuchElementException("Lista vacía.");
+        return ultimoNodo().elemento;
     }
 
     /**
@@ -229,7 +694,9 @@ public class Lista<T> implements Iterable<T> {
      *         igual que el número de elementos en la lista.
      */
     public T get(int i) {
-        // Aquí va su código.
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido("Índice inválido: " + i);
+        return buscaNodo(i).elemento;
     }
 
     /**
@@ -239,7 +706,13 @@ public class Lista<T> implements Iterable<T> {
      *         no está contenido en la lista.
      */
     public int indiceDe(T elemento) {
-        // Aquí va su código.
+        if (indice != null && !indice.containsKey(elemento))
+            return -1;
+        int i = 0;
+        for (Nodo n = primerNodo(); n != null; n = despues(n), i++)
+            if (n.elemento.equals(elemento))
+                return i;
+        return -1;
     }
 
     /**
@@ -247,7 +720,13 @@ public class Lista<T> implements Iterable<T> {
      * @return una representación en cadena de la lista.
      */
     @Override public String toString() {
-        // Aquí va su código.
+        StringBuilder sb = new StringBuilder("[");
+        for (Nodo n = primerNodo(); n != null; n = despues(n)) {
+            sb.append(n.elemento);
+            if (despues(n) != null)
+                sb.append(", ");
+        }
+        return sb.append("]").toString();
     }
 
     /**
@@ -260,11 +739,107 @@ public class Lista<T> implements Iterable<T> {
         if (objeto == null || getClass() != objeto.getClass())
             return false;
         @SuppressWarnings("unchecked") Lista<T> lista = (Lista<T>)objeto;
-        // Aquí va su código.
+        if (lista.longitud != longitud)
+            return false;
+        Nodo m = lista.primerNodo();
+        for (Nodo n = primerNodo(); n != null; n = despues(n)) {
+            if (!n.elemento.equals(m.elemento))
+                return false;
+            m = lista.despues(m);
+        }
+        return true;
+    }
+
+    /**
+     * Define si la lista está indizada. Una lista indizada mantiene un índice
+     * de dispersión de sus elementos, con el que {@link #contiene} toma tiempo
+     * constante, {@link #indiceDe} descarta en tiempo constante a los
+     * elementos que no están, y {@link #elimina} encuentra en tiempo
+     * constante a los elementos que están una sola vez. A cambio, agregar y
+     * eliminar elementos cuesta un poco más, y el índice ocupa memoria (ver
+     * {@link #getMemoriaIndice}). Los elementos de una lista indizada deben
+     * tener un {@link Object#hashCode} consistente con {@link Object#equals},
+     * y no deben modificarse de manera que cambie su código de dispersión
+     * mientras están en la lista. Ni la reversa ni la vista reversa de una
+     * lista indizada están indizadas.
+     * @param indizada si la lista está indizada.
+     */
+    public void setIndizada(boolean indizada) {
+        if (!indizada) {
+            indice = null;
+            return;
+        }
+        if (indice != null)
+            return;
+        indice = new HashMap<T, Entrada>();
+        for (Nodo n = primerNodo(); n != null; n = despues(n))
+            indiza(n);
+    }
+
+    /**
+     * Nos dice si la lista está indizada.
+     * @return <code>true</code> si la lista está indizada, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esIndizada() {
+        return indice != null;
+    }
+
+    /**
+     * Regresa una estimación de la memoria que ocupa el índice de la lista,
+     * en bytes, suponiendo referencias comprimidas de 4 bytes: la tabla de
+     * dispersión, y un nodo de la tabla y una entrada por cada elemento
+     * distinto. La memoria de los elementos mismos no se cuenta, porque la
+     * lista ya los tiene.
+     * @return una estimación de la memoria que ocupa el índice, en bytes, o 0
+     *         si la lista no está indizada.
+     */
+    public long getMemoriaIndice() {
+        if (indice == null)
+            return 0;
+        int distintos = indice.size();
+        long tabla = 16;
+        while (tabla * 3 / 4 < distintos)
+            tabla *= 2;
+        /* Mapa, arreglo (encabezado y referencias), nodos y entradas. */
+        return 48 + 16 + 4 * tabla + (32 + 24) * (long)distintos;
     }
 
     /**
-     * Regresa un iterador para recorrer la lista en una dirección.
+     * Define el número máximo de nodos libres que guarda la lista. Por
+     * omisión es 0. Si es mayor, los nodos de los elementos eliminados se
+     * guardan, hasta ese máximo, y se reutilizan al agregar elementos; así,
+     * usar la lista como cola (con {@link #agregaFinal} y {@link
+     * #eliminaPrimero}) o como pila no reserva memoria una vez que tiene
+     * suficientes nodos libres. Los nodos libres se conservan después de
+     * {@link #limpia}, pero los nodos de los elementos que estaban en la
+     * lista al limpiarla no se guardan. Los divisores de la lista no deben
+     * usarse después de eliminar elementos, porque sus nodos pueden
+     * reutilizarse; los iteradores lo detectan, como cualquier otra
+     * modificación.
+     * @param maximo el número máximo de nodos libres.
+     * @throws IllegalArgumentException si <code>maximo</code> es negativo.
+     */
+    public void setMaxNodosLibres(int maximo) {
+        if (maximo < 0)
+            throw new IllegalArgumentException("Máximo negativo: " + maximo);
+        maxLibres = maximo;
+        for (; numLibres > maximo; numLibres--)
+            libres = libres.siguiente;
+    }
+
+    /**
+     * Regresa el número máximo de nodos libres que guarda la lista.
+     * @return el número máximo de nodos libres que guarda la lista.
+     */
+    public int getMaxNodosLibres() {
+        return maxLibres;
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista en una dirección. El
+     * iterador puede eliminar el último elemento que regresó con {@link
+     * Iterator#remove}.
      * @return un iterador para recorrer la lista en una dirección.
      */
     @Override public Iterator<T> iterator() {
@@ -272,7 +847,38 @@ public class Lista<T> implements Iterable<T> {
     }
 
     /**
-     * Regresa un iterador para recorrer la lista en ambas direcciones.
+     * Regresa un divisor (<em>spliterator</em>) para recorrer la lista. El
+     * divisor conoce el número exacto de elementos, y se puede dividir para
+     * recorrer la lista en paralelo. La lista no debe modificarse mientras se
+     * recorre.
+     * @return un divisor para recorrer la lista.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return new Divisor(primerNodo(), longitud);
+    }
+
+    /**
+     * Regresa un flujo secuencial con los elementos de la lista.
+     * @return un flujo secuencial con los elementos de la lista.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Regresa un flujo paralelo con los elementos de la lista.
+     * @return un flujo paralelo con los elementos de la lista.
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista en ambas direcciones. El
+     * iterador puede eliminar ({@link Iterator#remove}) o reemplazar ({@link
+     * IteradorLista#set}) el último elemento que regresó, e insertar
+     * elementos en su posición ({@link IteradorLista#add}); así, filtrar la
+     * lista recorriéndola cuesta tiempo lineal.
      * @return un iterador para recorrer la lista en ambas direcciones.
      */
     public IteradorLista<T> iteradorLista() {
@@ -288,7 +894,17 @@ public class Lista<T> implements Iterable<T> {
      * @return una copia de la lista, pero ordenada.
      */
     public Lista<T> mergeSort(Comparator<T> comparador) {
-        // Aquí va su código.
+        if (longitud < 2)
+            return copia();
+        Lista<T> a = new Lista<T>(), b = new Lista<T>();
+        int i = 0;
+        for (Nodo n = primerNodo(); n != null; n = despues(n))
+            if (i++ < longitud / 2)
+                a.agregaFinal(n.elemento);
+            else
+                b.agregaFinal(n.elemento);
+        return mezcla(a.mergeSort(comparador), b.mergeSort(comparador),
+                      comparador);
     }
 
     /**
@@ -304,6 +920,69 @@ public class Lista<T> implements Iterable<T> {
         return lista.mergeSort((a, b) -> a.compareTo(b));
     }
 
+    /**
+     * Ordena la lista, usando el comparador recibido. A diferencia de {@link
+     * #mergeSort(Comparator)}, el ordenamiento no crea nodos: mezcla de abajo
+     * hacia arriba, sin recursión, religando los nodos de la lista, así que
+     * usa espacio extra constante. El ordenamiento es estable, y las asas e
+     * índice de la lista siguen siendo válidos.
+     * @param comparador el comparador que la lista usará para hacer el
+     *                   ordenamiento.
+     */
+    public void ordena(Comparator<T> comparador) {
+        if (longitud < 2)
+            return;
+        propia();
+        modificaciones++;
+        /* Mezclamos pares de tramos ordenados de tamaño k, que se duplica en
+         * cada pasada; los anteriores se religan conforme se mezcla. */
+        for (int k = 1; k < longitud; k *= 2) {
+            Nodo p = cabeza, ultimo = null;
+            while (p != null) {
+                Nodo q = p;
+                int np = 0, nq = k;
+                while (np < k && q != null) {
+                    q = q.siguiente;
+                    np++;
+                }
+                while (np > 0 || (nq > 0 && q != null)) {
+                    Nodo n;
+                    if (np > 0 && (nq == 0 || q == null ||
+                                   comparador.compare(p.elemento,
+                                                      q.elemento) <= 0)) {
+                        n = p;
+                        p = p.siguiente;
+                        np--;
+                    } else {
+                        n = q;
+                        q = q.siguiente;
+                        nq--;
+                    }
+                    if (ultimo == null)
+                        cabeza = n;
+                    else
+                        ultimo.siguiente = n;
+                    n.anterior = ultimo;
+                    ultimo = n;
+                }
+                p = q;
+            }
+            ultimo.siguiente = null;
+            rabo = ultimo;
+        }
+    }
+
+    /**
+     * Ordena la lista recibida, religando sus nodos como en {@link
+     * #ordena(Comparator)}. La lista recibida tiene que contener nada más
+     * elementos que implementan la interfaz {@link Comparable}.
+     * @param <T> tipo del que puede ser la lista.
+     * @param lista la lista que se ordenará.
+     */
+    public static <T extends Comparable<T>> void ordena(Lista<T> lista) {
+        lista.ordena((a, b) -> a.compareTo(b));
+    }
+
     /**
      * Busca un elemento en la lista ordenada, usando el comparador recibido. El
      * método supone que la lista está ordenada usando el mismo comparador.
@@ -313,7 +992,14 @@ public class Lista<T> implements Iterable<T> {
      *         <code>false</code> en otro caso.
      */
     public boolean busquedaLineal(T elemento, Comparator<T> comparador) {
-        // Aquí va su código.
+        for (Nodo n = primerNodo(); n != null; n = despues(n)) {
+            int c = comparador.compare(n.elemento, elemento);
+            if (c == 0)
+                return true;
+            if (c > 0)
+                return false;
+        }
+        return false;
     }
 
     /**
@@ -330,4 +1016,253 @@ public class Lista<T> implements Iterable<T> {
     boolean busquedaLineal(Lista<T> lista, T elemento) {
         return lista.busquedaLineal(elemento, (a, b) -> a.compareTo(b));
     }
+
+    /* Regresa el asa del último nodo de la lista, o null si es vacía. Si la
+     * lista comparte sus nodos, primero los copia, así que el asa siempre es
+     * de un nodo propio. */
+    Asa<T> asaUltimo() {
+        propia();
+        return rabo;
+    }
+
+    /* Regresa el asa del primer nodo con el elemento, o null si no hay. Si
+     * la lista comparte sus nodos, primero los copia. */
+    Asa<T> buscaAsa(T elemento) {
+        propia();
+        return buscaNodo(elemento);
+    }
+
+    /* Elimina el nodo del asa, que tiene que ser de un nodo en la lista. */
+    void eliminaAsa(Asa<T> asa) {
+        if (fuente != null)
+            throw new IllegalStateException("Lista compartida.");
+        @SuppressWarnings("unchecked") Nodo nodo = (Nodo)asa;
+        eliminaNodo(nodo);
+    }
+
+    /* Mezcla dos listas ordenadas en una nueva lista ordenada. */
+    private Lista<T> mezcla(Lista<T> a, Lista<T> b, Comparator<T> comparador) {
+        Lista<T> lista = new Lista<T>();
+        Nodo i = a.primerNodo(), j = b.primerNodo();
+        while (i != null && j != null) {
+            if (comparador.compare(i.elemento, j.elemento) <= 0) {
+                lista.agregaFinal(i.elemento);
+                i = a.despues(i);
+            } else {
+                lista.agregaFinal(j.elemento);
+                j = b.despues(j);
+            }
+        }
+        for (; i != null; i = a.despues(i))
+            lista.agregaFinal(i.elemento);
+        for (; j != null; j = b.despues(j))
+            lista.agregaFinal(j.elemento);
+        return lista;
+    }
+
+    /* Regresa el primer nodo en el orden de la lista. */
+    private Nodo primerNodo() {
+        revisaFuente();
+        return invertida ? rabo : cabeza;
+    }
+
+    /* Regresa el último nodo en el orden de la lista. */
+    private Nodo ultimoNodo() {
+        revisaFuente();
+        return invertida ? cabeza : rabo;
+    }
+
+    /* Regresa el nodo que sigue al recibido en el orden de la lista. */
+    private Nodo despues(Nodo nodo) {
+        return invertida ? nodo.anterior : nodo.siguiente;
+    }
+
+    /* Regresa el nodo que precede al recibido en el orden de la lista. */
+    private Nodo antes(Nodo nodo) {
+        return invertida ? nodo.siguiente : nodo.anterior;
+    }
+
+    /* Regresa el primer nodo con el elemento, o null si no hay. */
+    private Nodo buscaNodo(T elemento) {
+        Entrada entrada = null;
+        if (indice != null) {
+            entrada = indice.get(elemento);
+            if (entrada == null)
+                return null;
+            if (entrada.nodo != null)
+                return entrada.nodo;
+        }
+        for (Nodo n = primerNodo(); n != null; n = despues(n)) {
+            if (n.elemento.equals(elemento)) {
+                if (entrada != null && entrada.cuenta == 1)
+                    entrada.nodo = n;
+                return n;
+            }
+        }
+        return null;
+    }
+
+    /* Regresa el i-ésimo nodo, recorriendo desde el extremo más cercano. */
+    private Nodo buscaNodo(int i) {
+        Nodo n;
+        if (i < longitud / 2) {
+            n = primerNodo();
+            for (int j = 0; j < i; j++)
+                n = despues(n);
+        } else {
+            n = ultimoNodo();
+            for (int j = longitud - 1; j > i; j--)
+                n = antes(n);
+        }
+        return n;
+    }
+
+    /* Verifica que se puedan empalmar los elementos de la lista. */
+    private void revisaEmpalme(Lista<T> lista) {
+        if (lista == null)
+            throw new IllegalArgumentException("Lista nula.");
+        if (lista == this)
+            throw new IllegalArgumentException("Misma lista.");
+    }
+
+    /* Mueve los nodos de la lista entre los nodos anterior y siguiente, que
+     * son consecutivos en esta lista; ninguna de las dos listas puede ser
+     * compartida. */
+    private void empalma(Nodo anterior, Nodo siguiente, Lista<T> lista) {
+        if (lista.longitud == 0)
+            return;
+        Nodo primero = lista.cabeza, ultimo = lista.rabo;
+        int n = lista.longitud;
+        lista.limpia();
+        indiza(primero, ultimo);
+        liga(anterior, primero, ultimo, siguiente);
+        longitud += n;
+        modificaciones++;
+    }
+
+    /* Liga la cadena de nodos de primero a último entre los nodos anterior y
+     * siguiente; cualquiera de los dos puede ser null en los extremos. */
+    private void liga(Nodo anterior, Nodo primero, Nodo ultimo,
+                      Nodo siguiente) {
+        primero.anterior = anterior;
+        ultimo.siguiente = siguiente;
+        if (anterior == null)
+            cabeza = primero;
+        else
+            anterior.siguiente = primero;
+        if (siguiente == null)
+            rabo = ultimo;
+        else
+            siguiente.anterior = ultimo;
+    }
+
+    /* Desconecta un nodo de la lista, que no puede ser compartida. */
+    private void eliminaNodo(Nodo nodo) {
+        if (nodo.anterior == null)
+            cabeza = nodo.siguiente;
+        else
+            nodo.anterior.siguiente = nodo.siguiente;
+        if (nodo.siguiente == null)
+            rabo = nodo.anterior;
+        else
+            nodo.siguiente.anterior = nodo.anterior;
+        longitud--;
+        modificaciones++;
+        desindiza(nodo);
+        libera(nodo);
+    }
+
+    /* Regresa un nodo con el elemento, reutilizando un nodo libre si hay. */
+    private Nodo nuevoNodo(T elemento) {
+        if (libres == null)
+            return new Nodo(elemento);
+        Nodo n = libres;
+        libres = n.siguiente;
+        numLibres--;
+        n.siguiente = null;
+        n.elemento = elemento;
+        return n;
+    }
+
+    /* Guarda un nodo desconectado de la lista entre los libres, si caben. El
+     * elemento se olvida para no retenerlo. */
+    private void libera(Nodo nodo) {
+        if (numLibres == maxLibres)
+            return;
+        nodo.elemento = null;
+        nodo.anterior = null;
+        nodo.siguiente = libres;
+        libres = nodo;
+        numLibres++;
+    }
+
+    /* Agrega el nodo al índice, si la lista está indizada. */
+    private void indiza(Nodo nodo) {
+        if (indice == null)
+            return;
+        Entrada entrada = indice.get(nodo.elemento);
+        if (entrada == null) {
+            entrada = new Entrada();
+            entrada.nodo = nodo;
+            indice.put(nodo.elemento, entrada);
+        } else {
+            entrada.nodo = null;
+        }
+        entrada.cuenta++;
+    }
+
+    /* Agrega al índice los nodos de la cadena de primero a último, si la
+     * lista está indizada. */
+    private void indiza(Nodo primero, Nodo ultimo) {
+        if (indice == null)
+            return;
+        for (Nodo n = primero; n != ultimo.siguiente; n = n.siguiente)
+            indiza(n);
+    }
+
+    /* Quita el nodo del índice, si la lista está indizada. Si el elemento
+     * sigue en la lista, no sabemos en qué nodo, así que lo olvidamos; el
+     * siguiente buscaNodo lo vuelve a encontrar. */
+    private void desindiza(Nodo nodo) {
+        if (indice == null)
+            return;
+        Entrada entrada = indice.get(nodo.elemento);
+        if (--entrada.cuenta == 0)
+            indice.remove(nodo.elemento);
+        else
+            entrada.nodo = null;
+    }
+
+    /* Regresa la versión de la lista, que cambia con cada modificación a sus
+     * nodos, incluyendo los reemplazos de elementos. */
+    private int version() {
+        return modificaciones + reemplazos;
+    }
+
+    /* Lanza una excepción si la lista comparte los nodos de una fuente que
+     * fue modificada después de compartirlos. */
+    private void revisaFuente() {
+        if (fuente != null && fuente.version() != vigencia)
+            throw new ConcurrentModificationException("La lista original " +
+                                                      "fue modificada.");
+    }
+
+    /* Si la lista comparte los nodos de su fuente, copia los elementos a
+     * nodos propios, en el orden de la lista, antes de modificarla. Los
+     * nodos compartidos nunca se modifican, así que la fuente no cambia. */
+    private void propia() {
+        if (fuente == null)
+            return;
+        Nodo n = primerNodo();
+        boolean inv = invertida;
+        cabeza = rabo = null;
+        longitud = 0;
+        modificaciones++;
+        invertida = false;
+        fuente = null;
+        if (indice != null)
+            indice.clear();
+        for (; n != null; n = inv ? n.anterior : n.siguiente)
+            agregaFinal(n.elemento);
+    }
 }
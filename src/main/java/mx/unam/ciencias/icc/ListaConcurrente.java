@@ -0,0 +1,268 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Clase para listas concurrentes.</p>
+ *
+ * <p>Una lista concurrente es una bicola que varios hilos pueden usar al
+ * mismo tiempo sin candados: agregar y eliminar en cualquiera de los dos
+ * extremos usa nada más operaciones atómicas, así que un hilo lento nunca
+ * detiene a los demás. Los métodos se llaman igual que los de {@link Lista},
+ * para que una lista usada como cola o pila entre hilos productores y
+ * consumidores pueda reemplazarse por una lista concurrente.</p>
+ *
+ * <p>La lista está construida sobre una bicola doblemente ligada sin
+ * candados ({@link ConcurrentLinkedDeque}). Los iteradores son débilmente
+ * consistentes: nunca lanzan excepciones por modificaciones concurrentes,
+ * recorren cada elemento a lo más una vez, y reflejan los elementos que
+ * estaban en la lista cuando se crearon, y tal vez algunas modificaciones
+ * posteriores. Las listas concurrentes no aceptan a <code>null</code> como
+ * elemento.</p>
+ *
+ * @param <T> El tipo de los elementos de la lista.
+ */
+public class ListaConcurrente<T> implements Iterable<T> {
+
+    /* Clase interna privada para iteradores de lista. Recorren una copia de
+     * los elementos, que se toma al crearlos y al moverlos a un extremo. */
+    private class Iterador implements IteradorLista<T> {
+        /* Los elementos que recorre el iterador. */
+        private Object[] elementos;
+        /* El índice del elemento siguiente. */
+        private int siguiente;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            start();
+        }
+
+        /* Nos dice si hay un elemento siguiente. */
+        @Override public boolean hasNext() {
+            return siguiente < elementos.length;
+        }
+
+        /* Nos da el elemento siguiente. */
+        @Override public T next() {
+            if (siguiente == elementos.length)
+                throw new NoSuchElementException("No hay siguiente.");
+            @SuppressWarnings("unchecked") T e = (T)elementos[siguiente++];
+            return e;
+        }
+
+        /* Nos dice si hay un elemento anterior. */
+        @Override public boolean hasPrevious() {
+            return siguiente > 0;
+        }
+
+        /* Nos da el elemento anterior. */
+        @Override public T previous() {
+            if (siguiente == 0)
+                throw new NoSuchElementException("No hay anterior.");
+            @SuppressWarnings("unchecked") T e = (T)elementos[--siguiente];
+            return e;
+        }
+
+        /* Mueve el iterador al inicio de la lista. */
+        @Override public void start() {
+            elementos = bicola.toArray();
+            siguiente = 0;
+        }
+
+        /* Mueve el iterador al final de la lista. */
+        @Override public void end() {
+            elementos = bicola.toArray();
+            siguiente = elementos.length;
+        }
+    }
+
+    /* La bicola con los elementos. */
+    private ConcurrentLinkedDeque<T> bicola;
+    /* Número de elementos en la lista; ConcurrentLinkedDeque lo calcula
+     * recorriendo todos sus nodos. */
+    private AtomicInteger longitud;
+
+    /**
+     * Construye una lista concurrente vacía.
+     */
+    public ListaConcurrente() {
+        bicola = new ConcurrentLinkedDeque<T>();
+        longitud = new AtomicInteger();
+    }
+
+    /**
+     * Regresa la longitud de la lista. Mientras otros hilos modifican la
+     * lista, la longitud puede no corresponder a ningún momento en
+     * particular; cuando nadie la modifica, es exacta.
+     * @return la longitud de la lista, el número de elementos que contiene.
+     */
+    public int getLongitud() {
+        return Math.max(0, longitud.get());
+    }
+
+    /**
+     * Nos dice si la lista es vacía.
+     * @return <code>true</code> si la lista es vacía, <code>false</code> en
+     *         otro caso.
+     */
+    public boolean esVacia() {
+        return bicola.isEmpty();
+    }
+
+    /**
+     * Agrega un elemento al final de la lista.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public void agregaFinal(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento nulo.");
+        bicola.addLast(elemento);
+        longitud.incrementAndGet();
+    }
+
+    /**
+     * Agrega un elemento al inicio de la lista.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public void agregaInicio(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento nulo.");
+        bicola.addFirst(elemento);
+        longitud.incrementAndGet();
+    }
+
+    /**
+     * Elimina el primer elemento de la lista y lo regresa.
+     * @return el primer elemento de la lista antes de eliminarlo.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaPrimero() {
+        return eliminado(bicola.pollFirst());
+    }
+
+    /**
+     * Elimina el último elemento de la lista y lo regresa.
+     * @return el último elemento de la lista antes de eliminarlo.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaUltimo() {
+        return eliminado(bicola.pollLast());
+    }
+
+    /**
+     * Elimina un elemento de la lista. Si el elemento no está contenido en la
+     * lista, el método no la modifica.
+     * @param elemento el elemento a eliminar.
+     */
+    public void elimina(T elemento) {
+        if (elemento != null && bicola.removeFirstOccurrence(elemento))
+            longitud.decrementAndGet();
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista.
+     * @param elemento el elemento que queremos saber si está en la lista.
+     * @return <code>true</code> si <code>elemento</code> está en la lista,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return elemento != null && bicola.contains(elemento);
+    }
+
+    /**
+     * Regresa el primer elemento de la lista.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getPrimero() {
+        T elemento = bicola.peekFirst();
+        if (elemento == null)
+            throw new NoSuchElementException("Lista vacía.");
+        return elemento;
+    }
+
+    /**
+     * Regresa el último elemento de la lista.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getUltimo() {
+        T elemento = bicola.peekLast();
+        if (elemento == null)
+            throw new NoSuchElementException("Lista vacía.");
+        return elemento;
+    }
+
+    /**
+     * Limpia la lista de elementos. Los elementos que otros hilos agreguen
+     * mientras tanto pueden quedar en la lista.
+     */
+    public void limpia() {
+        while (bicola.pollFirst() != null)
+            longitud.decrementAndGet();
+    }
+
+    /**
+     * Regresa una lista con los elementos de la lista concurrente, en orden.
+     * @return una lista con los elementos de la lista concurrente.
+     */
+    public Lista<T> aLista() {
+        Lista<T> lista = new Lista<T>();
+        for (T elemento : bicola)
+            lista.agregaFinal(elemento);
+        return lista;
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        return aLista().toString();
+    }
+
+    /**
+     * Regresa un iterador débilmente consistente para recorrer la lista en una
+     * dirección. El iterador no copia los elementos.
+     * @return un iterador para recorrer la lista en una dirección.
+     */
+    @Override public Iterator<T> iterator() {
+        Iterator<T> iterador = bicola.iterator();
+        /* Envolvemos al iterador para que no permita eliminar elementos sin
+         * actualizar la longitud. */
+        return new Iterator<T>() {
+            @Override public boolean hasNext() {
+                return iterador.hasNext();
+            }
+            @Override public T next() {
+                return iterador.next();
+            }
+        };
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista en ambas direcciones. El
+     * iterador recorre una copia de los elementos que estaban en la lista al
+     * crearlo, y vuelve a copiarlos cada vez que se mueve a un extremo con
+     * {@link IteradorLista#start} o {@link IteradorLista#end}.
+     * @return un iterador para recorrer la lista en ambas direcciones.
+     */
+    public IteradorLista<T> iteradorLista() {
+        return new Iterador();
+    }
+
+    /* Descuenta el elemento eliminado, o lanza la excepción si no hay. */
+    private T eliminado(T elemento) {
+        if (elemento == null)
+            throw new NoSuchElementException("Lista vacía.");
+        longitud.decrementAndGet();
+        return elemento;
+    }
+}
@@ -0,0 +1,498 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para listas genéricas persistentes.</p>
+ *
+ * <p>Una lista persistente es inmutable: las operaciones que la "modifican"
+ * regresan una nueva lista, y la lista original no cambia. Las dos listas
+ * comparten todos los nodos que la operación no tocó, por lo que cada
+ * operación crea a lo más un número logarítmico de nodos nuevos, y {@link
+ * #copia} no copia nada. Por lo mismo, una lista persistente puede
+ * compartirse libremente entre hilos.</p>
+ *
+ * <p>Internamente, la lista es un árbol AVL ordenado por posición, en el que
+ * cada nodo conoce el tamaño de su subárbol; así el acceso, la inserción y la
+ * eliminación por índice toman tiempo logarítmico.</p>
+ *
+ * <p>Las listas persistentes implementan la interfaz {@link Iterable}, y se
+ * pueden construir a partir de cualquier {@link Iterable}, en particular de
+ * una {@link Lista}; {@link #aLista} regresa una {@link Lista} con los mismos
+ * elementos. Como las listas, no aceptan a <code>null</code> como
+ * elemento.</p>
+ *
+ * @param <T> El tipo de los elementos de la lista.
+ */
+public class ListaPersistente<T> implements Iterable<T> {
+
+    /* Clase interna privada para nodos. */
+    private static class Nodo<T> {
+        /* El elemento del nodo. */
+        private final T elemento;
+        /* El subárbol izquierdo. */
+        private final Nodo<T> izquierdo;
+        /* El subárbol derecho. */
+        private final Nodo<T> derecho;
+        /* La altura del subárbol. */
+        private final int altura;
+        /* El número de elementos en el subárbol. */
+        private final int tamano;
+
+        /* Construye un nodo con un elemento y sus subárboles. */
+        private Nodo(Nodo<T> izquierdo, T elemento, Nodo<T> derecho) {
+            this.izquierdo = izquierdo;
+            this.elemento = elemento;
+            this.derecho = derecho;
+            altura = 1 + Math.max(altura(izquierdo), altura(derecho));
+            tamano = 1 + tamano(izquierdo) + tamano(derecho);
+        }
+    }
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador implements Iterator<T> {
+        /* Los nodos pendientes de visitar; su tamaño es la altura. */
+        private Object[] pila;
+        /* El número de nodos en la pila. */
+        private int tope;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            pila = new Object[altura(raiz)];
+            baja(raiz);
+        }
+
+        /* Nos dice si hay un elemento siguiente. */
+        @Override public boolean hasNext() {
+            return tope > 0;
+        }
+
+        /* Nos da el elemento siguiente. */
+        @Override public T next() {
+            if (tope == 0)
+                throw new NoSuchElementException("No hay siguiente.");
+            @SuppressWarnings("unchecked") Nodo<T> nodo =
+                (Nodo<T>)pila[--tope];
+            pila[tope] = null;
+            baja(nodo.derecho);
+            return nodo.elemento;
+        }
+
+        /* Mete a la pila el nodo y sus descendientes izquierdos. */
+        private void baja(Nodo<T> nodo) {
+            for (; nodo != null; nodo = nodo.izquierdo)
+                pila[tope++] = nodo;
+        }
+    }
+
+    /* La raíz del árbol. */
+    private final Nodo<T> raiz;
+
+    /**
+     * Construye una lista persistente vacía.
+     */
+    public ListaPersistente() {
+        raiz = null;
+    }
+
+    /**
+     * Construye una lista persistente con los elementos recibidos, en el
+     * mismo orden, en tiempo lineal.
+     * @param elementos los elementos de la lista.
+     * @throws IllegalArgumentException si <code>elementos</code> es
+     *         <code>null</code> o tiene algún elemento <code>null</code>.
+     */
+    public ListaPersistente(Iterable<T> elementos) {
+        if (elementos == null)
+            throw new IllegalArgumentException("Elementos nulos.");
+        Lista<T> lista = new Lista<T>();
+        for (T elemento : elementos)
+            lista.agregaFinal(elemento);
+        Object[] arreglo = new Object[lista.getLongitud()];
+        int i = 0;
+        for (T elemento : lista)
+            arreglo[i++] = elemento;
+        raiz = construye(arreglo, 0, arreglo.length);
+    }
+
+    /* Construye una lista persistente con la raíz recibida. */
+    private ListaPersistente(Nodo<T> raiz) {
+        this.raiz = raiz;
+    }
+
+    /**
+     * Regresa la longitud de la lista.
+     * @return la longitud de la lista, el número de elementos que contiene.
+     */
+    public int getLongitud() {
+        return tamano(raiz);
+    }
+
+    /**
+     * Nos dice si la lista es vacía.
+     * @return <code>true</code> si la lista es vacía, <code>false</code> en
+     *         otro caso.
+     */
+    public boolean esVacia() {
+        return raiz == null;
+    }
+
+    /**
+     * Regresa una lista con el elemento agregado al final.
+     * @param elemento el elemento a agregar.
+     * @return una lista con el elemento agregado al final.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public ListaPersistente<T> agregaFinal(T elemento) {
+        return inserta(getLongitud(), elemento);
+    }
+
+    /**
+     * Regresa una lista con el elemento agregado al inicio.
+     * @param elemento el elemento a agregar.
+     * @return una lista con el elemento agregado al inicio.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public ListaPersistente<T> agregaInicio(T elemento) {
+        return inserta(0, elemento);
+    }
+
+    /**
+     * Regresa una lista con el elemento insertado en un índice explícito,
+     * con la misma semántica que {@link Lista#inserta}: si el índice es menor
+     * o igual que cero, el elemento se agrega al inicio, y si es mayor o igual
+     * que la longitud de la lista, al final.
+     * @param i el índice dónde insertar el elemento.
+     * @param elemento el elemento a insertar.
+     * @return una lista con el elemento insertado.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public ListaPersistente<T> inserta(int i, T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento nulo.");
+        i = Math.max(0, Math.min(i, getLongitud()));
+        return new ListaPersistente<T>(inserta(raiz, i, elemento));
+    }
+
+    /**
+     * Regresa una lista sin la primera aparición del elemento. Si el elemento
+     * no está en la lista, regresa la misma lista.
+     * @param elemento el elemento a eliminar.
+     * @return una lista sin la primera aparición del elemento.
+     */
+    public ListaPersistente<T> elimina(T elemento) {
+        int i = indiceDe(elemento);
+        return i == -1 ? this : eliminaEn(i);
+    }
+
+    /**
+     * Regresa una lista sin el <em>i</em>-ésimo elemento.
+     * @param i el índice del elemento a eliminar.
+     * @return una lista sin el <em>i</em>-ésimo elemento.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que cero o mayor o
+     *         igual que el número de elementos en la lista.
+     */
+    public ListaPersistente<T> eliminaEn(int i) {
+        revisaIndice(i);
+        return new ListaPersistente<T>(elimina(raiz, i));
+    }
+
+    /**
+     * Regresa una lista sin su primer elemento.
+     * @return una lista sin su primer elemento.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public ListaPersistente<T> eliminaPrimero() {
+        if (raiz == null)
+            throw new NoSuchElementException("Lista vacía.");
+        return eliminaEn(0);
+    }
+
+    /**
+     * Regresa una lista sin su último elemento.
+     * @return una lista sin su último elemento.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public ListaPersistente<T> eliminaUltimo() {
+        if (raiz == null)
+            throw new NoSuchElementException("Lista vacía.");
+        return eliminaEn(getLongitud() - 1);
+    }
+
+    /**
+     * Regresa una lista con el <em>i</em>-ésimo elemento reemplazado.
+     * @param i el índice del elemento a reemplazar.
+     * @param elemento el nuevo elemento.
+     * @return una lista con el <em>i</em>-ésimo elemento reemplazado.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que cero o mayor o
+     *         igual que el número de elementos en la lista.
+     */
+    public ListaPersistente<T> set(int i, T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException("Elemento nulo.");
+        revisaIndice(i);
+        return new ListaPersistente<T>(set(raiz, i, elemento));
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista.
+     * @param elemento el elemento que queremos saber si está en la lista.
+     * @return <code>true</code> si <code>elemento</code> está en la lista,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return indiceDe(elemento) != -1;
+    }
+
+    /**
+     * Regresa el primer elemento de la lista.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getPrimero() {
+        if (raiz == null)
+            throw new NoSuchElementException("Lista vacía.");
+        return get(0);
+    }
+
+    /**
+     * Regresa el último elemento de la lista.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getUltimo() {
+        if (raiz == null)
+            throw new NoSuchElementException("Lista vacía.");
+        return get(getLongitud() - 1);
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo elemento de la lista.
+     * @param i el índice del elemento que queremos.
+     * @return el <em>i</em>-ésimo elemento de la lista.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que cero o mayor o
+     *         igual que el número de elementos en la lista.
+     */
+    public T get(int i) {
+        revisaIndice(i);
+        Nodo<T> nodo = raiz;
+        while (true) {
+            int t = tamano(nodo.izquierdo);
+            if (i == t)
+                return nodo.elemento;
+            if (i < t) {
+                nodo = nodo.izquierdo;
+            } else {
+                i -= t + 1;
+                nodo = nodo.derecho;
+            }
+        }
+    }
+
+    /**
+     * Regresa el índice del elemento recibido en la lista.
+     * @param elemento el elemento del que se busca el índice.
+     * @return el índice del elemento recibido en la lista, o -1 si el elemento
+     *         no está contenido en la lista.
+     */
+    public int indiceDe(T elemento) {
+        int i = 0;
+        for (T e : this) {
+            if (e.equals(elemento))
+                return i;
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Regresa la reversa de la lista.
+     * @return una nueva lista que es la reversa de la lista.
+     */
+    public ListaPersistente<T> reversa() {
+        return new ListaPersistente<T>(reversa(raiz));
+    }
+
+    /**
+     * Regresa una copia de la lista. Como la lista es inmutable, la copia es
+     * la misma lista, y cuesta tiempo constante.
+     * @return una copia de la lista.
+     */
+    public ListaPersistente<T> copia() {
+        return this;
+    }
+
+    /**
+     * Regresa una {@link Lista} con los elementos de la lista.
+     * @return una {@link Lista} con los elementos de la lista.
+     */
+    public Lista<T> aLista() {
+        Lista<T> lista = new Lista<T>();
+        for (T elemento : this)
+            lista.agregaFinal(elemento);
+        return lista;
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (T elemento : this) {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(elemento);
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Nos dice si la lista es igual al objeto recibido.
+     * @param objeto el objeto con el que hay que comparar.
+     * @return <code>true</code> si la lista es igual al objeto recibido;
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean equals(Object objeto) {
+        if (objeto == null || getClass() != objeto.getClass())
+            return false;
+        @SuppressWarnings("unchecked") ListaPersistente<T> lista =
+            (ListaPersistente<T>)objeto;
+        if (lista.getLongitud() != getLongitud())
+            return false;
+        Iterator<T> iterador = lista.iterator();
+        for (T elemento : this)
+            if (!elemento.equals(iterador.next()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un código de dispersión para la lista.
+     * @return un código de dispersión para la lista.
+     */
+    @Override public int hashCode() {
+        int h = 1;
+        for (T elemento : this)
+            h = 31 * h + elemento.hashCode();
+        return h;
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista.
+     * @return un iterador para recorrer la lista.
+     */
+    @Override public Iterator<T> iterator() {
+        return new Iterador();
+    }
+
+    /* Lanza una excepción si el índice es inválido. */
+    private void revisaIndice(int i) {
+        if (i < 0 || i >= getLongitud())
+            throw new ExcepcionIndiceInvalido("Índice inválido: " + i);
+    }
+
+    /* Regresa la altura de un subárbol. */
+    private static <T> int altura(Nodo<T> nodo) {
+        return nodo == null ? 0 : nodo.altura;
+    }
+
+    /* Regresa el tamaño de un subárbol. */
+    private static <T> int tamano(Nodo<T> nodo) {
+        return nodo == null ? 0 : nodo.tamano;
+    }
+
+    /* Construye un árbol balanceado con los elementos del arreglo en el
+     * intervalo [a, b). */
+    private static <T> Nodo<T> construye(Object[] arreglo, int a, int b) {
+        if (a >= b)
+            return null;
+        int m = (a + b) >>> 1;
+        @SuppressWarnings("unchecked") T elemento = (T)arreglo[m];
+        return new Nodo<T>(construye(arreglo, a, m), elemento,
+                           construye(arreglo, m + 1, b));
+    }
+
+    /* Construye un nodo con los subárboles recibidos, cuyas alturas difieren
+     * a lo más por dos, y lo balancea. */
+    private static <T> Nodo<T> balancea(Nodo<T> i, T elemento, Nodo<T> d) {
+        int hi = altura(i), hd = altura(d);
+        if (hi > hd + 1) {
+            if (altura(i.izquierdo) >= altura(i.derecho))
+                return new Nodo<T>(i.izquierdo, i.elemento,
+                                   new Nodo<T>(i.derecho, elemento, d));
+            return new Nodo<T>(new Nodo<T>(i.izquierdo, i.elemento,
+                                           i.derecho.izquierdo),
+                               i.derecho.elemento,
+                               new Nodo<T>(i.derecho.derecho, elemento, d));
+        }
+        if (hd > hi + 1) {
+            if (altura(d.derecho) >= altura(d.izquierdo))
+                return new Nodo<T>(new Nodo<T>(i, elemento, d.izquierdo),
+                                   d.elemento, d.derecho);
+            return new Nodo<T>(new Nodo<T>(i, elemento, d.izquierdo.izquierdo),
+                               d.izquierdo.elemento,
+                               new Nodo<T>(d.izquierdo.derecho, d.elemento,
+                                           d.derecho));
+        }
+        return new Nodo<T>(i, elemento, d);
+    }
+
+    /* Regresa el árbol con el elemento insertado en el índice. */
+    private static <T> Nodo<T> inserta(Nodo<T> nodo, int i, T elemento) {
+        if (nodo == null)
+            return new Nodo<T>(null, elemento, null);
+        int t = tamano(nodo.izquierdo);
+        if (i <= t)
+            return balancea(inserta(nodo.izquierdo, i, elemento),
+                            nodo.elemento, nodo.derecho);
+        return balancea(nodo.izquierdo, nodo.elemento,
+                        inserta(nodo.derecho, i - t - 1, elemento));
+    }
+
+    /* Regresa el árbol sin el elemento en el índice. */
+    private static <T> Nodo<T> elimina(Nodo<T> nodo, int i) {
+        int t = tamano(nodo.izquierdo);
+        if (i < t)
+            return balancea(elimina(nodo.izquierdo, i), nodo.elemento,
+                            nodo.derecho);
+        if (i > t)
+            return balancea(nodo.izquierdo, nodo.elemento,
+                            elimina(nodo.derecho, i - t - 1));
+        if (nodo.izquierdo == null)
+            return nodo.derecho;
+        if (nodo.derecho == null)
+            return nodo.izquierdo;
+        Nodo<T> minimo = nodo.derecho;
+        while (minimo.izquierdo != null)
+            minimo = minimo.izquierdo;
+        return balancea(nodo.izquierdo, minimo.elemento,
+                        elimina(nodo.derecho, 0));
+    }
+
+    /* Regresa el árbol con el elemento en el índice reemplazado. */
+    private static <T> Nodo<T> set(Nodo<T> nodo, int i, T elemento) {
+        int t = tamano(nodo.izquierdo);
+        if (i < t)
+            return new Nodo<T>(set(nodo.izquierdo, i, elemento),
+                               nodo.elemento, nodo.derecho);
+        if (i > t)
+            return new Nodo<T>(nodo.izquierdo, nodo.elemento,
+                               set(nodo.derecho, i - t - 1, elemento));
+        return new Nodo<T>(nodo.izquierdo, elemento, nodo.derecho);
+    }
+
+    /* Regresa el árbol reflejado. */
+    private static <T> Nodo<T> reversa(Nodo<T> nodo) {
+        if (nodo == null)
+            return null;
+        return new Nodo<T>(reversa(nodo.derecho), nodo.elemento,
+                           reversa(nodo.izquierdo));
+    }
+}
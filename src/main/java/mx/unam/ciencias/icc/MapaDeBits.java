@@ -0,0 +1,512 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para mapas de bits comprimidos de enteros no negativos.</p>
+ *
+ * <p>Los elementos se agrupan por sus 16 bits altos en contenedores; cada
+ * contenedor guarda los 16 bits bajos de sus elementos en un arreglo ordenado
+ * si son pocos (a lo más 4096), o en un mapa de 2<sup>16</sup> bits si son
+ * muchos. Así un conjunto disperso ocupa poco más de dos bytes por elemento y
+ * uno denso a lo más un bit por elemento.</p>
+ *
+ * <p>Las operaciones de conjuntos ({@link #y}, {@link #o}, {@link #menos} y
+ * {@link #complemento}) regresan mapas nuevos y no modifican a los operandos.
+ * Los mapas implementan {@link Iterable}, y los elementos se recorren en orden
+ * ascendente.</p>
+ */
+public class MapaDeBits implements Iterable<Integer> {
+
+    /* Máximo número de elementos de un contenedor arreglo. */
+    private static final int MAXIMO_ARREGLO = 4096;
+    /* Número de palabras de un contenedor mapa. */
+    private static final int PALABRAS = 1 << 10;
+
+    /* Clase interna privada para contenedores. */
+    private static class Contenedor {
+        /* Los 16 bits altos de los elementos del contenedor. */
+        private int llave;
+        /* Los 16 bits bajos ordenados, o null si el contenedor es mapa. */
+        private char[] arreglo;
+        /* Los bits del contenedor, o null si el contenedor es arreglo. */
+        private long[] bits;
+        /* Número de elementos en el contenedor. */
+        private int cardinalidad;
+
+        /* Construye un contenedor arreglo vacío. */
+        private Contenedor(int llave) {
+            this.llave = llave;
+            arreglo = new char[4];
+        }
+
+        /* Construye un contenedor mapa con los bits recibidos. */
+        private Contenedor(int llave, long[] bits) {
+            this.llave = llave;
+            this.bits = bits;
+            for (long palabra : bits)
+                cardinalidad += Long.bitCount(palabra);
+            normaliza();
+        }
+
+        /* Construye un contenedor arreglo con los elementos recibidos. */
+        private Contenedor(int llave, char[] arreglo, int cardinalidad) {
+            this.llave = llave;
+            this.arreglo = arreglo;
+            this.cardinalidad = cardinalidad;
+        }
+
+        /* Nos dice si el contenedor tiene al elemento. */
+        private boolean contiene(char v) {
+            if (bits != null)
+                return (bits[v >>> 6] & (1L << v)) != 0;
+            return Arrays.binarySearch(arreglo, 0, cardinalidad, v) >= 0;
+        }
+
+        /* Agrega un elemento al contenedor. */
+        private void agrega(char v) {
+            if (bits != null) {
+                if ((bits[v >>> 6] & (1L << v)) == 0)
+                    cardinalidad++;
+                bits[v >>> 6] |= 1L << v;
+                return;
+            }
+            int i = Arrays.binarySearch(arreglo, 0, cardinalidad, v);
+            if (i >= 0)
+                return;
+            if (cardinalidad == MAXIMO_ARREGLO) {
+                bits = getBits();
+                arreglo = null;
+                agrega(v);
+                return;
+            }
+            i = -i - 1;
+            if (cardinalidad == arreglo.length)
+                arreglo = Arrays.copyOf(arreglo, 2 * arreglo.length);
+            System.arraycopy(arreglo, i, arreglo, i+1, cardinalidad - i);
+            arreglo[i] = v;
+            cardinalidad++;
+        }
+
+        /* Regresa una copia de los elementos como mapa de bits. */
+        private long[] getBits() {
+            if (bits != null)
+                return bits.clone();
+            long[] b = new long[PALABRAS];
+            for (int i = 0; i < cardinalidad; i++)
+                b[arreglo[i] >>> 6] |= 1L << arreglo[i];
+            return b;
+        }
+
+        /* Convierte el contenedor en arreglo si tiene pocos elementos. */
+        private void normaliza() {
+            if (bits == null || cardinalidad > MAXIMO_ARREGLO)
+                return;
+            arreglo = new char[Math.max(cardinalidad, 1)];
+            int k = 0;
+            for (int w = 0; w < PALABRAS; w++) {
+                long palabra = bits[w];
+                while (palabra != 0) {
+                    int b = Long.numberOfTrailingZeros(palabra);
+                    arreglo[k++] = (char)((w << 6) + b);
+                    palabra &= palabra - 1;
+                }
+            }
+            bits = null;
+        }
+
+        /* Regresa la intersección de dos contenedores. */
+        private static Contenedor y(Contenedor a, Contenedor b) {
+            if (a.bits != null && b.bits != null) {
+                long[] r = new long[PALABRAS];
+                for (int w = 0; w < PALABRAS; w++)
+                    r[w] = a.bits[w] & b.bits[w];
+                return new Contenedor(a.llave, r);
+            }
+            if (a.bits != null)
+                return y(b, a);
+            char[] r = new char[Math.max(a.cardinalidad, 1)];
+            int k = 0;
+            for (int i = 0; i < a.cardinalidad; i++)
+                if (b.contiene(a.arreglo[i]))
+                    r[k++] = a.arreglo[i];
+            return new Contenedor(a.llave, r, k);
+        }
+
+        /* Regresa la unión de dos contenedores. */
+        private static Contenedor o(Contenedor a, Contenedor b) {
+            if (a.bits == null && b.bits == null &&
+                a.cardinalidad + b.cardinalidad <= MAXIMO_ARREGLO) {
+                char[] r = new char[Math.max(a.cardinalidad +
+                                             b.cardinalidad, 1)];
+                int i = 0, j = 0, k = 0;
+                while (i < a.cardinalidad && j < b.cardinalidad) {
+                    char x = a.arreglo[i], y = b.arreglo[j];
+                    if (x <= y)
+                        i++;
+                    if (y <= x)
+                        j++;
+                    r[k++] = x <= y ? x : y;
+                }
+                while (i < a.cardinalidad)
+                    r[k++] = a.arreglo[i++];
+                while (j < b.cardinalidad)
+                    r[k++] = b.arreglo[j++];
+                return new Contenedor(a.llave, r, k);
+            }
+            long[] r = a.getBits();
+            if (b.bits != null)
+                for (int w = 0; w < PALABRAS; w++)
+                    r[w] |= b.bits[w];
+            else
+                for (int i = 0; i < b.cardinalidad; i++)
+                    r[b.arreglo[i] >>> 6] |= 1L << b.arreglo[i];
+            return new Contenedor(a.llave, r);
+        }
+
+        /* Regresa la diferencia de dos contenedores. */
+        private static Contenedor menos(Contenedor a, Contenedor b) {
+            if (a.bits == null) {
+                char[] r = new char[Math.max(a.cardinalidad, 1)];
+                int k = 0;
+                for (int i = 0; i < a.cardinalidad; i++)
+                    if (!b.contiene(a.arreglo[i]))
+                        r[k++] = a.arreglo[i];
+                return new Contenedor(a.llave, r, k);
+            }
+            long[] r = a.getBits();
+            if (b.bits != null)
+                for (int w = 0; w < PALABRAS; w++)
+                    r[w] &= ~b.bits[w];
+            else
+                for (int i = 0; i < b.cardinalidad; i++)
+                    r[b.arreglo[i] >>> 6] &= ~(1L << b.arreglo[i]);
+            return new Contenedor(a.llave, r);
+        }
+    }
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador implements Iterator<Integer> {
+        /* El índice del contenedor actual. */
+        private int c;
+        /* El índice del siguiente elemento en un contenedor arreglo. */
+        private int i;
+        /* La palabra actual en un contenedor mapa. */
+        private int w;
+        /* Los bits restantes de la palabra actual. */
+        private long palabra;
+
+        /* Construye un nuevo iterador. */
+        private Iterador() {
+            inicializa();
+        }
+
+        /* Prepara el recorrido del contenedor actual. */
+        private void inicializa() {
+            i = w = 0;
+            if (c < numContenedores && contenedores[c].bits != null)
+                palabra = contenedores[c].bits[0];
+        }
+
+        /* Nos dice si hay un elemento siguiente. */
+        @Override public boolean hasNext() {
+            while (c < numContenedores) {
+                Contenedor contenedor = contenedores[c];
+                if (contenedor.bits == null) {
+                    if (i < contenedor.cardinalidad)
+                        return true;
+                } else {
+                    while (palabra == 0 && ++w < PALABRAS)
+                        palabra = contenedor.bits[w];
+                    if (palabra != 0)
+                        return true;
+                }
+                c++;
+                inicializa();
+            }
+            return false;
+        }
+
+        /* Nos da el elemento siguiente. */
+        @Override public Integer next() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente.");
+            Contenedor contenedor = contenedores[c];
+            int alto = contenedor.llave << 16;
+            if (contenedor.bits == null)
+                return alto | contenedor.arreglo[i++];
+            int b = Long.numberOfTrailingZeros(palabra);
+            palabra &= palabra - 1;
+            return alto | ((w << 6) + b);
+        }
+    }
+
+    /* Los contenedores, ordenados por llave. */
+    private Contenedor[] contenedores;
+    /* Número de contenedores. */
+    private int numContenedores;
+
+    /**
+     * Construye un mapa de bits vacío.
+     */
+    public MapaDeBits() {
+        contenedores = new Contenedor[4];
+    }
+
+    /**
+     * Construye un mapa de bits a partir de una máscara. El entero
+     * <em>i</em> está en el mapa si y sólo si el bit <code>i % 64</code> de
+     * la palabra <code>i / 64</code> de la máscara está prendido.
+     * @param mascara la máscara de bits.
+     */
+    public MapaDeBits(long[] mascara) {
+        this();
+        for (int inicio = 0; inicio < mascara.length; inicio += PALABRAS) {
+            long[] bits = new long[PALABRAS];
+            int n = Math.min(PALABRAS, mascara.length - inicio);
+            System.arraycopy(mascara, inicio, bits, 0, n);
+            Contenedor contenedor = new Contenedor(inicio / PALABRAS, bits);
+            if (contenedor.cardinalidad > 0)
+                agregaContenedor(contenedor);
+        }
+    }
+
+    /**
+     * Regresa un mapa de bits con todos los enteros del intervalo
+     * [0, <em>n</em>).
+     * @param n el límite superior (exclusivo) del intervalo.
+     * @return un mapa de bits con los enteros del intervalo [0, <em>n</em>).
+     * @throws IllegalArgumentException si <em>n</em> es negativo.
+     */
+    public static MapaDeBits rango(int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("Intervalo inválido: " + n);
+        long[] mascara = new long[(n + 63) >>> 6];
+        Arrays.fill(mascara, -1L);
+        if ((n & 63) != 0)
+            mascara[mascara.length - 1] = (1L << n) - 1;
+        return new MapaDeBits(mascara);
+    }
+
+    /**
+     * Agrega un entero al mapa de bits. Si el entero ya estaba en el mapa, el
+     * mapa no cambia.
+     * @param elemento el entero a agregar.
+     * @throws IllegalArgumentException si <code>elemento</code> es negativo.
+     */
+    public void agrega(int elemento) {
+        if (elemento < 0)
+            throw new IllegalArgumentException("Elemento negativo.");
+        int llave = elemento >>> 16;
+        int i = busca(llave);
+        if (i < 0) {
+            i = -i - 1;
+            if (numContenedores == contenedores.length)
+                contenedores = Arrays.copyOf(contenedores,
+                                             2 * contenedores.length);
+            System.arraycopy(contenedores, i, contenedores, i+1,
+                             numContenedores - i);
+            contenedores[i] = new Contenedor(llave);
+            numContenedores++;
+        }
+        contenedores[i].agrega((char)elemento);
+    }
+
+    /**
+     * Nos dice si un entero está en el mapa de bits.
+     * @param elemento el entero que queremos saber si está en el mapa.
+     * @return <code>true</code> si el entero está en el mapa,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int elemento) {
+        if (elemento < 0)
+            return false;
+        int i = busca(elemento >>> 16);
+        return i >= 0 && contenedores[i].contiene((char)elemento);
+    }
+
+    /**
+     * Regresa el número de enteros en el mapa de bits.
+     * @return el número de enteros en el mapa de bits.
+     */
+    public int getCardinalidad() {
+        int n = 0;
+        for (int i = 0; i < numContenedores; i++)
+            n += contenedores[i].cardinalidad;
+        return n;
+    }
+
+    /**
+     * Nos dice si el mapa de bits es vacío.
+     * @return <code>true</code> si el mapa de bits es vacío,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean esVacio() {
+        return numContenedores == 0;
+    }
+
+    /**
+     * Regresa la intersección del mapa de bits con el recibido.
+     * @param mapa el otro mapa de bits.
+     * @return un nuevo mapa de bits con los enteros que están en ambos mapas.
+     */
+    public MapaDeBits y(MapaDeBits mapa) {
+        MapaDeBits r = new MapaDeBits();
+        int i = 0, j = 0;
+        while (i < numContenedores && j < mapa.numContenedores) {
+            Contenedor a = contenedores[i], b = mapa.contenedores[j];
+            if (a.llave < b.llave) {
+                i++;
+            } else if (b.llave < a.llave) {
+                j++;
+            } else {
+                r.agregaContenedor(Contenedor.y(a, b));
+                i++;
+                j++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Regresa la unión del mapa de bits con el recibido.
+     * @param mapa el otro mapa de bits.
+     * @return un nuevo mapa de bits con los enteros que están en alguno de los
+     *         dos mapas.
+     */
+    public MapaDeBits o(MapaDeBits mapa) {
+        MapaDeBits r = new MapaDeBits();
+        int i = 0, j = 0;
+        while (i < numContenedores || j < mapa.numContenedores) {
+            Contenedor a = i < numContenedores ? contenedores[i] : null;
+            Contenedor b = j < mapa.numContenedores ?
+                mapa.contenedores[j] : null;
+            if (b == null || (a != null && a.llave < b.llave)) {
+                r.agregaContenedor(Contenedor.o(a, new Contenedor(a.llave)));
+                i++;
+            } else if (a == null || b.llave < a.llave) {
+                r.agregaContenedor(Contenedor.o(b, new Contenedor(b.llave)));
+                j++;
+            } else {
+                r.agregaContenedor(Contenedor.o(a, b));
+                i++;
+                j++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Regresa la diferencia del mapa de bits con el recibido.
+     * @param mapa el otro mapa de bits.
+     * @return un nuevo mapa de bits con los enteros que están en este mapa
+     *         pero no en el recibido.
+     */
+    public MapaDeBits menos(MapaDeBits mapa) {
+        MapaDeBits r = new MapaDeBits();
+        int j = 0;
+        for (int i = 0; i < numContenedores; i++) {
+            Contenedor a = contenedores[i];
+            while (j < mapa.numContenedores &&
+                   mapa.contenedores[j].llave < a.llave)
+                j++;
+            Contenedor b = j < mapa.numContenedores &&
+                mapa.contenedores[j].llave == a.llave ?
+                mapa.contenedores[j] : new Contenedor(a.llave);
+            r.agregaContenedor(Contenedor.menos(a, b));
+        }
+        return r;
+    }
+
+    /**
+     * Regresa el complemento del mapa de bits en el intervalo
+     * [0, <em>n</em>).
+     * @param n el límite superior (exclusivo) del intervalo.
+     * @return un nuevo mapa de bits con los enteros del intervalo
+     *         [0, <em>n</em>) que no están en este mapa.
+     * @throws IllegalArgumentException si <em>n</em> es negativo.
+     */
+    public MapaDeBits complemento(int n) {
+        return rango(n).menos(this);
+    }
+
+    /**
+     * Regresa un iterador para recorrer los enteros del mapa de bits en orden
+     * ascendente.
+     * @return un iterador para recorrer el mapa de bits.
+     */
+    @Override public Iterator<Integer> iterator() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa una representación en cadena del mapa de bits.
+     * @return una representación en cadena del mapa de bits.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Integer e : this) {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(e);
+        }
+        return sb.append("}").toString();
+    }
+
+    /**
+     * Nos dice si el mapa de bits es igual al objeto recibido.
+     * @param objeto el objeto con el que hay que comparar.
+     * @return <code>true</code> si el objeto recibido es un mapa de bits con
+     *         los mismos enteros, <code>false</code> en otro caso.
+     */
+    @Override public boolean equals(Object objeto) {
+        if (objeto == null || getClass() != objeto.getClass())
+            return false;
+        MapaDeBits mapa = (MapaDeBits)objeto;
+        if (getCardinalidad() != mapa.getCardinalidad())
+            return false;
+        Iterator<Integer> i = iterator(), j = mapa.iterator();
+        while (i.hasNext())
+            if (!i.next().equals(j.next()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un código de dispersión para el mapa de bits.
+     * @return un código de dispersión para el mapa de bits.
+     */
+    @Override public int hashCode() {
+        int h = 1;
+        for (Integer e : this)
+            h = 31 * h + e;
+        return h;
+    }
+
+    /* Agrega un contenedor al final, si no es vacío. */
+    private void agregaContenedor(Contenedor contenedor) {
+        if (contenedor.cardinalidad == 0)
+            return;
+        contenedor.normaliza();
+        if (numContenedores == contenedores.length)
+            contenedores = Arrays.copyOf(contenedores, 2 * contenedores.length);
+        contenedores[numContenedores++] = contenedor;
+    }
+
+    /* Busca binariamente el contenedor con la llave. */
+    private int busca(int llave) {
+        int a = 0, b = numContenedores - 1;
+        while (a <= b) {
+            int m = (a + b) >>> 1;
+            if (contenedores[m].llave < llave)
+                a = m + 1;
+            else if (contenedores[m].llave > llave)
+                b = m - 1;
+            else
+                return m;
+        }
+        return -(a + 1);
+    }
+}
@@ -0,0 +1,187 @@
+package mx.unam.ciencias.icc;
+
+import java.util.Arrays;
+
+/**
+ * <p>Clase para registros versionados, de los que pueden obtenerse
+ * instantáneas en tiempo constante.</p>
+ *
+ * <p>Los registros se guardan en segmentos de {@link #TAMANO} ranuras, y
+ * cada uno se identifica con el ordinal que le da la base de datos. Obtener
+ * una instantánea no copia nada: la instantánea se queda con los arreglos
+ * actuales, y a partir de ese momento se consideran compartidos. Antes de
+ * escribir en un arreglo compartido se copia, así que cada escritura copia a
+ * lo más un segmento y el arreglo de segmentos, y sólo la primera vez
+ * después de cada instantánea. Un arreglo compartido nunca vuelve a
+ * escribirse, así que las instantáneas pueden leerse desde otros hilos sin
+ * sincronización.</p>
+ *
+ * <p>Los registros que se guardan son copias que nadie más modifica: la
+ * base de datos pasa una copia nueva en cada escritura, en lugar de modificar
+ * la que ya está aquí.</p>
+ *
+ * <p>Eliminar un registro deja un hueco en su ranura; cuando los huecos son
+ * más que los registros, se pasan los registros a arreglos nuevos sin
+ * huecos.</p>
+ *
+ * @param <R> El tipo de los registros.
+ */
+class VersionesRegistros<R> {
+
+    /** El número de ranuras en un segmento. */
+    static final int TAMANO = 64;
+
+    /* Los segmentos; las ranuras eliminadas son null. */
+    private Object[][] segmentos;
+    /* El número de registros en cada segmento. */
+    private int[] cuentas;
+    /* La época en que se copió cada segmento. */
+    private int[] epocas;
+    /* El ordinal de cada ranura ocupada alguna vez, en orden creciente. */
+    private int[] ordinales;
+    /* El número de segmentos. */
+    private int numSegmentos;
+    /* El número de ranuras ocupadas alguna vez, incluyendo los huecos. */
+    private int ranuras;
+    /* El número de registros. */
+    private int longitud;
+    /* La época actual; los segmentos de épocas anteriores son compartidos. */
+    private int epoca;
+    /* Si los arreglos de segmentos y cuentas son compartidos. */
+    private boolean compartidos;
+    /* La versión. */
+    private long version;
+
+    /* Construye registros versionados vacíos. */
+    VersionesRegistros() {
+        limpia();
+        version = 0;
+    }
+
+    /* Regresa una instantánea de los registros. */
+    Instantanea<R> instantanea() {
+        epoca++;
+        compartidos = true;
+        return new Instantanea<R>(segmentos, cuentas, numSegmentos, longitud,
+                                  version);
+    }
+
+    /* Agrega al final la copia de un registro, con su ordinal, que tiene que
+     * ser mayor que todos los anteriores. */
+    void agrega(int ordinal, R copia) {
+        version++;
+        propios();
+        if (ranuras == numSegmentos * TAMANO) {
+            if (numSegmentos == segmentos.length) {
+                segmentos = Arrays.copyOf(segmentos, 2 * numSegmentos);
+                cuentas = Arrays.copyOf(cuentas, 2 * numSegmentos);
+                epocas = Arrays.copyOf(epocas, 2 * numSegmentos);
+            }
+            segmentos[numSegmentos] = new Object[TAMANO];
+            epocas[numSegmentos++] = epoca;
+        }
+        if (ranuras == ordinales.length)
+            ordinales = Arrays.copyOf(ordinales, 2 * ranuras);
+        ordinales[ranuras] = ordinal;
+        int k = ranuras / TAMANO;
+        propio(k)[ranuras++ % TAMANO] = copia;
+        cuentas[k]++;
+        longitud++;
+    }
+
+    /* Elimina el registro con el ordinal recibido. */
+    void elimina(int ordinal) {
+        int i = ranura(ordinal);
+        if (i < 0)
+            return;
+        version++;
+        propios();
+        int k = i / TAMANO;
+        propio(k)[i % TAMANO] = null;
+        cuentas[k]--;
+        longitud--;
+        if (ranuras - longitud > Math.max(longitud, TAMANO))
+            quitaHuecos();
+    }
+
+    /* Reemplaza el registro con el ordinal recibido por una copia con sus
+     * nuevos valores. */
+    void modifica(int ordinal, R copia) {
+        int i = ranura(ordinal);
+        if (i < 0)
+            return;
+        version++;
+        propios();
+        propio(i / TAMANO)[i % TAMANO] = copia;
+    }
+
+    /* Elimina todos los registros. */
+    void limpia() {
+        version++;
+        segmentos = new Object[4][];
+        cuentas = new int[4];
+        epocas = new int[4];
+        ordinales = new int[TAMANO];
+        numSegmentos = ranuras = longitud = 0;
+        compartidos = false;
+    }
+
+    /* Regresa la ranura del registro con el ordinal recibido, o -1 si no
+     * está. */
+    private int ranura(int ordinal) {
+        int i = Arrays.binarySearch(ordinales, 0, ranuras, ordinal);
+        if (i < 0 || segmentos[i / TAMANO][i % TAMANO] == null)
+            return -1;
+        return i;
+    }
+
+    /* Pasa los registros a arreglos nuevos, sin huecos. Los arreglos viejos
+     * no se tocan, porque pueden ser compartidos. */
+    private void quitaHuecos() {
+        int n = Math.max(4, (longitud + TAMANO - 1) / TAMANO);
+        Object[][] nuevos = new Object[n][];
+        int[] nuevasCuentas = new int[n];
+        int[] nuevasEpocas = new int[n];
+        int[] nuevosOrdinales = new int[Math.max(TAMANO, n * TAMANO)];
+        int m = 0;
+        for (int i = 0; i < ranuras; i++) {
+            Object registro = segmentos[i / TAMANO][i % TAMANO];
+            if (registro == null)
+                continue;
+            int k = m / TAMANO;
+            if (nuevos[k] == null) {
+                nuevos[k] = new Object[TAMANO];
+                nuevasEpocas[k] = epoca;
+            }
+            nuevos[k][m % TAMANO] = registro;
+            nuevasCuentas[k]++;
+            nuevosOrdinales[m++] = ordinales[i];
+        }
+        segmentos = nuevos;
+        cuentas = nuevasCuentas;
+        epocas = nuevasEpocas;
+        ordinales = nuevosOrdinales;
+        numSegmentos = (m + TAMANO - 1) / TAMANO;
+        ranuras = m;
+        compartidos = false;
+    }
+
+    /* Copia los arreglos de segmentos y cuentas si son compartidos. */
+    private void propios() {
+        if (!compartidos)
+            return;
+        segmentos = segmentos.clone();
+        cuentas = cuentas.clone();
+        compartidos = false;
+    }
+
+    /* Regresa el k-ésimo segmento, copiándolo antes si es compartido. Los
+     * arreglos de segmentos y cuentas ya tienen que ser propios. */
+    private Object[] propio(int k) {
+        if (epocas[k] != epoca) {
+            segmentos[k] = segmentos[k].clone();
+            epocas[k] = epoca;
+        }
+        return segmentos[k];
+    }
+}
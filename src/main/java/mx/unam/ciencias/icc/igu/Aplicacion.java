@@ -26,6 +26,20 @@ public class Aplicacion extends Application {
      * @throws Exception si algo sale mal.
      */
     @Override public void start(Stage escenario) throws Exception {
-        // Aquí va su código.
+        ClassLoader cl = getClass().getClassLoader();
+        FXMLLoader cargador =
+            new FXMLLoader(cl.getResource(INTERFAZ_ESTUDIANTES_FXML));
+        BorderPane cristal = (BorderPane)cargador.load();
+        escenario.setTitle("Administrador de Estudiantes");
+
+        ControladorInterfazEstudiantes controlador = cargador.getController();
+        controlador.setEscenario(escenario);
+        escenario.setOnCloseRequest(e -> controlador.salir(e));
+
+        Scene escena = new Scene(cristal);
+        Image icono = new Image(cl.getResourceAsStream(ICONO_CIENCIAS));
+        escenario.getIcons().add(icono);
+        escenario.setScene(escena);
+        escenario.show();
     }
 }
@@ -19,27 +19,55 @@ public class ControladorFormaBuscaEstudiantes
 
     /* Inicializa el estado de la forma. */
     @FXML private void initialize() {
-        // Aquí va su código.
+        entradaValor.setVerificador(v -> verificaValor(v));
+        entradaValor.textProperty().addListener(
+            (o, v, n) -> botonAceptar.setDisable(!entradaValor.esValida()));
     }
 
     /* Revisa el valor después de un cambio. */
     @FXML private void revisaValor(ActionEvent evento) {
-        // Aquí va su código.
+        entradaValor.setTooltip(getTooltip());
+        /* El verificador depende del campo, así que al volver a definirlo se
+         * revisa la entrada con el campo nuevo. */
+        entradaValor.setVerificador(v -> verificaValor(v));
+        botonAceptar.setDisable(!entradaValor.esValida());
     }
 
     /* Manejador para cuando se activa el botón aceptar. */
     @FXML private void aceptar(ActionEvent evento) {
-        // Aquí va su código.
+        aceptado = true;
+        escenario.close();
     }
 
     /* Verifica el valor. */
     private boolean verificaValor(String valor) {
-        // Aquí va su código.
+        switch (opcionesCampo.getValue()) {
+        case NOMBRE:   return verificaNombre(valor);
+        case CUENTA:   return verificaCuenta(valor);
+        case PROMEDIO: return verificaPromedio(valor);
+        case EDAD:     return verificaEdad(valor);
+        default:       return false;
+        }
     }
 
     /* Obtiene la pista. */
     private Tooltip getTooltip() {
-        // Aquí va su código.
+        String m = "";
+        switch (opcionesCampo.getValue()) {
+        case NOMBRE:
+            m = "Buscar por nombre necesita al menos un carácter";
+            break;
+        case CUENTA:
+            m = "Buscar por cuenta necesita un número entero";
+            break;
+        case PROMEDIO:
+            m = "Buscar por promedio necesita un número decimal";
+            break;
+        case EDAD:
+            m = "Buscar por edad necesita un número entero";
+            break;
+        }
+        return new Tooltip(m);
     }
 
     /**
@@ -47,7 +75,13 @@ public class ControladorFormaBuscaEstudiantes
      * @return el valor ingresado.
      */
     public Object getValor() {
-        // Aquí va su código.
+        switch (opcionesCampo.getValue()) {
+        case NOMBRE:   return nombre;
+        case CUENTA:   return cuenta;
+        case PROMEDIO: return promedio;
+        case EDAD:     return edad;
+        default:       return null;
+        }
     }
 
     /**
@@ -55,13 +89,13 @@ public class ControladorFormaBuscaEstudiantes
      * @return el campo seleccionado.
      */
     public CampoEstudiante getCampo() {
-        // Aquí va su código.
+        return opcionesCampo.getValue();
     }
 
     /**
      * Define el foco incial del diálogo.
      */
     @Override public void defineFoco() {
-        // Aquí va su código.
+        entradaValor.requestFocus();
     }
 }
@@ -25,17 +25,38 @@ public class ControladorFormaEditaEstudiante
 
     /* Inicializa el estado de la forma. */
     @FXML private void initialize() {
-        // Aquí va su código.
+        entradaNombre.setVerificador(n -> verificaNombre(n));
+        entradaCuenta.setVerificador(c -> verificaCuenta(c));
+        entradaPromedio.setVerificador(p -> verificaPromedio(p));
+        entradaEdad.setVerificador(e -> verificaEdad(e));
+
+        entradaNombre.textProperty().addListener(
+            (o, v, n) -> verificaEstudiante());
+        entradaCuenta.textProperty().addListener(
+            (o, v, n) -> verificaEstudiante());
+        entradaPromedio.textProperty().addListener(
+            (o, v, n) -> verificaEstudiante());
+        entradaEdad.textProperty().addListener(
+            (o, v, n) -> verificaEstudiante());
     }
 
     /* Manejador para cuando se activa el botón aceptar. */
     @FXML private void aceptar(ActionEvent evento) {
-        // Aquí va su código.
+        actualizaEstudiante();
+        aceptado = true;
+        escenario.close();
     }
 
     /* Actualiza al estudiante, o lo crea si no existe. */
     private void actualizaEstudiante() {
-        // Aquí va su código.
+        if (estudiante != null) {
+            estudiante.setNombre(nombre);
+            estudiante.setCuenta(cuenta);
+            estudiante.setPromedio(promedio);
+            estudiante.setEdad(edad);
+        } else {
+            estudiante = new Estudiante(nombre, cuenta, promedio, edad);
+        }
     }
 
     /**
@@ -43,7 +64,19 @@ public class ControladorFormaEditaEstudiante
      * @param estudiante el nuevo estudiante del diálogo.
      */
     public void setEstudiante(Estudiante estudiante) {
-        // Aquí va su código.
+        this.estudiante = null;
+        if (estudiante == null)
+            return;
+        /* Editamos una copia, para que la base de datos pueda comparar al
+         * estudiante original con el editado. */
+        this.estudiante = new Estudiante(estudiante.getNombre(),
+                                         estudiante.getCuenta(),
+                                         estudiante.getPromedio(),
+                                         estudiante.getEdad());
+        entradaNombre.setText(estudiante.getNombre());
+        entradaCuenta.setText(String.format("%09d", estudiante.getCuenta()));
+        entradaPromedio.setText(String.valueOf(estudiante.getPromedio()));
+        entradaEdad.setText(String.valueOf(estudiante.getEdad()));
     }
 
     /**
@@ -51,7 +84,7 @@ public class ControladorFormaEditaEstudiante
      * @return el estudiante del diálogo.
      */
     public Estudiante getEstudiante() {
-        // Aquí va su código.
+        return estudiante;
     }
 
     /**
@@ -59,19 +92,23 @@ public class ControladorFormaEditaEstudiante
      * @param verbo el nuevo verbo del botón de aceptar.
      */
     public void setVerbo(String verbo) {
-        // Aquí va su código.
+        botonAceptar.setText(verbo);
     }
 
     /**
      * Define el foco incial del diálogo.
      */
     @Override public void defineFoco() {
-        // Aquí va su código.
+        entradaNombre.requestFocus();
     }
 
     /* Verifica que los cuatro campos sean válidos. */
     private void verificaEstudiante() {
-        // Aquí va su código.
+        boolean n = entradaNombre.esValida();
+        boolean c = entradaCuenta.esValida();
+        boolean p = entradaPromedio.esValida();
+        boolean e = entradaEdad.esValida();
+        botonAceptar.setDisable(!n || !c || !p || !e);
     }
 
     /**
@@ -81,7 +118,8 @@ public class ControladorFormaEditaEstudiante
      *         <code>false</code> en otro caso.
      */
     @Override protected boolean verificaCuenta(String cuenta) {
-        // Aquí va su código.
+        return super.verificaCuenta(cuenta) &&
+            this.cuenta >= 10000000 && this.cuenta <= 999999999;
     }
 
     /**
@@ -91,7 +129,8 @@ public class ControladorFormaEditaEstudiante
      *         otro caso.
      */
     @Override protected boolean verificaPromedio(String promedio) {
-        // Aquí va su código.
+        return super.verificaPromedio(promedio) &&
+            this.promedio >= 0.0 && this.promedio <= 10.0;
     }
 
     /**
@@ -101,6 +140,7 @@ public class ControladorFormaEditaEstudiante
      *         otro caso.
      */
     @Override protected boolean verificaEdad(String edad) {
-        // Aquí va su código.
+        return super.verificaEdad(edad) &&
+            this.edad >= 13 && this.edad <= 99;
     }
 }
@@ -38,7 +38,8 @@ public abstract class ControladorFormaEstudiante {
      * @param evento el evento que generó la acción.
      */
     @FXML protected void cancelar(ActionEvent evento) {
-        // Aquí va su código.
+        aceptado = false;
+        escenario.close();
     }
 
     /**
@@ -46,7 +47,13 @@ public abstract class ControladorFormaEstudiante {
      * @param escenario el nuevo escenario del diálogo.
      */
     public void setEscenario(Stage escenario) {
-        // Aquí va su código.
+        this.escenario = escenario;
+        Scene escena = escenario.getScene();
+        KeyCodeCombination combinacion;
+        combinacion = new KeyCodeCombination(KeyCode.ESCAPE);
+        ObservableMap<KeyCombination, Runnable> accel;
+        accel = escena.getAccelerators();
+        accel.put(combinacion, () -> cancelar(null));
     }
 
     /**
@@ -55,7 +62,7 @@ public abstract class ControladorFormaEstudiante {
      *         <code>false</code> en otro caso.
      */
     public boolean isAceptado() {
-        // Aquí va su código.
+        return aceptado;
     }
 
     /**
@@ -70,7 +77,10 @@ public abstract class ControladorFormaEstudiante {
      *         otro caso.
      */
     protected boolean verificaNombre(String nombre) {
-        // Aquí va su código.
+        if (nombre == null || nombre.isEmpty())
+            return false;
+        this.nombre = nombre;
+        return true;
     }
 
     /**
@@ -80,7 +90,14 @@ public abstract class ControladorFormaEstudiante {
      *         <code>false</code> en otro caso.
      */
     protected boolean verificaCuenta(String cuenta) {
-        // Aquí va su código.
+        if (cuenta == null || cuenta.isEmpty())
+            return false;
+        try {
+            this.cuenta = Integer.parseInt(cuenta);
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -90,7 +107,14 @@ public abstract class ControladorFormaEstudiante {
      *         otro caso.
      */
     protected boolean verificaPromedio(String promedio) {
-        // Aquí va su código.
+        if (promedio == null || promedio.isEmpty())
+            return false;
+        try {
+            this.promedio = Double.parseDouble(promedio);
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -100,6 +124,13 @@ public abstract class ControladorFormaEstudiante {
      *         otro caso.
      */
     protected boolean verificaEdad(String edad) {
-        // Aquí va su código.
+        if (edad == null || edad.isEmpty())
+            return false;
+        try {
+            this.edad = Integer.parseInt(edad);
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+        return true;
     }
 }
@@ -8,6 +8,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Optional;
 import javafx.application.Platform;
 import javafx.collections.ListChangeListener.Change;
@@ -35,6 +37,7 @@ import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import mx.unam.ciencias.icc.BaseDeDatosEstudiantes;
+import mx.unam.ciencias.icc.EscuchaBaseDeDatos;
 import mx.unam.ciencias.icc.Estudiante;
 import mx.unam.ciencias.icc.EventoBaseDeDatos;
 import mx.unam.ciencias.icc.Lista;
@@ -44,6 +47,31 @@ import mx.unam.ciencias.icc.Lista;
  */
 public class ControladorInterfazEstudiantes {
 
+    /* Clase interna privada para el escucha de la base de datos. A diferencia
+     * de una lambda, recibe de una sola vez los registros agregados o
+     * eliminados en bloque. Los escuchas pueden llamarse desde otro hilo (ver
+     * BaseDeDatos.setAsincrona), así que los eventos se manejan en el hilo de
+     * la interfaz con Platform.runLater. */
+    private class Escucha implements EscuchaBaseDeDatos<Estudiante> {
+
+        /* Maneja un evento sobre uno o dos registros. */
+        @Override public void baseDeDatosModificada(EventoBaseDeDatos evento,
+                                                    Estudiante estudiante1,
+                                                    Estudiante estudiante2) {
+            Platform.runLater(
+                () -> eventoBaseDeDatos(evento, estudiante1, estudiante2));
+        }
+
+        /* Maneja un evento sobre varios registros. */
+        @Override public void
+        baseDeDatosModificada(EventoBaseDeDatos evento,
+                              Lista<Estudiante> estudiantes) {
+            /* La lista puede cambiar antes de que se maneje el evento. */
+            Lista<Estudiante> copia = estudiantes.copia();
+            Platform.runLater(() -> eventoBaseDeDatos(evento, copia));
+        }
+    }
+
     /* Opción de menu para guardar. */
     @FXML private MenuItem menuGuardar;
     /* Opción de menu para editar. */
@@ -70,6 +98,8 @@ public class ControladorInterfazEstudiantes {
 
     /* La base de datos. */
     private BaseDeDatosEstudiantes bdd;
+    /* El escucha de la base de datos. */
+    private Escucha escucha;
     /* El archivo. */
     private File archivo;
     /* Si la operación de guardar fue exitosa. */
@@ -77,27 +107,66 @@ public class ControladorInterfazEstudiantes {
 
     /* Inicializa el controlador. */
     @FXML private void initialize() {
-        // Aquí va su código.
+        renglones = tabla.getItems();
+        modeloSeleccion = tabla.getSelectionModel();
+        modeloSeleccion.setSelectionMode(SelectionMode.MULTIPLE);
+        seleccion = modeloSeleccion.getSelectedCells();
+        ListChangeListener<TablePosition> lcl = c -> cambioSeleccion();
+        seleccion.addListener(lcl);
+        cambioSeleccion();
+        setModificada(false);
+        setBaseDeDatos(new BaseDeDatosEstudiantes());
     }
 
     /* Crea una nueva base de datos. */
     @FXML private void nuevaBaseDeDatos(ActionEvent evento) {
-        // Aquí va su código.
+        if (!verificaGuardada("¿Desea guardarla antes de crear una nueva?"))
+            return;
+        bdd.limpia();
+        archivo = null;
+        desmarcaModificada();
     }
 
     /* Carga una base de datos. */
     @FXML private void cargaBaseDeDatos(ActionEvent evento) {
-        // Aquí va su código.
+        if (!verificaGuardada("¿Desea guardarla antes de cargar otra?"))
+            return;
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Cargar base de datos");
+        fc.getExtensionFilters().addAll(
+            new ExtensionFilter("Bases de datos", "*.bd"),
+            new ExtensionFilter("Todos los archivos", "*.*"));
+        File archivo = fc.showOpenDialog(escenario);
+        if (archivo == null)
+            return;
+        cargaBaseDeDatosDeArchivo(archivo);
     }
 
     /* Guarda la base de datos. */
     @FXML private void guardaBaseDeDatos(ActionEvent evento) {
-        // Aquí va su código.
+        if (archivo == null)
+            guardaBaseDeDatosComo(evento);
+        else
+            guardaBaseDeDatosEnArchivo();
     }
 
     /* Guarda la base de datos con un nombre distinto. */
     @FXML private void guardaBaseDeDatosComo(ActionEvent evento) {
-        // Aquí va su código.
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Guardar base de datos");
+        fc.getExtensionFilters().addAll(
+            new ExtensionFilter("Bases de datos", "*.bd"),
+            new ExtensionFilter("Todos los archivos", "*.*"));
+        File nuevo = fc.showSaveDialog(escenario);
+        if (nuevo == null) {
+            guardadoExitoso = false;
+            return;
+        }
+        File anterior = archivo;
+        archivo = nuevo;
+        guardaBaseDeDatosEnArchivo();
+        if (!guardadoExitoso)
+            archivo = anterior;
     }
 
     /**
@@ -105,32 +174,104 @@ public class ControladorInterfazEstudiantes {
      * @param evento el evento que generó la acción.
      */
     @FXML public void salir(Event evento) {
-        // Aquí va su código.
+        if (!verificaGuardada("¿Desea guardarla antes de salir?")) {
+            evento.consume();
+            return;
+        }
+        Platform.exit();
     }
 
     /* Agrega un nuevo estudiante. */
     @FXML private void agregaEstudiante(ActionEvent evento) {
-        // Aquí va su código.
+        DialogoEditaEstudiante dialogo;
+        try {
+            dialogo = new DialogoEditaEstudiante(escenario, null);
+        } catch (IOException ioe) {
+            dialogoError("Error al agregar estudiante",
+                         "No se pudo cargar el diálogo.");
+            return;
+        }
+        dialogo.showAndWait();
+        tabla.requestFocus();
+        if (!dialogo.isAceptado())
+            return;
+        bdd.agregaRegistro(dialogo.getEstudiante());
     }
 
     /* Edita un estudiante. */
     @FXML private void editaEstudiante(ActionEvent evento) {
-        // Aquí va su código.
+        if (modeloSeleccion.getSelectedItems().size() != 1)
+            return;
+        Estudiante estudiante = modeloSeleccion.getSelectedItem();
+        DialogoEditaEstudiante dialogo;
+        try {
+            dialogo = new DialogoEditaEstudiante(escenario, estudiante);
+        } catch (IOException ioe) {
+            dialogoError("Error al editar estudiante",
+                         "No se pudo cargar el diálogo.");
+            return;
+        }
+        dialogo.showAndWait();
+        tabla.requestFocus();
+        if (!dialogo.isAceptado())
+            return;
+        bdd.modificaRegistro(estudiante, dialogo.getEstudiante());
     }
 
     /* Elimina uno o varios estudiantes. */
     @FXML private void eliminaEstudiantes(ActionEvent evento) {
-        // Aquí va su código.
+        int s = modeloSeleccion.getSelectedItems().size();
+        if (s == 0)
+            return;
+        String titulo = "Eliminar estudiante";
+        String mensaje = "Esto eliminará al estudiante seleccionado.";
+        if (s > 1) {
+            titulo = "Eliminar estudiantes";
+            mensaje = "Esto eliminará a los estudiantes seleccionados.";
+        }
+        if (!dialogoDeConfirmacion(titulo, mensaje, "¿Está seguro?",
+                                   "Eliminar", "Cancelar"))
+            return;
+        Lista<Estudiante> estudiantes = new Lista<Estudiante>();
+        for (Estudiante estudiante : modeloSeleccion.getSelectedItems())
+            estudiantes.agregaFinal(estudiante);
+        modeloSeleccion.clearSelection();
+        bdd.eliminaRegistros(estudiantes);
     }
 
     /* Busca estudiantes. */
     @FXML private void buscaEstudiantes(ActionEvent evento) {
-        // Aquí va su código.
+        DialogoBuscaEstudiantes dialogo;
+        try {
+            dialogo = new DialogoBuscaEstudiantes(escenario);
+        } catch (IOException ioe) {
+            dialogoError("Error al buscar estudiantes",
+                         "No se pudo cargar el diálogo.");
+            return;
+        }
+        dialogo.showAndWait();
+        tabla.requestFocus();
+        if (!dialogo.isAceptado())
+            return;
+        Lista<Estudiante> resultados =
+            bdd.buscaRegistros(dialogo.getCampo(), dialogo.getValor());
+        modeloSeleccion.clearSelection();
+        for (Estudiante estudiante : resultados)
+            modeloSeleccion.select(estudiante);
     }
 
     /* Muestra un diálogo con información del programa. */
     @FXML private void acercaDe(ActionEvent evento) {
-        // Aquí va su código.
+        Alert dialogo = new Alert(AlertType.INFORMATION);
+        dialogo.initOwner(escenario);
+        dialogo.initModality(Modality.WINDOW_MODAL);
+        dialogo.setTitle("Acerca de Administrador de Estudiantes.");
+        dialogo.setHeaderText(null);
+        dialogo.setContentText("Aplicación para administrar estudiantes.\n"  +
+                               "El software es libre; se distribuye bajo " +
+                               "los términos de la GPL.");
+        dialogo.showAndWait();
+        tabla.requestFocus();
     }
 
     /**
@@ -138,57 +279,198 @@ public class ControladorInterfazEstudiantes {
      * @param escenario el escenario.
      */
     public void setEscenario(Stage escenario) {
-        // Aquí va su código.
+        this.escenario = escenario;
+        setModificada(false);
     }
 
     /* Carga la base de datos de un archivo. */
     private void cargaBaseDeDatosDeArchivo(File archivo) {
-        // Aquí va su código.
+        try {
+            BufferedReader in =
+                new BufferedReader(
+                    new InputStreamReader(
+                        new FileInputStream(archivo)));
+            bdd.carga(in);
+            in.close();
+        } catch (IOException ioe) {
+            String mensaje =
+                String.format("Ocurrió un error al tratar de " +
+                              "cargar la base de datos en '%s'.",
+                              archivo.getName());
+            dialogoError("Error al cargar base de datos", mensaje);
+            return;
+        }
+        this.archivo = archivo;
+        desmarcaModificada();
     }
 
     /* Guarda la base de datos en un archivo. */
     private void guardaBaseDeDatosEnArchivo() {
-        // Aquí va su código.
+        try {
+            BufferedWriter out =
+                new BufferedWriter(
+                    new OutputStreamWriter(
+                        new FileOutputStream(archivo)));
+            bdd.guarda(out);
+            out.close();
+        } catch (IOException ioe) {
+            String mensaje =
+                String.format("Ocurrió un error al tratar de " +
+                              "guardar la base de datos en '%s'.",
+                              archivo.getName());
+            dialogoError("Error al guardar base de datos", mensaje);
+            guardadoExitoso = false;
+            return;
+        }
+        setModificada(false);
+        guardadoExitoso = true;
     }
 
     /* Si la base de datos ha sido modificada, muestra un diálogo preguntando al
      * usuario si quiere guardarla. */
     private boolean verificaGuardada(String pregunta) {
-        // Aquí va su código.
+        if (menuGuardar.isDisable())
+            return true;
+        String mensaje = "La base de datos ha sido modificada.";
+        if (!dialogoDeConfirmacion("Base de datos modificada", mensaje,
+                                   pregunta, "Guardar", "Descartar"))
+            return true;
+        guardaBaseDeDatos(null);
+        return guardadoExitoso;
     }
 
     /* Actualiza la interfaz con una nueva base de datos. */
     private void setBaseDeDatos(BaseDeDatosEstudiantes bdd) {
-        // Aquí va su código.
+        if (this.bdd != null)
+            this.bdd.eliminaEscucha(escucha);
+        this.bdd = bdd;
+        ArrayList<Estudiante> lista = new ArrayList<Estudiante>();
+        for (Estudiante estudiante : bdd.getRegistros())
+            lista.add(estudiante);
+        renglones.setAll(lista);
+        escucha = new Escucha();
+        bdd.agregaEscucha(escucha);
     }
 
     /* Actualiza la interfaz para mostrar que el archivo ha sido modificado. */
     private void setModificada(boolean modificado) {
-        // Aquí va su código.
+        menuGuardar.setDisable(!modificado);
+        if (escenario == null)
+            return;
+        String titulo = "Administrador de Estudiantes";
+        if (archivo != null)
+            titulo += " - " + archivo.getName();
+        if (modificado)
+            titulo += " *";
+        escenario.setTitle(titulo);
+    }
+
+    /* Marca la base de datos como no modificada después de manejar los
+     * eventos que ya generó, que se manejan más tarde en el hilo de la
+     * interfaz. */
+    private void desmarcaModificada() {
+        bdd.esperaEscuchas();
+        Platform.runLater(() -> setModificada(false));
     }
 
     /* Maneja un evento de cambio en la base de datos. */
     private void eventoBaseDeDatos(EventoBaseDeDatos evento,
                                    Estudiante estudiante1,
                                    Estudiante estudiante2) {
-        // Aquí va su código.
+        switch (evento) {
+        case BASE_LIMPIADA:
+            renglones.clear();
+            break;
+        case REGISTRO_AGREGADO:
+            renglones.add(estudiante1);
+            break;
+        case REGISTRO_ELIMINADO:
+            /* Por identidad, como en el evento de varios registros. */
+            for (int i = 0; i < renglones.size(); i++) {
+                if (renglones.get(i) == estudiante1) {
+                    renglones.remove(i);
+                    break;
+                }
+            }
+            break;
+        case REGISTRO_MODIFICADO:
+            tabla.sort();
+            break;
+        }
+        setModificada(true);
+    }
+
+    /* Maneja un evento de cambio en la base de datos que afecta a varios
+     * registros, con una sola actualización de los renglones de la tabla. */
+    private void eventoBaseDeDatos(EventoBaseDeDatos evento,
+                                   Lista<Estudiante> estudiantes) {
+        ArrayList<Estudiante> lista = new ArrayList<Estudiante>();
+        if (evento == EventoBaseDeDatos.REGISTROS_AGREGADOS) {
+            for (Estudiante estudiante : estudiantes)
+                lista.add(estudiante);
+            renglones.addAll(lista);
+            setModificada(true);
+            return;
+        }
+        /* Quitamos los renglones por identidad, una vez por cada vez que el
+         * estudiante fue eliminado; removeAll usa equals, y quitaría también
+         * a los estudiantes iguales que siguen en la base de datos. */
+        IdentityHashMap<Estudiante, Integer> eliminados =
+            new IdentityHashMap<Estudiante, Integer>();
+        for (Estudiante estudiante : estudiantes)
+            eliminados.merge(estudiante, 1, Integer::sum);
+        for (Estudiante estudiante : renglones) {
+            Integer n = eliminados.get(estudiante);
+            if (n == null)
+                lista.add(estudiante);
+            else if (n == 1)
+                eliminados.remove(estudiante);
+            else
+                eliminados.put(estudiante, n - 1);
+        }
+        renglones.setAll(lista);
+        setModificada(true);
     }
 
     /* Actualiza la interfaz dependiendo del número de renglones
      * seleccionados. */
     private void cambioSeleccion() {
-        // Aquí va su código.
+        int s = modeloSeleccion.getSelectedItems().size();
+        menuEliminar.setDisable(s == 0);
+        menuEditar.setDisable(s != 1);
+        botonEliminar.setDisable(s == 0);
+        botonEditar.setDisable(s != 1);
     }
 
     /* Crea un diálogo con una pregunta que hay que confirmar. */
     private boolean dialogoDeConfirmacion(String titulo,
                                           String mensaje, String pregunta,
                                           String aceptar, String cancelar) {
-        // Aquí va su código.
+        Alert dialogo = new Alert(AlertType.CONFIRMATION);
+        dialogo.initOwner(escenario);
+        dialogo.initModality(Modality.WINDOW_MODAL);
+        dialogo.setTitle(titulo);
+        dialogo.setHeaderText(mensaje);
+        dialogo.setContentText(pregunta);
+
+        ButtonType si = new ButtonType(aceptar);
+        ButtonType no = new ButtonType(cancelar, ButtonData.CANCEL_CLOSE);
+        dialogo.getButtonTypes().setAll(si, no);
+
+        Optional<ButtonType> resultado = dialogo.showAndWait();
+        tabla.requestFocus();
+        return resultado.isPresent() && resultado.get() == si;
     }
 
     /* Muestra un diálogo de error. */
     private void dialogoError(String titulo, String mensaje) {
-        // Aquí va su código.
+        Alert dialogo = new Alert(AlertType.ERROR);
+        dialogo.initOwner(escenario);
+        dialogo.initModality(Modality.WINDOW_MODAL);
+        dialogo.setTitle(titulo);
+        dialogo.setHeaderText(null);
+        dialogo.setContentText(mensaje);
+        dialogo.showAndWait();
+        tabla.requestFocus();
     }
 }
@@ -26,7 +26,22 @@ public class DialogoBuscaEstudiantes extends Stage {
      * @throws IOException si no se puede cargar el archivo FXML.
      */
     public DialogoBuscaEstudiantes(Stage escenario) throws IOException {
-        // Aquí va su código.
+        ClassLoader cl = getClass().getClassLoader();
+        FXMLLoader cargador =
+            new FXMLLoader(cl.getResource(BUSCA_ESTUDIANTES_FXML));
+        AnchorPane cristal = (AnchorPane)cargador.load();
+
+        setTitle("Buscar estudiantes");
+        initOwner(escenario);
+        initModality(Modality.WINDOW_MODAL);
+        Scene escena = new Scene(cristal);
+        setScene(escena);
+
+        controlador = cargador.getController();
+        controlador.setEscenario(this);
+
+        setOnShown(w -> controlador.defineFoco());
+        setResizable(false);
     }
 
     /**
@@ -35,7 +50,7 @@ public class DialogoBuscaEstudiantes extends Stage {
      *         <code>false</code> en otro caso.
      */
     public boolean isAceptado() {
-        // Aquí va su código.
+        return controlador.isAceptado();
     }
 
     /**
@@ -43,7 +58,7 @@ public class DialogoBuscaEstudiantes extends Stage {
      * @return el campo seleccionado.
      */
     public CampoEstudiante getCampo() {
-        // Aquí va su código.
+        return controlador.getCampo();
     }
 
     /**
@@ -51,6 +66,6 @@ public class DialogoBuscaEstudiantes extends Stage {
      * @return el valor ingresado.
      */
     public Object getValor() {
-        // Aquí va su código.
+        return controlador.getValor();
     }
 }
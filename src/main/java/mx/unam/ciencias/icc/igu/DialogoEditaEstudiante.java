@@ -29,7 +29,27 @@ public class DialogoEditaEstudiante extends Stage {
      */
     public DialogoEditaEstudiante(Stage escenario,
                                   Estudiante estudiante) throws IOException {
-        // Aquí va su código.
+        ClassLoader cl = getClass().getClassLoader();
+        FXMLLoader cargador =
+            new FXMLLoader(cl.getResource(EDITA_ESTUDIANTE_FXML));
+        AnchorPane cristal = (AnchorPane)cargador.load();
+
+        if (estudiante == null)
+            setTitle("Agregar estudiante");
+        else
+            setTitle("Editar estudiante");
+        initOwner(escenario);
+        initModality(Modality.WINDOW_MODAL);
+        Scene escena = new Scene(cristal);
+        setScene(escena);
+
+        controlador = cargador.getController();
+        controlador.setEscenario(this);
+        controlador.setEstudiante(estudiante);
+        controlador.setVerbo(estudiante == null ? "Agregar" : "Actualizar");
+
+        setOnShown(w -> controlador.defineFoco());
+        setResizable(false);
     }
 
     /**
@@ -38,7 +58,7 @@ public class DialogoEditaEstudiante extends Stage {
      *         <code>false</code> en otro caso.
      */
     public boolean isAceptado() {
-        // Aquí va su código.
+        return controlador.isAceptado();
     }
 
     /**
@@ -46,6 +66,6 @@ public class DialogoEditaEstudiante extends Stage {
      * @return el estudiante del diálogo.
      */
     public Estudiante getEstudiante() {
-        // Aquí va su código.
+        return controlador.getEstudiante();
     }
 }
@@ -14,7 +14,8 @@ public class EntradaVerificable extends TextField {
      * Define el estado inicial de una entrada verificable.
      */
     public EntradaVerificable() {
-        // Aquí va su código.
+        verificador = texto -> true;
+        textProperty().addListener((o, v, n) -> actualizaEstilo());
     }
 
     /**
@@ -22,7 +23,8 @@ public class EntradaVerificable extends TextField {
      * @param verificador el nuevo verificador de la entrada.
      */
     public void setVerificador(Verificador verificador) {
-        // Aquí va su código.
+        this.verificador = verificador;
+        actualizaEstilo();
     }
 
     /**
@@ -31,6 +33,12 @@ public class EntradaVerificable extends TextField {
      *         otro caso.
      */
     public boolean esValida() {
-        // Aquí va su código.
+        return verificador.verifica(getText());
+    }
+
+    /* Pinta el fondo de la entrada dependiendo de si es válida. */
+    private void actualizaEstilo() {
+        setStyle(esValida() ? "-fx-background-color:FFFFFF;" :
+                 "-fx-background-color:FFCCCC;");
     }
 }
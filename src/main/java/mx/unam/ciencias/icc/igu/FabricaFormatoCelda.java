@@ -13,7 +13,8 @@ public class FabricaFormatoCelda<S, T>
     /* Clase interna para sobrecargar la definición de texto de la celda. */
     private class Celda extends TableCell<S, T> {
         @Override public void updateItem(T elemento, boolean vacio) {
-            // Aquí va su código.
+            super.updateItem(elemento, vacio);
+            setText(vacio ? null : getTexto(elemento));
         }
     }
 
@@ -25,7 +26,7 @@ public class FabricaFormatoCelda<S, T>
      * @return el formato de la celda.
      */
     public String getFormato() {
-        // Aquí va su código.
+        return formato;
     }
 
     /**
@@ -33,12 +34,15 @@ public class FabricaFormatoCelda<S, T>
      * @param formato el formato de la celda.
      */
     public void setFormato(String formato) {
-        // Aquí va su código.
+        this.formato = formato;
     }
 
     /* Regresa el texto correspondiente al elemento. */
     private String getTexto(T elemento) {
-        // Aquí va su código.
+        if (elemento == null)
+            return "";
+        return formato == null ?
+            elemento.toString() : String.format(formato, elemento);
     }
 
     /**
@@ -47,6 +51,6 @@ public class FabricaFormatoCelda<S, T>
      * @param columna la columa de la celda.
      */
     @Override public TableCell<S, T> call(TableColumn<S, T> columna) {
-        // Aquí va su código.
+        return new Celda();
     }
 }
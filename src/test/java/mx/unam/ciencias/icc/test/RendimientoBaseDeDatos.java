@@ -0,0 +1,79 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import mx.unam.ciencias.icc.BaseDeDatosEstudiantes;
+import mx.unam.ciencias.icc.CampoEstudiante;
+import mx.unam.ciencias.icc.Estudiante;
+
+/**
+ * Clase para medir el rendimiento del acceso concurrente a {@link
+ * mx.unam.ciencias.icc.BaseDeDatos}. No es una prueba unitaria; se ejecuta a
+ * mano:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     mx.unam.ciencias.icc.test.RendimientoBaseDeDatos [registros] [segundos]
+ * </pre>
+ *
+ * Mide las operaciones por segundo con una carga de mayoría de lecturas (95%
+ * búsquedas, 5% modificaciones) y una carga mixta (50% y 50%), con uno y con
+ * tantos hilos como procesadores.
+ */
+public class RendimientoBaseDeDatos {
+
+    /* Mide las operaciones por segundo de la carga con el número de hilos. */
+    private static double mide(BaseDeDatosEstudiantes bdd, int hilos,
+                               int lecturas, double segundos)
+        throws InterruptedException {
+        AtomicLong operaciones = new AtomicLong();
+        long fin = System.nanoTime() + (long)(segundos * 1e9);
+        Thread[] t = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            t[i] = new Thread(() -> {
+                    Random random = new Random();
+                    long n = 0;
+                    while (System.nanoTime() < fin) {
+                        if (random.nextInt(100) < lecturas) {
+                            int cuenta = TestEstudiante.cuentaAleatoria();
+                            bdd.buscaRegistros(CampoEstudiante.CUENTA, cuenta);
+                        } else {
+                            int i1 = random.nextInt(bdd.getNumRegistros());
+                            Estudiante e = bdd.getRegistros().get(i1);
+                            Estudiante f = TestEstudiante.estudianteAleatorio();
+                            bdd.modificaRegistro(e, f);
+                        }
+                        n++;
+                    }
+                    operaciones.addAndGet(n);
+                });
+            t[i].start();
+        }
+        for (Thread h : t)
+            h.join();
+        return operaciones.get() / segundos;
+    }
+
+    /**
+     * Ejecuta las mediciones.
+     * @param args el número de registros y los segundos por medición,
+     *        opcionales.
+     * @throws InterruptedException si el hilo principal es interrumpido.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int registros = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double segundos = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+        BaseDeDatosEstudiantes bdd = new BaseDeDatosEstudiantes();
+        for (int i = 0; i < registros; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        int procesadores = Runtime.getRuntime().availableProcessors();
+        int[] cargas = { 95, 50 };
+        for (int lecturas : cargas) {
+            for (int hilos : new int[] { 1, procesadores }) {
+                double ops = mide(bdd, hilos, lecturas, segundos);
+                System.out.printf("%3d%% lecturas, %2d hilos: %,12.0f op/s%n",
+                                  lecturas, hilos, ops);
+            }
+        }
+    }
+}
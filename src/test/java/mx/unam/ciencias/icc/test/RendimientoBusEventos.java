@@ -0,0 +1,88 @@
+package mx.unam.ciencias.icc.test;
+
+import mx.unam.ciencias.icc.BusEventos;
+import mx.unam.ciencias.icc.BusEventos.EstrategiaEspera;
+import mx.unam.ciencias.icc.EscuchaBaseDeDatos;
+import mx.unam.ciencias.icc.Estudiante;
+import mx.unam.ciencias.icc.EventoBaseDeDatos;
+
+/**
+ * Clase para medir el rendimiento de {@link BusEventos}. No es una prueba
+ * unitaria; se ejecuta a mano:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     mx.unam.ciencias.icc.test.RendimientoBusEventos [eventos]
+ * </pre>
+ *
+ * Compara la entrega directa a dos escuchas en el hilo del productor contra
+ * la entrega por el bus a dos consumidores, con cada estrategia de espera.
+ */
+public class RendimientoBusEventos {
+
+    /* Clase interna privada para escuchas que sólo cuentan eventos. */
+    private static class Contador implements EscuchaBaseDeDatos<Estudiante> {
+        /* Suma de las cuentas de los registros recibidos. */
+        private long suma;
+
+        /* Suma la cuenta del registro. */
+        @Override public void baseDeDatosModificada(EventoBaseDeDatos evento,
+                                                    Estudiante registro1,
+                                                    Estudiante registro2) {
+            suma += registro1.getCuenta();
+        }
+    }
+
+    /* Mide la entrega directa y regresa los eventos por segundo. */
+    private static double directa(Estudiante[] estudiantes, int eventos) {
+        Contador a = new Contador(), b = new Contador();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < eventos; i++) {
+            Estudiante e = estudiantes[i & (estudiantes.length - 1)];
+            a.baseDeDatosModificada(EventoBaseDeDatos.REGISTRO_AGREGADO,
+                                    e, null);
+            b.baseDeDatosModificada(EventoBaseDeDatos.REGISTRO_AGREGADO,
+                                    e, null);
+        }
+        return eventos * 1e9 / (System.nanoTime() - inicio);
+    }
+
+    /* Mide la entrega por el bus y regresa los eventos por segundo. */
+    private static double bus(Estudiante[] estudiantes, int eventos,
+                              EstrategiaEspera estrategia)
+        throws InterruptedException {
+        BusEventos<Estudiante> bus =
+            new BusEventos<Estudiante>(1024, estrategia,
+                                       () -> new Estudiante(null, 0, 0.0, 0));
+        bus.agregaConsumidor(new Contador());
+        bus.agregaConsumidor(new Contador());
+        long inicio = System.nanoTime();
+        for (int i = 0; i < eventos; i++) {
+            Estudiante e = estudiantes[i & (estudiantes.length - 1)];
+            bus.baseDeDatosModificada(EventoBaseDeDatos.REGISTRO_AGREGADO,
+                                      e, null);
+        }
+        bus.termina();
+        return eventos * 1e9 / (System.nanoTime() - inicio);
+    }
+
+    /**
+     * Ejecuta las mediciones.
+     * @param args el número de eventos, opcional.
+     * @throws InterruptedException si el hilo principal es interrumpido.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int eventos = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        Estudiante[] estudiantes = new Estudiante[1024];
+        for (int i = 0; i < estudiantes.length; i++)
+            estudiantes[i] = TestEstudiante.estudianteAleatorio(i);
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.printf("Ronda %d%n", ronda + 1);
+            System.out.printf("  %-10s %,15.0f eventos/s%n", "DIRECTA",
+                              directa(estudiantes, eventos));
+            for (EstrategiaEspera estrategia : EstrategiaEspera.values())
+                System.out.printf("  %-10s %,15.0f eventos/s%n", estrategia,
+                                  bus(estudiantes, eventos, estrategia));
+        }
+    }
+}
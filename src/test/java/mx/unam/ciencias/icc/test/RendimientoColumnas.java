@@ -0,0 +1,135 @@
+package mx.unam.ciencias.icc.test;
+
+import java.lang.management.ManagementFactory;
+import mx.unam.ciencias.icc.BaseDeDatosEstudiantes;
+import mx.unam.ciencias.icc.CampoEstudiante;
+import mx.unam.ciencias.icc.Estudiante;
+import mx.unam.ciencias.icc.Lista;
+import mx.unam.ciencias.icc.MapaDeBits;
+
+/**
+ * Clase para medir el rendimiento de las búsquedas por columnas de {@link
+ * BaseDeDatosEstudiantes}. No es una prueba unitaria; se ejecuta a mano:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     mx.unam.ciencias.icc.test.RendimientoColumnas [registros] [busquedas]
+ * </pre>
+ *
+ * Busca valores aleatorios en cada campo con {@link
+ * BaseDeDatosEstudiantes#buscaRegistros} en dos bases de datos con los
+ * mismos registros, una que los recorre y otra que usa {@link
+ * BaseDeDatosEstudiantes#setColumnas}, y reporta los microsegundos y los
+ * bytes reservados por búsqueda. Después hace lo mismo con una búsqueda por
+ * promedio y edad a la vez, que recorriendo los registros los casa con los
+ * dos valores, y por columnas intersecta los mapas de bits de {@link
+ * BaseDeDatosEstudiantes#conjunto}. Los bytes son los reservados en el hilo
+ * que mide.
+ */
+public class RendimientoColumnas {
+
+    /* Los contadores de memoria reservada por hilo de la máquina virtual. */
+    private static final com.sun.management.ThreadMXBean HILOS =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    /* El formato de cada medición. */
+    private static final String FORMATO =
+        "  %-9s %-13s: %,12.1f us %,15.0f bytes%n";
+
+    /* Regresa un valor aleatorio para buscar en el campo. */
+    private static Object valor(CampoEstudiante campo) {
+        switch (campo) {
+        case NOMBRE:
+            return TestEstudiante.nombreAleatorio().split(" ")[1];
+        case CUENTA:
+            return TestEstudiante.cuentaAleatoria();
+        case PROMEDIO:
+            return TestEstudiante.promedioAleatorio();
+        default:
+            return TestEstudiante.edadAleatoria();
+        }
+    }
+
+    /* Busca los valores en el campo y regresa los microsegundos y los bytes
+     * reservados por búsqueda. */
+    private static double[] busca(BaseDeDatosEstudiantes bdd,
+                                  CampoEstudiante campo, Object[] valores) {
+        long hilo = Thread.currentThread().getId();
+        long bytes = HILOS.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        for (Object valor : valores)
+            bdd.buscaRegistros(campo, valor);
+        long tiempo = System.nanoTime() - inicio;
+        bytes = HILOS.getThreadAllocatedBytes(hilo) - bytes;
+        return new double[] { tiempo / 1e3 / valores.length,
+                              (double)bytes / valores.length };
+    }
+
+    /* Busca los pares de promedio y edad, y regresa los microsegundos y los
+     * bytes reservados por búsqueda. */
+    private static double[] combina(BaseDeDatosEstudiantes bdd,
+                                    Object[] promedios, Object[] edades) {
+        long hilo = Thread.currentThread().getId();
+        long bytes = HILOS.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < promedios.length; i++) {
+            if (bdd.usaColumnas()) {
+                MapaDeBits p = bdd.conjunto(CampoEstudiante.PROMEDIO,
+                                            promedios[i]);
+                MapaDeBits e = bdd.conjunto(CampoEstudiante.EDAD, edades[i]);
+                bdd.registros(p.y(e));
+            } else {
+                Lista<Estudiante> l = new Lista<Estudiante>();
+                for (Estudiante r : bdd.getRegistros())
+                    if (r.casa(CampoEstudiante.PROMEDIO, promedios[i]) &&
+                        r.casa(CampoEstudiante.EDAD, edades[i]))
+                        l.agregaFinal(r);
+            }
+        }
+        long tiempo = System.nanoTime() - inicio;
+        bytes = HILOS.getThreadAllocatedBytes(hilo) - bytes;
+        return new double[] { tiempo / 1e3 / promedios.length,
+                              (double)bytes / promedios.length };
+    }
+
+    /**
+     * Ejecuta las mediciones.
+     * @param args el número de registros y el número de búsquedas por
+     *        medición, opcionales.
+     */
+    public static void main(String[] args) {
+        int registros = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int busquedas = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        BaseDeDatosEstudiantes porRegistros = new BaseDeDatosEstudiantes();
+        BaseDeDatosEstudiantes porColumnas = new BaseDeDatosEstudiantes();
+        for (int i = 0; i < registros; i++) {
+            Estudiante estudiante = TestEstudiante.estudianteAleatorio();
+            porRegistros.agregaRegistro(estudiante);
+            porColumnas.agregaRegistro(estudiante);
+        }
+        porColumnas.setColumnas(true);
+        CampoEstudiante[] campos = CampoEstudiante.values();
+        Object[][] valores = new Object[campos.length][busquedas];
+        for (int i = 0; i < campos.length; i++)
+            for (int j = 0; j < busquedas; j++)
+                valores[i][j] = valor(campos[i]);
+        Object[] promedios = valores[CampoEstudiante.PROMEDIO.ordinal()];
+        Object[] edades = valores[CampoEstudiante.EDAD.ordinal()];
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.printf("Ronda %d%n", ronda + 1);
+            for (int i = 0; i < campos.length; i++) {
+                double[] r = busca(porRegistros, campos[i], valores[i]);
+                System.out.printf(FORMATO, "registros", campos[i].name(),
+                                  r[0], r[1]);
+                double[] c = busca(porColumnas, campos[i], valores[i]);
+                System.out.printf(FORMATO, "columnas", campos[i].name(),
+                                  c[0], c[1]);
+            }
+            double[] r = combina(porRegistros, promedios, edades);
+            System.out.printf(FORMATO, "registros", "PROMEDIO+EDAD",
+                              r[0], r[1]);
+            double[] c = combina(porColumnas, promedios, edades);
+            System.out.printf(FORMATO, "columnas", "PROMEDIO+EDAD",
+                              c[0], c[1]);
+        }
+    }
+}
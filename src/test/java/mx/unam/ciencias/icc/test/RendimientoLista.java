@@ -0,0 +1,104 @@
+package mx.unam.ciencias.icc.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import mx.unam.ciencias.icc.Lista;
+
+/**
+ * Clase para medir el rendimiento de {@link Lista}. No es una prueba
+ * unitaria; se ejecuta a mano:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     mx.unam.ciencias.icc.test.RendimientoLista [operaciones] [cola] \
+ *     [elementos]
+ * </pre>
+ *
+ * Primero mantiene una cola de tamaño fijo con {@link Lista#agregaFinal} y
+ * {@link Lista#eliminaPrimero}, sin nodos libres y con tantos nodos libres
+ * como elementos en la cola, y reporta las operaciones por segundo y los
+ * bytes reservados por operación. Después ordena una lista de enteros
+ * aleatorios con {@link Lista#mergeSort(java.util.Comparator)}, que copia la
+ * lista, y con {@link Lista#ordena(java.util.Comparator)}, que religa sus
+ * nodos, y reporta los milisegundos y los bytes reservados por ordenamiento.
+ * Los bytes son los reservados en el hilo que mide.
+ */
+public class RendimientoLista {
+
+    /* Los contadores de memoria reservada por hilo de la máquina virtual. */
+    private static final com.sun.management.ThreadMXBean HILOS =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    /* Mide la cola y regresa las operaciones por segundo y los bytes
+     * reservados por operación. */
+    private static double[] mide(Integer[] elementos, int operaciones,
+                                 int cola, int libres) {
+        Lista<Integer> lista = new Lista<Integer>();
+        lista.setMaxNodosLibres(libres);
+        for (int i = 0; i < cola; i++)
+            lista.agregaFinal(elementos[i & (elementos.length - 1)]);
+        long hilo = Thread.currentThread().getId();
+        long bytes = HILOS.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < operaciones; i++) {
+            lista.agregaFinal(elementos[i & (elementos.length - 1)]);
+            lista.eliminaPrimero();
+        }
+        long tiempo = System.nanoTime() - inicio;
+        bytes = HILOS.getThreadAllocatedBytes(hilo) - bytes;
+        return new double[] { operaciones * 1e9 / tiempo,
+                              (double)bytes / operaciones };
+    }
+
+    /* Ordena una copia de la lista y regresa los milisegundos y los bytes
+     * reservados por el ordenamiento. */
+    private static double[] ordena(Lista<Integer> lista, boolean religando) {
+        Lista<Integer> copia = lista.copia();
+        long hilo = Thread.currentThread().getId();
+        long bytes = HILOS.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        if (religando)
+            copia.ordena((a, b) -> a.compareTo(b));
+        else
+            copia = copia.mergeSort((a, b) -> a.compareTo(b));
+        long tiempo = System.nanoTime() - inicio;
+        bytes = HILOS.getThreadAllocatedBytes(hilo) - bytes;
+        return new double[] { tiempo / 1e6, bytes };
+    }
+
+    /**
+     * Ejecuta las mediciones.
+     * @param args el número de operaciones, el tamaño de la cola y el número
+     *        de elementos a ordenar, opcionales.
+     */
+    public static void main(String[] args) {
+        int operaciones = args.length > 0 ?
+            Integer.parseInt(args[0]) : 10000000;
+        int cola = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int n = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+        Integer[] elementos = new Integer[1024];
+        for (int i = 0; i < elementos.length; i++)
+            elementos[i] = i;
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.printf("Ronda %d%n", ronda + 1);
+            for (int libres : new int[] { 0, cola }) {
+                double[] r = mide(elementos, operaciones, cola, libres);
+                System.out.printf("  %6d libres: %,15.0f op/s %8.2f bytes/op%n",
+                                  libres, r[0], r[1]);
+            }
+        }
+        Random random = new Random();
+        Lista<Integer> lista = new Lista<Integer>();
+        for (int i = 0; i < n; i++)
+            lista.agregaFinal(random.nextInt());
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.printf("Ordenamiento %d%n", ronda + 1);
+            double[] c = ordena(lista, false);
+            System.out.printf("  mergeSort: %,10.1f ms %,15.0f bytes%n",
+                              c[0], c[1]);
+            double[] o = ordena(lista, true);
+            System.out.printf("  ordena:    %,10.1f ms %,15.0f bytes%n",
+                              o[0], o[1]);
+        }
+    }
+}
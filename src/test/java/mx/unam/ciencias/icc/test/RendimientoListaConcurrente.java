@@ -0,0 +1,120 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import mx.unam.ciencias.icc.Lista;
+import mx.unam.ciencias.icc.ListaConcurrente;
+
+/**
+ * Clase para medir el rendimiento de {@link ListaConcurrente}. No es una
+ * prueba unitaria; se ejecuta a mano:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     mx.unam.ciencias.icc.test.RendimientoListaConcurrente [segundos]
+ * </pre>
+ *
+ * Compara una lista concurrente contra una {@link Lista} protegida por un
+ * candado, usadas como cola entre la mitad de los hilos, que agregan al
+ * final, y la otra mitad, que eliminan al principio; con dos hilos y con
+ * tantos hilos como procesadores.
+ */
+public class RendimientoListaConcurrente {
+
+    /* Interfaz para las colas que se miden. */
+    private interface Cola {
+        /* Agrega un elemento al final. */
+        void agrega(Integer elemento);
+        /* Elimina el primer elemento; regresa si había uno. */
+        boolean elimina();
+    }
+
+    /* Regresa una cola sobre una lista concurrente. */
+    private static Cola concurrente() {
+        ListaConcurrente<Integer> lista = new ListaConcurrente<Integer>();
+        return new Cola() {
+            @Override public void agrega(Integer elemento) {
+                lista.agregaFinal(elemento);
+            }
+            @Override public boolean elimina() {
+                try {
+                    lista.eliminaPrimero();
+                    return true;
+                } catch (NoSuchElementException nsee) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /* Regresa una cola sobre una lista protegida por un candado. */
+    private static Cola conCandado() {
+        Lista<Integer> lista = new Lista<Integer>();
+        ReentrantLock candado = new ReentrantLock();
+        return new Cola() {
+            @Override public void agrega(Integer elemento) {
+                candado.lock();
+                try {
+                    lista.agregaFinal(elemento);
+                } finally {
+                    candado.unlock();
+                }
+            }
+            @Override public boolean elimina() {
+                candado.lock();
+                try {
+                    if (lista.esVacia())
+                        return false;
+                    lista.eliminaPrimero();
+                    return true;
+                } finally {
+                    candado.unlock();
+                }
+            }
+        };
+    }
+
+    /* Mide las operaciones por segundo de la cola con el número de hilos. */
+    private static double mide(Cola cola, int hilos, double segundos)
+        throws InterruptedException {
+        AtomicLong operaciones = new AtomicLong();
+        long fin = System.nanoTime() + (long)(segundos * 1e9);
+        Integer elemento = 42;
+        Thread[] t = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            boolean productor = i % 2 == 0;
+            t[i] = new Thread(() -> {
+                    long n = 0;
+                    while (System.nanoTime() < fin) {
+                        if (productor)
+                            cola.agrega(elemento);
+                        else if (!cola.elimina())
+                            continue;
+                        n++;
+                    }
+                    operaciones.addAndGet(n);
+                });
+            t[i].start();
+        }
+        for (Thread h : t)
+            h.join();
+        return operaciones.get() / segundos;
+    }
+
+    /**
+     * Ejecuta las mediciones.
+     * @param args los segundos por medición, opcional.
+     * @throws InterruptedException si el hilo principal es interrumpido.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        double segundos = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        int procesadores = Runtime.getRuntime().availableProcessors();
+        for (int hilos : new int[] { 2, Math.max(2, procesadores) }) {
+            System.out.printf("%2d hilos, concurrente: %,12.0f op/s%n", hilos,
+                              mide(concurrente(), hilos, segundos));
+            System.out.printf("%2d hilos, con candado: %,12.0f op/s%n", hilos,
+                              mide(conCandado(), hilos, segundos));
+        }
+    }
+}
@@ -5,14 +5,19 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import mx.unam.ciencias.icc.BaseDeDatos;
 import mx.unam.ciencias.icc.BaseDeDatosEstudiantes;
 import mx.unam.ciencias.icc.CampoEstudiante;
 import mx.unam.ciencias.icc.Estudiante;
 import mx.unam.ciencias.icc.EscuchaBaseDeDatos;
 import mx.unam.ciencias.icc.EventoBaseDeDatos;
+import mx.unam.ciencias.icc.Instantanea;
 import mx.unam.ciencias.icc.Lista;
+import mx.unam.ciencias.icc.MapaDeBits;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -43,6 +48,44 @@ public class TestBaseDeDatosEstudiantes {
         total = 2 + random.nextInt(100);
     }
 
+    /* Verifica que los eventos registrados por un escucha sean n, todos del
+     * tipo recibido. */
+    private static void verificaEventos(Lista<EventoBaseDeDatos> eventos,
+                                        EventoBaseDeDatos evento, int n) {
+        synchronized (eventos) {
+            Assert.assertTrue(eventos.getLongitud() == n);
+            for (EventoBaseDeDatos e : eventos)
+                Assert.assertTrue(e == evento);
+        }
+    }
+
+    /* Verifica que las columnas de la base de datos tengan a sus registros,
+     * en orden, y que las búsquedas por columnas casen lo mismo que los
+     * registros. */
+    private static void verificaColumnas(BaseDeDatosEstudiantes bdd) {
+        Lista<Estudiante> registros = bdd.getRegistros();
+        MapaDeBits ordinales = bdd.getOrdinales();
+        Assert.assertTrue(ordinales.getCardinalidad() ==
+                          registros.getLongitud());
+        Iterator<Estudiante> iterador = bdd.registros(ordinales).iterator();
+        for (Estudiante r : registros)
+            Assert.assertTrue(iterador.next() == r);
+        Assert.assertFalse(iterador.hasNext());
+        if (registros.esVacia())
+            return;
+        Estudiante e = registros.get(registros.getLongitud() / 2);
+        Object[] valores = { e.getNombre(), e.getCuenta(), e.getPromedio(),
+                             e.getEdad() };
+        for (CampoEstudiante campo : CampoEstudiante.values()) {
+            Object valor = valores[campo.ordinal()];
+            iterador = bdd.registros(bdd.conjunto(campo, valor)).iterator();
+            for (Estudiante r : registros)
+                if (r.casa(campo, valor))
+                    Assert.assertTrue(iterador.next() == r);
+            Assert.assertFalse(iterador.hasNext());
+        }
+    }
+
     /**
      * Prueba unitaria para {@link
      * BaseDeDatosEstudiantes#BaseDeDatosEstudiantes}.
@@ -150,6 +193,204 @@ public class TestBaseDeDatosEstudiantes {
             });
         bdd.eliminaRegistro(estudiante);
         Assert.assertTrue(llamado[0]);
+        Estudiante igual = new Estudiante("A", 1, 1, 1);
+        bdd = new BaseDeDatosEstudiantes();
+        bdd.agregaRegistro(igual);
+        bdd.agregaEscucha((e, r1, r2) -> {
+                Assert.assertTrue(r1 == igual);
+                llamado[0] = true;
+            });
+        llamado[0] = false;
+        bdd.eliminaRegistro(estudiante);
+        Assert.assertTrue(llamado[0]);
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatos#agregaRegistros}.
+     */
+    @Test public void testAgregaRegistros() {
+        Lista<Estudiante> estudiantes = new Lista<Estudiante>();
+        for (int i = 0; i < total; i++)
+            estudiantes.agregaFinal(TestEstudiante.estudianteAleatorio(i));
+        int[] individuales = { 0 };
+        int[] bloques = { 0 };
+        bdd.agregaEscucha(new EscuchaBaseDeDatos<Estudiante>() {
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Estudiante r1, Estudiante r2) {
+                    individuales[0]++;
+                }
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Lista<Estudiante> registros) {
+                    Assert.assertTrue(
+                        e == EventoBaseDeDatos.REGISTROS_AGREGADOS);
+                    Assert.assertTrue(registros.equals(estudiantes));
+                    bloques[0]++;
+                }
+            });
+        int[] contador = { 0 };
+        bdd.agregaEscucha((e, r1, r2) -> {
+                Assert.assertTrue(e == EventoBaseDeDatos.REGISTRO_AGREGADO);
+                Assert.assertTrue(r1.equals(estudiantes.get(contador[0]++)));
+                Assert.assertTrue(r2 == null);
+            });
+        bdd.agregaRegistros(estudiantes);
+        Assert.assertTrue(bdd.getRegistros().equals(estudiantes));
+        Assert.assertTrue(individuales[0] == 0);
+        Assert.assertTrue(bloques[0] == 1);
+        Assert.assertTrue(contador[0] == total);
+        bdd.agregaRegistros(new Lista<Estudiante>());
+        Assert.assertTrue(bdd.getNumRegistros() == total);
+        Assert.assertTrue(bloques[0] == 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatos#eliminaRegistros}.
+     */
+    @Test public void testEliminaRegistros() {
+        Lista<Estudiante> eliminados = new Lista<Estudiante>();
+        Lista<Estudiante> restantes = new Lista<Estudiante>();
+        for (int i = 0; i < total; i++) {
+            Estudiante e = TestEstudiante.estudianteAleatorio(i);
+            bdd.agregaRegistro(e);
+            if (i % 2 == 0)
+                eliminados.agregaFinal(e);
+            else
+                restantes.agregaFinal(e);
+        }
+        int[] bloques = { 0 };
+        bdd.agregaEscucha(new EscuchaBaseDeDatos<Estudiante>() {
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Estudiante r1, Estudiante r2) {
+                    Assert.fail();
+                }
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Lista<Estudiante> registros) {
+                    Assert.assertTrue(
+                        e == EventoBaseDeDatos.REGISTROS_ELIMINADOS);
+                    Assert.assertTrue(registros.equals(eliminados));
+                    bloques[0]++;
+                }
+            });
+        int[] contador = { 0 };
+        bdd.agregaEscucha((e, r1, r2) -> {
+                Assert.assertTrue(e == EventoBaseDeDatos.REGISTRO_ELIMINADO);
+                Assert.assertTrue(r1 == eliminados.get(contador[0]++));
+            });
+        /* Los registros que no están en la base de datos no se notifican. */
+        Lista<Estudiante> l = new Lista<Estudiante>();
+        for (Estudiante e : eliminados) {
+            l.agregaFinal(e);
+            l.agregaFinal(TestEstudiante.estudianteAleatorio(total));
+        }
+        bdd.eliminaRegistros(l);
+        Assert.assertTrue(bdd.getRegistros().equals(restantes));
+        Assert.assertTrue(bloques[0] == 1);
+        Assert.assertTrue(contador[0] == eliminados.getLongitud());
+        bdd.eliminaRegistros(eliminados);
+        Assert.assertTrue(bloques[0] == 1);
+        Assert.assertTrue(contador[0] == eliminados.getLongitud());
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatos#eliminaRegistros(Enum,Object)}.
+     */
+    @Test public void testEliminaRegistrosCampo() {
+        bdd.setColumnas(true);
+        Lista<Estudiante> eliminados = new Lista<Estudiante>();
+        Lista<Estudiante> restantes = new Lista<Estudiante>();
+        int edad = TestEstudiante.edadAleatoria();
+        for (int i = 0; i < total; i++) {
+            Estudiante e = TestEstudiante.estudianteAleatorio(i);
+            bdd.agregaRegistro(e);
+            if (e.getEdad() >= edad)
+                eliminados.agregaFinal(e);
+            else
+                restantes.agregaFinal(e);
+        }
+        bdd.setInstantaneas(true);
+        Instantanea<Estudiante> antes = bdd.getInstantanea();
+        int[] bloques = { 0 };
+        bdd.agregaEscucha(new EscuchaBaseDeDatos<Estudiante>() {
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Estudiante r1, Estudiante r2) {
+                    Assert.fail();
+                }
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Lista<Estudiante> registros) {
+                    Assert.assertTrue(
+                        e == EventoBaseDeDatos.REGISTROS_ELIMINADOS);
+                    Assert.assertTrue(registros.equals(eliminados));
+                    bloques[0]++;
+                }
+            });
+        int n = bdd.eliminaRegistros(CampoEstudiante.EDAD, edad);
+        Assert.assertTrue(n == eliminados.getLongitud());
+        Assert.assertTrue(bloques[0] == (n > 0 ? 1 : 0));
+        Assert.assertTrue(bdd.getRegistros().equals(restantes));
+        Assert.assertTrue(bdd.getInstantanea().getRegistros().equals(
+                              restantes));
+        Assert.assertTrue(antes.getRegistros().getLongitud() == total);
+        verificaColumnas(bdd);
+        Assert.assertTrue(bdd.eliminaRegistros(CampoEstudiante.EDAD,
+                                               edad) == 0);
+        Assert.assertTrue(bloques[0] == (n > 0 ? 1 : 0));
+        try {
+            bdd.eliminaRegistros(null, edad);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatos#eliminaRegistro}, {@link
+     * BaseDeDatos#eliminaRegistros} y {@link BaseDeDatos#modificaRegistro}
+     * con registros iguales pero no idénticos: si el registro mismo está en
+     * la base de datos, es el que se elimina o modifica.
+     */
+    @Test public void testEliminaRegistroMismo() {
+        bdd.setColumnas(true);
+        Estudiante[] a = new Estudiante[total];
+        Estudiante[] b = new Estudiante[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = TestEstudiante.estudianteAleatorio(i);
+            b[i] = new Estudiante(a[i].getNombre(), a[i].getCuenta(),
+                                  a[i].getPromedio(), a[i].getEdad());
+            bdd.agregaRegistro(a[i]);
+        }
+        for (int i = 0; i < total; i++)
+            bdd.agregaRegistro(b[i]);
+        Lista<Estudiante> eliminados = new Lista<Estudiante>();
+        for (int i = 0; i < total; i += 2)
+            eliminados.agregaFinal(a[i]);
+        bdd.eliminaRegistros(eliminados);
+        for (int i = 1; i < total; i += 2)
+            bdd.eliminaRegistro(b[i]);
+        Lista<Estudiante> registros = bdd.getRegistros();
+        Assert.assertTrue(registros.getLongitud() == total);
+        int j = 0;
+        for (Estudiante e : registros) {
+            int i = j < total / 2 ? 2 * j + 1 : 2 * (j - total / 2);
+            Assert.assertTrue(e == (j++ < total / 2 ? a[i] : b[i]));
+        }
+        verificaColumnas(bdd);
+        Estudiante c = TestEstudiante.estudianteAleatorio(total);
+        bdd.modificaRegistro(b[0], c);
+        Assert.assertTrue(b[0].equals(c));
+        Assert.assertFalse(a[0].equals(c));
+        Lista<Estudiante> l = bdd.buscaRegistros(CampoEstudiante.CUENTA,
+                                                 c.getCuenta());
+        Assert.assertTrue(l.contiene(c));
+        bdd.eliminaRegistro(new Estudiante(a[1].getNombre(), a[1].getCuenta(),
+                                           a[1].getPromedio(),
+                                           a[1].getEdad()));
+        Assert.assertTrue(total < 4 ||
+                          bdd.getRegistros().getPrimero() == a[3]);
+        Assert.assertTrue(bdd.getNumRegistros() == total - 1);
     }
 
     /**
@@ -466,6 +707,597 @@ public class TestBaseDeDatosEstudiantes {
         } catch (IllegalArgumentException iae) {}
     }
 
+    /**
+     * Prueba unitaria para {@link BaseDeDatosEstudiantes#setColumnas} y
+     * {@link BaseDeDatosEstudiantes#usaColumnas}.
+     */
+    @Test public void testSetColumnas() {
+        Assert.assertFalse(bdd.usaColumnas());
+        try {
+            bdd.getOrdinales();
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        for (int i = 0; i < total/2; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        bdd.setColumnas(true);
+        Assert.assertTrue(bdd.usaColumnas());
+        for (int i = total/2; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        Estudiante e = bdd.getRegistros().get(random.nextInt(total));
+        bdd.eliminaRegistro(e);
+        verificaColumnas(bdd);
+        Lista<Estudiante> l = bdd.buscaRegistros(CampoEstudiante.CUENTA,
+                                                 total/2);
+        Assert.assertTrue(l.getLongitud() == total - total/2 - 1 ||
+                          l.getLongitud() == total - total/2);
+        for (Estudiante r : l)
+            Assert.assertTrue(r.getCuenta() >= total/2);
+        Assert.assertFalse(l.contiene(e));
+        bdd.limpia();
+        Assert.assertTrue(bdd.getOrdinales().esVacio());
+        bdd.setColumnas(false);
+        Assert.assertFalse(bdd.usaColumnas());
+        try {
+            bdd.conjunto(CampoEstudiante.EDAD, 0);
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        try {
+            bdd.registros(new MapaDeBits());
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatosEstudiantes#conjunto} y {@link
+     * BaseDeDatosEstudiantes#registros}: los mapas de bits se combinan, y
+     * siguen siendo válidos aunque la base de datos se modifique.
+     */
+    @Test public void testConjunto() {
+        bdd.setColumnas(true);
+        for (int i = 0; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        int cuenta = total / 2;
+        int edad = TestEstudiante.edadAleatoria();
+        MapaDeBits cuentas = bdd.conjunto(CampoEstudiante.CUENTA, cuenta);
+        MapaDeBits edades = bdd.conjunto(CampoEstudiante.EDAD, edad);
+        MapaDeBits ambos = cuentas.y(edades);
+        MapaDeBits ninguno = bdd.getOrdinales().menos(cuentas.o(edades));
+        Lista<Estudiante> registros = bdd.getRegistros();
+        Estudiante e = registros.get(random.nextInt(total));
+        bdd.eliminaRegistro(e);
+        bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(0));
+        Iterator<Estudiante> a = bdd.registros(ambos).iterator();
+        Iterator<Estudiante> n = bdd.registros(ninguno).iterator();
+        for (Estudiante r : registros) {
+            if (r == e)
+                continue;
+            boolean c = r.getCuenta() >= cuenta, d = r.getEdad() >= edad;
+            if (c && d)
+                Assert.assertTrue(a.next() == r);
+            if (!c && !d)
+                Assert.assertTrue(n.next() == r);
+        }
+        Assert.assertFalse(a.hasNext());
+        Assert.assertFalse(n.hasNext());
+        try {
+            bdd.conjunto(null, edad);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            bdd.registros(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para que las columnas de {@link BaseDeDatosEstudiantes}
+     * distingan las apariciones de un registro que está más de una vez.
+     */
+    @Test public void testColumnasRepetidos() {
+        Estudiante e = TestEstudiante.estudianteAleatorio(total);
+        bdd.agregaRegistro(e);
+        for (int i = 0; i < total; i++) {
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+            if (random.nextBoolean())
+                bdd.agregaRegistro(e);
+        }
+        bdd.agregaRegistro(e);
+        bdd.setColumnas(true);
+        verificaColumnas(bdd);
+        bdd.modificaRegistro(e, TestEstudiante.estudianteAleatorio(total + 1));
+        verificaColumnas(bdd);
+        bdd.eliminaRegistro(e);
+        bdd.agregaRegistro(e);
+        bdd.eliminaRegistro(e);
+        verificaColumnas(bdd);
+        bdd.eliminaRegistros(CampoEstudiante.CUENTA, e.getCuenta());
+        Assert.assertFalse(bdd.getRegistros().contiene(e));
+        verificaColumnas(bdd);
+    }
+
+    /**
+     * Prueba unitaria para que las columnas de {@link BaseDeDatosEstudiantes}
+     * sigan a los estudiantes que se modifican directamente, con sus métodos
+     * set o con sus propiedades.
+     */
+    @Test public void testColumnasCambiosDirectos() {
+        for (int i = 0; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        bdd.setColumnas(true);
+        /* verificaColumnas revisa los valores del estudiante de en medio. */
+        Estudiante e = bdd.getRegistros().get(total / 2);
+        e.setCuenta(total + 1);
+        Lista<Estudiante> l = bdd.buscaRegistros(CampoEstudiante.CUENTA,
+                                                 total + 1);
+        Assert.assertTrue(l.getLongitud() == 1 && l.getPrimero() == e);
+        e.setNombre("Zacarías");
+        verificaColumnas(bdd);
+        e.edadProperty().set(e.getEdad() + 1);
+        verificaColumnas(bdd);
+        e.promedioProperty().set(e.getPromedio() / 2);
+        verificaColumnas(bdd);
+        e.nombreProperty().set("Zoé");
+        verificaColumnas(bdd);
+        e.actualiza(TestEstudiante.estudianteAleatorio(total + 2));
+        verificaColumnas(bdd);
+        BaseDeDatosEstudiantes otra = new BaseDeDatosEstudiantes();
+        otra.setColumnas(true);
+        otra.agregaRegistro(e);
+        e.setCuenta(total + 3);
+        l = otra.buscaRegistros(CampoEstudiante.CUENTA, total + 3);
+        Assert.assertTrue(l.getLongitud() == 1 && l.getPrimero() == e);
+        verificaColumnas(bdd);
+        bdd.setColumnas(false);
+        e.setCuenta(total + 4);
+        bdd.setColumnas(true);
+        verificaColumnas(bdd);
+        e.setCuenta(total + 5);
+        verificaColumnas(bdd);
+        bdd.limpia();
+        otra.eliminaRegistro(e);
+        e.setCuenta(total + 6);
+        Assert.assertTrue(bdd.getOrdinales().esVacio());
+        Assert.assertTrue(otra.getOrdinales().esVacio());
+    }
+
+    /**
+     * Prueba unitaria para que las columnas de {@link BaseDeDatosEstudiantes}
+     * sigan sincronizadas en modo asíncrono y dentro de transacciones.
+     */
+    @Test public void testColumnasSincronizadas() {
+        bdd.setColumnas(true);
+        bdd.setAsincrona(true);
+        for (int i = 0; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        Assert.assertTrue(bdd.getOrdinales().getCardinalidad() == total);
+        bdd.iniciaTransaccion();
+        Lista<Estudiante> registros = bdd.getRegistros();
+        Estudiante e = registros.get(random.nextInt(total));
+        Estudiante f = TestEstudiante.estudianteAleatorio(total);
+        bdd.modificaRegistro(e, f);
+        Lista<Estudiante> l = bdd.buscaRegistros(CampoEstudiante.CUENTA,
+                                                 f.getCuenta());
+        Assert.assertTrue(l.contiene(f));
+        bdd.terminaTransaccion();
+        bdd.eliminaRegistro(registros.getPrimero());
+        bdd.setAsincrona(false);
+        verificaColumnas(bdd);
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatosEstudiantes#setCampoUnico}, {@link
+     * BaseDeDatosEstudiantes#getCampoUnico} y {@link
+     * BaseDeDatosEstudiantes#getRechazados}.
+     */
+    @Test public void testSetCampoUnico() {
+        Assert.assertTrue(bdd.getCampoUnico() == null);
+        try {
+            bdd.setCampoUnico(CampoEstudiante.NOMBRE);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(0));
+        bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(0));
+        try {
+            bdd.setCampoUnico(CampoEstudiante.CUENTA);
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        Assert.assertTrue(bdd.getCampoUnico() == null);
+        bdd.limpia();
+        bdd.setCampoUnico(CampoEstudiante.CUENTA);
+        Assert.assertTrue(bdd.getCampoUnico() == CampoEstudiante.CUENTA);
+        for (int i = 0; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        Assert.assertTrue(bdd.getRechazados().esVacia());
+        Estudiante repetido = TestEstudiante.estudianteAleatorio(total/2);
+        int[] contador = { 0 };
+        bdd.agregaEscucha((e, r1, r2) -> contador[0]++);
+        bdd.agregaRegistro(repetido);
+        Assert.assertTrue(bdd.getNumRegistros() == total);
+        Assert.assertTrue(contador[0] == 0);
+        Assert.assertTrue(bdd.getRechazados().getLongitud() == 1);
+        Assert.assertTrue(bdd.getRechazados().getPrimero() == repetido);
+
+        Lista<Estudiante> nuevos = new Lista<Estudiante>();
+        nuevos.agregaFinal(TestEstudiante.estudianteAleatorio(total));
+        nuevos.agregaFinal(TestEstudiante.estudianteAleatorio(0));
+        nuevos.agregaFinal(TestEstudiante.estudianteAleatorio(total + 1));
+        nuevos.agregaFinal(TestEstudiante.estudianteAleatorio(total));
+        Lista<Estudiante> agregados = new Lista<Estudiante>();
+        bdd.agregaEscucha(new EscuchaBaseDeDatos<Estudiante>() {
+                @Override public void baseDeDatosModificada(
+                    EventoBaseDeDatos evento,
+                    Estudiante r1, Estudiante r2) {}
+                @Override public void baseDeDatosModificada(
+                    EventoBaseDeDatos evento, Lista<Estudiante> registros) {
+                    for (Estudiante e : registros)
+                        agregados.agregaFinal(e);
+                }
+            });
+        bdd.agregaRegistros(nuevos);
+        Assert.assertTrue(bdd.getNumRegistros() == total + 2);
+        Assert.assertTrue(agregados.getLongitud() == 2);
+        Assert.assertTrue(agregados.get(0) == nuevos.get(0));
+        Assert.assertTrue(agregados.get(1) == nuevos.get(2));
+        Lista<Estudiante> rechazados = bdd.getRechazados();
+        Assert.assertTrue(rechazados.getLongitud() == 3);
+        Assert.assertTrue(rechazados.get(1) == nuevos.get(1));
+        Assert.assertTrue(rechazados.get(2) == nuevos.get(3));
+
+        Estudiante e = bdd.getRegistros().get(0);
+        Estudiante m = TestEstudiante.estudianteAleatorio(1);
+        bdd.modificaRegistro(e, m);
+        Assert.assertTrue(e.getCuenta() == 0);
+        Assert.assertTrue(bdd.getRechazados().getLongitud() == 4);
+        m = TestEstudiante.estudianteAleatorio(total + 2);
+        bdd.modificaRegistro(e, m);
+        Assert.assertTrue(e.getCuenta() == total + 2);
+        bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(0));
+        Assert.assertTrue(bdd.getNumRegistros() == total + 3);
+        bdd.eliminaRegistro(e);
+        bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(total + 2));
+        Assert.assertTrue(bdd.getNumRegistros() == total + 3);
+        Assert.assertTrue(bdd.getRechazados().getLongitud() == 4);
+
+        String entrada = "";
+        for (int i = 0; i < total; i++) {
+            Estudiante r = TestEstudiante.estudianteAleatorio(i % 2);
+            entrada += String.format("%s\t%d\t%2.2f\t%d\n",
+                                     r.getNombre(), r.getCuenta(),
+                                     r.getPromedio(), r.getEdad());
+        }
+        try {
+            BufferedReader in =
+                new BufferedReader(new StringReader(entrada), 8192);
+            bdd.carga(in);
+            in.close();
+        } catch (IOException ioe) {
+            Assert.fail();
+        }
+        Assert.assertTrue(bdd.getNumRegistros() == 2);
+        Assert.assertTrue(bdd.getRechazados().getLongitud() == total - 2);
+        for (Estudiante r : bdd.getRechazados())
+            Assert.assertTrue(r.getCuenta() == 0 || r.getCuenta() == 1);
+
+        bdd.setCampoUnico(null);
+        Assert.assertTrue(bdd.getRechazados().esVacia());
+        bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(0));
+        Assert.assertTrue(bdd.getNumRegistros() == 3);
+        Assert.assertTrue(bdd.getRechazados().esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatos#setInstantaneas} y {@link
+     * BaseDeDatos#usaInstantaneas}.
+     */
+    @Test public void testSetInstantaneas() {
+        Assert.assertFalse(bdd.usaInstantaneas());
+        try {
+            bdd.getInstantanea();
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        for (int i = 0; i < total/2; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        bdd.setInstantaneas(true);
+        Assert.assertTrue(bdd.usaInstantaneas());
+        Instantanea<Estudiante> antes = bdd.getInstantanea();
+        Assert.assertTrue(antes.getRegistros().equals(bdd.getRegistros()));
+        bdd.setInstantaneas(true);
+        for (int i = total/2; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        Instantanea<Estudiante> despues = bdd.getInstantanea();
+        Assert.assertTrue(antes.getLongitud() == total/2);
+        Assert.assertTrue(despues.getRegistros().equals(bdd.getRegistros()));
+        bdd.setInstantaneas(false);
+        Assert.assertFalse(bdd.usaInstantaneas());
+        try {
+            bdd.getInstantanea();
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        Lista<Estudiante> registros = bdd.getRegistros();
+        bdd.eliminaRegistro(registros.getPrimero());
+        Assert.assertTrue(despues.getRegistros().equals(registros));
+        bdd.setInstantaneas(true);
+        Assert.assertTrue(bdd.getInstantanea().getRegistros().equals(
+                              bdd.getRegistros()));
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatos#setAsincrona}.
+     */
+    @Test public void testSetAsincrona() {
+        Assert.assertFalse(bdd.esAsincrona());
+        Lista<Estudiante> recibidos = new Lista<Estudiante>();
+        CountDownLatch libera = new CountDownLatch(1);
+        bdd.agregaEscucha((e, r1, r2) -> {
+                try {
+                    libera.await();
+                } catch (InterruptedException ie) {}
+                synchronized (recibidos) {
+                    recibidos.agregaFinal(r1);
+                }
+            });
+        bdd.setAsincrona(true);
+        Assert.assertTrue(bdd.esAsincrona());
+        int n = 10;
+        /* Si las modificaciones esperaran al escucha, que está detenido, la
+         * prueba expiraría. */
+        for (int i = 0; i < n; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        synchronized (recibidos) {
+            Assert.assertTrue(recibidos.esVacia());
+        }
+        libera.countDown();
+        bdd.esperaEscuchas();
+        synchronized (recibidos) {
+            Assert.assertTrue(recibidos.equals(bdd.getRegistros()));
+        }
+        bdd.setAsincrona(false);
+        Assert.assertFalse(bdd.esAsincrona());
+        Estudiante e = TestEstudiante.estudianteAleatorio(n);
+        bdd.agregaRegistro(e);
+        Assert.assertTrue(recibidos.getUltimo().equals(e));
+        Assert.assertTrue(recibidos.getLongitud() == n + 1);
+    }
+
+    /**
+     * Prueba unitaria para que {@link BaseDeDatos#setAsincrona} entregue los
+     * eventos pendientes antes que los de las modificaciones posteriores,
+     * aunque otro hilo siga modificando la base de datos, y aunque los
+     * escuchas la lean mientras tanto.
+     */
+    @Test public void testSetAsincronaPendientes()
+        throws InterruptedException {
+        Lista<Estudiante> recibidos = new Lista<Estudiante>();
+        bdd.agregaEscucha((e, r1, r2) -> {
+                bdd.getRegistros();
+                synchronized (recibidos) {
+                    recibidos.agregaFinal(r1);
+                }
+            });
+        bdd.setAsincrona(true);
+        int n = 2000;
+        Thread escritor = new Thread(() -> {
+                for (int i = 0; i < n; i++)
+                    bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+            });
+        escritor.start();
+        while (bdd.getNumRegistros() < n / 4)
+            Thread.yield();
+        bdd.setAsincrona(false);
+        escritor.join();
+        synchronized (recibidos) {
+            Assert.assertTrue(recibidos.equals(bdd.getRegistros()));
+        }
+    }
+
+    /**
+     * Prueba unitaria para que los escuchas asíncronos reciban su propia
+     * copia de las listas de registros.
+     */
+    @Test public void testAsincronaListas() throws InterruptedException {
+        Lista<Estudiante> registros = new Lista<Estudiante>();
+        for (int i = 0; i < total; i++) {
+            Estudiante e = TestEstudiante.estudianteAleatorio(i);
+            bdd.agregaRegistro(e);
+            registros.agregaFinal(e);
+        }
+        Lista<Estudiante> recibidos = new Lista<Estudiante>();
+        CountDownLatch limpia = new CountDownLatch(1);
+        bdd.agregaEscucha(new EscuchaBaseDeDatos<Estudiante>() {
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Estudiante r1, Estudiante r2) {}
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos e,
+                                      Lista<Estudiante> l) {
+                    /* La lista original ya se limpió. */
+                    try {
+                        limpia.await();
+                    } catch (InterruptedException ie) {}
+                    synchronized (recibidos) {
+                        for (Estudiante r : l)
+                            recibidos.agregaFinal(r);
+                    }
+                }
+            });
+        bdd.setAsincrona(true);
+        bdd.eliminaRegistros(registros);
+        Lista<Estudiante> copia = registros.copia();
+        registros.limpia();
+        limpia.countDown();
+        bdd.esperaEscuchas();
+        synchronized (recibidos) {
+            Assert.assertTrue(recibidos.equals(copia));
+        }
+    }
+
+    /**
+     * Prueba unitaria para que los escuchas asíncronos reciban los valores
+     * originales de un registro modificado, aunque lo reciban cuando ya
+     * cambió.
+     */
+    @Test public void testAsincronaModificaRegistro() {
+        Estudiante e = TestEstudiante.estudianteAleatorio(0);
+        Estudiante original = new Estudiante(e.getNombre(), e.getCuenta(),
+                                             e.getPromedio(), e.getEdad());
+        Estudiante f = TestEstudiante.estudianteAleatorio(1);
+        bdd.agregaRegistro(e);
+        Estudiante[] recibidos = new Estudiante[2];
+        CountDownLatch modificado = new CountDownLatch(1);
+        bdd.agregaEscucha((ev, r1, r2) -> {
+                try {
+                    modificado.await();
+                } catch (InterruptedException ie) {}
+                recibidos[0] = r1;
+                recibidos[1] = r2;
+            });
+        bdd.setAsincrona(true);
+        bdd.modificaRegistro(e, f);
+        Assert.assertTrue(e.equals(f));
+        modificado.countDown();
+        bdd.setAsincrona(false);
+        Assert.assertTrue(recibidos[0].equals(original));
+        Assert.assertFalse(recibidos[0] == e);
+        Assert.assertTrue(recibidos[1] == f);
+    }
+
+    /**
+     * Prueba unitaria para que un escucha asíncrono que falla con un {@link
+     * Error} siga recibiendo eventos, y para que {@link
+     * BaseDeDatos#setAsincrona} no se quede esperándolo.
+     */
+    @Test public void testAsincronaError() {
+        Thread.UncaughtExceptionHandler manejador =
+            Thread.getDefaultUncaughtExceptionHandler();
+        int[] fallas = { 0 };
+        Thread.setDefaultUncaughtExceptionHandler((h, t) -> {
+                synchronized (fallas) {
+                    fallas[0]++;
+                }
+            });
+        try {
+            int[] recibidos = { 0 };
+            bdd.agregaEscucha((e, r1, r2) -> {
+                    if (recibidos[0]++ == 0)
+                        throw new Error("Escucha fallido.");
+                });
+            bdd.setAsincrona(true);
+            for (int i = 0; i < 3; i++)
+                bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+            bdd.setAsincrona(false);
+            Assert.assertTrue(recibidos[0] == 3);
+            synchronized (fallas) {
+                Assert.assertTrue(fallas[0] == 1);
+            }
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(manejador);
+        }
+    }
+
+    /**
+     * Prueba unitaria para el acceso concurrente a {@link BaseDeDatos}.
+     */
+    @Test public void testConcurrencia() throws InterruptedException {
+        int[] leidos = { 0 };
+        bdd.agregaEscucha((e, r1, r2) -> {
+                Assert.assertTrue(bdd.getRegistros().contiene(r1));
+                leidos[0] = bdd.getNumRegistros();
+            });
+        int n = 1000;
+        boolean[] error = { false };
+        Thread[] lectores = new Thread[4];
+        for (int i = 0; i < lectores.length; i++) {
+            lectores[i] = new Thread(() -> {
+                    try {
+                        int anterior = 0;
+                        while (anterior < n) {
+                            int actual = bdd.getNumRegistros();
+                            Assert.assertTrue(actual >= anterior);
+                            Lista<Estudiante> l =
+                                bdd.buscaRegistros(CampoEstudiante.CUENTA, 0);
+                            Assert.assertTrue(l.getLongitud() >= actual);
+                            anterior = l.getLongitud();
+                        }
+                    } catch (Throwable t) {
+                        error[0] = true;
+                        throw t;
+                    }
+                });
+            lectores[i].start();
+        }
+        for (int i = 0; i < n; i++) {
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+            Assert.assertTrue(leidos[0] == i + 1);
+        }
+        for (Thread lector : lectores)
+            lector.join();
+        Assert.assertFalse(error[0]);
+        Assert.assertTrue(bdd.getNumRegistros() == n);
+    }
+
+    /**
+     * Prueba unitaria para {@link BaseDeDatos#iniciaTransaccion} y {@link
+     * BaseDeDatos#terminaTransaccion}.
+     */
+    @Test public void testIniciaTransaccion() {
+        Estudiante a = new Estudiante("A", 1, 1, 1);
+        Estudiante b = new Estudiante("B", 2, 2, 2);
+        bdd.agregaRegistro(a);
+        bdd.agregaRegistro(b);
+        Lista<EventoBaseDeDatos> eventos = new Lista<EventoBaseDeDatos>();
+        Lista<Estudiante> registros = new Lista<Estudiante>();
+        bdd.agregaEscucha((e, r1, r2) -> {
+                eventos.agregaFinal(e);
+                registros.agregaFinal(r1);
+                if (r2 != null)
+                    registros.agregaFinal(r2);
+            });
+        Assert.assertFalse(bdd.enTransaccion());
+        bdd.iniciaTransaccion();
+        bdd.iniciaTransaccion();
+        Assert.assertTrue(bdd.enTransaccion());
+        Estudiante u = null;
+        for (int i = 0; i < total; i++) {
+            u = new Estudiante("A", 1, 1, 10 + i);
+            bdd.modificaRegistro(a, u);
+        }
+        Estudiante c = new Estudiante("C", 3, 3, 3);
+        bdd.modificaRegistro(b, c);
+        bdd.terminaTransaccion();
+        Assert.assertTrue(eventos.esVacia());
+        Assert.assertTrue(a.equals(u));
+        bdd.terminaTransaccion();
+        Assert.assertFalse(bdd.enTransaccion());
+        Assert.assertTrue(eventos.getLongitud() == 2);
+        for (EventoBaseDeDatos e : eventos)
+            Assert.assertTrue(e == EventoBaseDeDatos.REGISTRO_MODIFICADO);
+        Assert.assertTrue(registros.get(0).equals(
+                              new Estudiante("A", 1, 1, 1)));
+        Assert.assertTrue(registros.get(1) == u);
+        Assert.assertTrue(registros.get(2).equals(
+                              new Estudiante("B", 2, 2, 2)));
+        Assert.assertTrue(registros.get(3) == c);
+
+        eventos.limpia();
+        registros.limpia();
+        bdd.iniciaTransaccion();
+        bdd.modificaRegistro(a, b);
+        Estudiante d = new Estudiante("D", 4, 4, 4);
+        bdd.agregaRegistro(d);
+        Assert.assertTrue(eventos.getLongitud() == 2);
+        Assert.assertTrue(eventos.get(0) ==
+                          EventoBaseDeDatos.REGISTRO_MODIFICADO);
+        Assert.assertTrue(eventos.get(1) ==
+                          EventoBaseDeDatos.REGISTRO_AGREGADO);
+        Assert.assertTrue(registros.get(2) == d);
+        bdd.terminaTransaccion();
+        Assert.assertTrue(eventos.getLongitud() == 2);
+        try {
+            bdd.terminaTransaccion();
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+    }
+
     /**
      * Prueba unitaria para {@link BaseDeDatos#agregaEscucha}.
      */
@@ -480,6 +1312,60 @@ public class TestBaseDeDatosEstudiantes {
             Assert.assertTrue(c[i] == 1);
     }
 
+    /**
+     * Prueba unitaria para {@link
+     * BaseDeDatos#agregaEscucha(EscuchaBaseDeDatos,EnumSet)}.
+     */
+    @Test public void testAgregaEscuchaEventos() {
+        /* Los escuchas sólo registran los eventos; en modo asíncrono una
+         * aserción fallida en su hilo no haría fallar la prueba. */
+        Lista<EventoBaseDeDatos> limpiada = new Lista<EventoBaseDeDatos>();
+        Lista<EventoBaseDeDatos> agregados = new Lista<EventoBaseDeDatos>();
+        EscuchaBaseDeDatos<Estudiante> escucha = (e, r1, r2) -> {
+            synchronized (limpiada) {
+                limpiada.agregaFinal(e);
+            }
+        };
+        bdd.agregaEscucha(escucha,
+                          EnumSet.of(EventoBaseDeDatos.BASE_LIMPIADA));
+        bdd.agregaEscucha((e, r1, r2) -> {
+                synchronized (agregados) {
+                    agregados.agregaFinal(e);
+                }
+            }, EnumSet.of(EventoBaseDeDatos.REGISTRO_AGREGADO));
+        for (int i = 0; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        Lista<Estudiante> l = new Lista<Estudiante>();
+        for (int i = 0; i < total; i++)
+            l.agregaFinal(TestEstudiante.estudianteAleatorio(total + i));
+        bdd.agregaRegistros(l);
+        bdd.eliminaRegistros(l);
+        bdd.modificaRegistro(bdd.getRegistros().get(0),
+                             TestEstudiante.estudianteAleatorio(3 * total));
+        verificaEventos(agregados, EventoBaseDeDatos.REGISTRO_AGREGADO,
+                        2 * total);
+        verificaEventos(limpiada, EventoBaseDeDatos.BASE_LIMPIADA, 0);
+        bdd.limpia();
+        verificaEventos(limpiada, EventoBaseDeDatos.BASE_LIMPIADA, 1);
+        bdd.setAsincrona(true);
+        bdd.limpia();
+        bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(0));
+        bdd.setAsincrona(false);
+        verificaEventos(limpiada, EventoBaseDeDatos.BASE_LIMPIADA, 2);
+        verificaEventos(agregados, EventoBaseDeDatos.REGISTRO_AGREGADO,
+                        2 * total + 1);
+        bdd.eliminaEscucha(escucha);
+        bdd.limpia();
+        verificaEventos(limpiada, EventoBaseDeDatos.BASE_LIMPIADA, 2);
+        bdd.agregaEscucha((e, r1, r2) -> Assert.fail(),
+                          EnumSet.noneOf(EventoBaseDeDatos.class));
+        bdd.limpia();
+        try {
+            bdd.agregaEscucha((e, r1, r2) -> {}, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
     /**
      * Prueba unitaria para {@link BaseDeDatos#eliminaEscucha}.
      */
@@ -0,0 +1,189 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.Random;
+import mx.unam.ciencias.icc.BaseDeDatosEstudiantes;
+import mx.unam.ciencias.icc.BusEventos;
+import mx.unam.ciencias.icc.BusEventos.EstrategiaEspera;
+import mx.unam.ciencias.icc.EscuchaBaseDeDatos;
+import mx.unam.ciencias.icc.Estudiante;
+import mx.unam.ciencias.icc.EventoBaseDeDatos;
+import mx.unam.ciencias.icc.Lista;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link BusEventos}.
+ */
+public class TestBusEventos {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* El bus de eventos. */
+    private BusEventos<Estudiante> bus;
+    /* Número total de eventos. */
+    private int total;
+
+    /* Regresa un estudiante en blanco, para las copias del bus. */
+    private static Estudiante enBlanco() {
+        return new Estudiante(null, 0, 0.0, 0);
+    }
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba y un bus de
+     * eventos pequeño, para que el anillo dé varias vueltas.
+     */
+    public TestBusEventos() {
+        random = new Random();
+        EstrategiaEspera[] estrategias = EstrategiaEspera.values();
+        EstrategiaEspera estrategia =
+            estrategias[random.nextInt(estrategias.length)];
+        bus = new BusEventos<Estudiante>(8, estrategia,
+                                         TestBusEventos::enBlanco);
+        total = 100 + random.nextInt(1000);
+    }
+
+    /**
+     * Prueba unitaria para {@link BusEventos#BusEventos}.
+     */
+    @Test public void testConstructor() {
+        bus.espera();
+        try {
+            new BusEventos<Estudiante>(0, EstrategiaEspera.GIRA,
+                                       TestBusEventos::enBlanco);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new BusEventos<Estudiante>(6, EstrategiaEspera.GIRA,
+                                       TestBusEventos::enBlanco);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new BusEventos<Estudiante>(8, null, TestBusEventos::enBlanco);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new BusEventos<Estudiante>(8, EstrategiaEspera.GIRA, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link BusEventos#agregaConsumidor}.
+     */
+    @Test public void testAgregaConsumidor() {
+        Estudiante[] estudiantes = new Estudiante[total];
+        for (int i = 0; i < total; i++)
+            estudiantes[i] = TestEstudiante.estudianteAleatorio(i);
+        Lista<Estudiante> a = new Lista<Estudiante>();
+        Lista<Estudiante> b = new Lista<Estudiante>();
+        bus.agregaConsumidor((e, r1, r2) -> a.agregaFinal(r1));
+        bus.agregaConsumidor((e, r1, r2) -> {
+                Assert.assertTrue(e == EventoBaseDeDatos.REGISTRO_AGREGADO);
+                b.agregaFinal(r1);
+            });
+        for (int i = 0; i < total; i++)
+            bus.baseDeDatosModificada(EventoBaseDeDatos.REGISTRO_AGREGADO,
+                                      estudiantes[i], null);
+        bus.espera();
+        Assert.assertTrue(a.getLongitud() == total);
+        Assert.assertTrue(b.getLongitud() == total);
+        int i = 0;
+        for (Estudiante e : a)
+            Assert.assertTrue(e == estudiantes[i++]);
+        Assert.assertTrue(a.equals(b));
+        try {
+            bus.agregaConsumidor(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link BusEventos#baseDeDatosModificada} con una
+     * base de datos como productor.
+     */
+    @Test public void testBaseDeDatosModificada() {
+        BaseDeDatosEstudiantes bdd = new BaseDeDatosEstudiantes();
+        Lista<Estudiante> recibidos = new Lista<Estudiante>();
+        bus.agregaConsumidor((e, r1, r2) -> recibidos.agregaFinal(r1));
+        bdd.agregaEscucha(bus);
+        Lista<Estudiante> l = new Lista<Estudiante>();
+        for (int i = 0; i < total; i++)
+            l.agregaFinal(TestEstudiante.estudianteAleatorio(i));
+        bdd.agregaRegistros(l);
+        bus.espera();
+        Assert.assertTrue(recibidos.equals(bdd.getRegistros()));
+    }
+
+    /**
+     * Prueba unitaria para {@link BusEventos#baseDeDatosModificada} cuando los
+     * registros y las listas cambian después de publicar el evento.
+     */
+    @Test public void testBaseDeDatosModificadaCopias() {
+        Lista<Estudiante> r1s = new Lista<Estudiante>();
+        Lista<Estudiante> r2s = new Lista<Estudiante>();
+        Lista<Lista<Estudiante>> listas = new Lista<Lista<Estudiante>>();
+        bus.agregaConsumidor(new EscuchaBaseDeDatos<Estudiante>() {
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos evento,
+                                      Estudiante r1, Estudiante r2) {
+                    r1s.agregaFinal(r1);
+                    r2s.agregaFinal(r2);
+                }
+                @Override public void
+                baseDeDatosModificada(EventoBaseDeDatos evento,
+                                      Lista<Estudiante> registros) {
+                    listas.agregaFinal(registros);
+                }
+            });
+        Estudiante e1 = TestEstudiante.estudianteAleatorio(0);
+        Estudiante e2 = TestEstudiante.estudianteAleatorio(1);
+        Estudiante o1 = new Estudiante(e1.getNombre(), e1.getCuenta(),
+                                       e1.getPromedio(), e1.getEdad());
+        Estudiante o2 = new Estudiante(e2.getNombre(), e2.getCuenta(),
+                                       e2.getPromedio(), e2.getEdad());
+        bus.baseDeDatosModificada(EventoBaseDeDatos.REGISTRO_MODIFICADO,
+                                  e1, e2);
+        e1.actualiza(TestEstudiante.estudianteAleatorio(2));
+        e2.actualiza(TestEstudiante.estudianteAleatorio(3));
+        Lista<Estudiante> l = new Lista<Estudiante>();
+        l.agregaFinal(o1);
+        bus.baseDeDatosModificada(EventoBaseDeDatos.REGISTROS_AGREGADOS, l);
+        l.agregaFinal(o2);
+        bus.espera();
+        Assert.assertTrue(r1s.getLongitud() == 1);
+        Assert.assertTrue(r1s.getPrimero().equals(o1));
+        Assert.assertTrue(r1s.getPrimero() != e1);
+        Assert.assertTrue(r2s.getPrimero().equals(o2));
+        Assert.assertTrue(r2s.getPrimero() != e2);
+        Assert.assertTrue(listas.getLongitud() == 1);
+        Assert.assertTrue(listas.getPrimero().getLongitud() == 1);
+        Assert.assertTrue(listas.getPrimero().getPrimero() == o1);
+    }
+
+    /**
+     * Prueba unitaria para {@link BusEventos#termina}.
+     */
+    @Test public void testTermina() throws InterruptedException {
+        int[] c = { 0 };
+        bus.agregaConsumidor((e, r1, r2) -> c[0]++);
+        for (int i = 0; i < total; i++)
+            bus.baseDeDatosModificada(EventoBaseDeDatos.REGISTRO_AGREGADO,
+                                      null, null);
+        bus.termina();
+        Assert.assertTrue(c[0] == total);
+        try {
+            bus.baseDeDatosModificada(EventoBaseDeDatos.REGISTRO_AGREGADO,
+                                      null, null);
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        try {
+            bus.agregaConsumidor((e, r1, r2) -> {});
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+    }
+}
@@ -0,0 +1,242 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.Random;
+import mx.unam.ciencias.icc.CampoEstudiante;
+import mx.unam.ciencias.icc.ColumnasEstudiantes;
+import mx.unam.ciencias.icc.Estudiante;
+import mx.unam.ciencias.icc.ExcepcionIndiceInvalido;
+import mx.unam.ciencias.icc.Lista;
+import mx.unam.ciencias.icc.MapaDeBits;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ColumnasEstudiantes}.
+ */
+public class TestColumnasEstudiantes {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Las columnas. */
+    private ColumnasEstudiantes columnas;
+    /* Los estudiantes en las columnas. */
+    private Estudiante[] estudiantes;
+    /* Número total de estudiantes. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba y unas columnas
+     * con estudiantes aleatorios. El estudiante <em>i</em> tiene el ordinal
+     * 2<em>i</em>.
+     */
+    public TestColumnasEstudiantes() {
+        random = new Random();
+        columnas = new ColumnasEstudiantes();
+        total = 100 + random.nextInt(200);
+        estudiantes = new Estudiante[total];
+        for (int i = 0; i < total; i++) {
+            estudiantes[i] = TestEstudiante.estudianteAleatorio();
+            columnas.agrega(estudiantes[i], 2 * i);
+        }
+    }
+
+    /* Verifica que el mapa tenga los ordinales de los estudiantes que cumplen
+     * la condición. */
+    private void verifica(MapaDeBits mapa, boolean[] condicion) {
+        int n = 0;
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(mapa.contiene(2 * i) == condicion[i]);
+            Assert.assertFalse(mapa.contiene(2 * i + 1));
+            if (condicion[i])
+                n++;
+        }
+        Assert.assertTrue(mapa.getCardinalidad() == n);
+    }
+
+    /**
+     * Prueba unitaria para {@link ColumnasEstudiantes#agrega}.
+     */
+    @Test public void testAgrega() {
+        Assert.assertTrue(columnas.getNumRenglones() == total);
+        for (int i = 0; i < total; i++) {
+            Estudiante e = estudiantes[i];
+            Assert.assertTrue(columnas.getEstudiante(2 * i) == e);
+            Assert.assertTrue(columnas.getNombre(2 * i).equals(e.getNombre()));
+            Assert.assertTrue(columnas.getCuenta(2 * i) == e.getCuenta());
+            Assert.assertTrue(columnas.getPromedio(2 * i) == e.getPromedio());
+            Assert.assertTrue(columnas.getEdad(2 * i) == e.getEdad());
+        }
+        try {
+            columnas.getEstudiante(1);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        Estudiante e = TestEstudiante.estudianteAleatorio();
+        try {
+            columnas.agrega(e, 2 * total - 2);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            columnas.agrega(null, 2 * total);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertTrue(columnas.getNumRenglones() == total);
+        columnas.agrega(e, 2 * total);
+        Assert.assertTrue(columnas.getEstudiante(2 * total) == e);
+    }
+
+    /**
+     * Prueba unitaria para {@link ColumnasEstudiantes#conjunto}.
+     */
+    @Test public void testConjunto() {
+        boolean[] c = new boolean[total];
+        int cuenta = TestEstudiante.cuentaAleatoria();
+        for (int i = 0; i < total; i++)
+            c[i] = estudiantes[i].getCuenta() >= cuenta;
+        verifica(columnas.conjunto(CampoEstudiante.CUENTA, cuenta), c);
+
+        double promedio = TestEstudiante.promedioAleatorio();
+        for (int i = 0; i < total; i++)
+            c[i] = estudiantes[i].getPromedio() >= promedio;
+        verifica(columnas.conjunto(CampoEstudiante.PROMEDIO, promedio), c);
+
+        int edad = TestEstudiante.edadAleatoria();
+        for (int i = 0; i < total; i++)
+            c[i] = estudiantes[i].getEdad() >= edad;
+        verifica(columnas.conjunto(CampoEstudiante.EDAD, edad), c);
+
+        String nombre = estudiantes[random.nextInt(total)].getNombre();
+        String subcadena = nombre.substring(0, 3);
+        for (int i = 0; i < total; i++)
+            c[i] = estudiantes[i].getNombre().contains(subcadena);
+        verifica(columnas.conjunto(CampoEstudiante.NOMBRE, subcadena), c);
+
+        Assert.assertTrue(columnas.conjunto(CampoEstudiante.CUENTA,
+                                            "1").esVacio());
+        Assert.assertTrue(columnas.conjunto(CampoEstudiante.PROMEDIO,
+                                            1).esVacio());
+        Assert.assertTrue(columnas.conjunto(CampoEstudiante.NOMBRE,
+                                            "").esVacio());
+        try {
+            columnas.conjunto(null, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ColumnasEstudiantes#registros} y {@link
+     * ColumnasEstudiantes#getOrdinales}.
+     */
+    @Test public void testRegistros() {
+        MapaDeBits mapa = new MapaDeBits();
+        boolean[] en = new boolean[total];
+        for (int i = 0; i < total; i++) {
+            if (random.nextBoolean()) {
+                mapa.agrega(2 * i);
+                en[i] = true;
+            }
+            if (random.nextBoolean())
+                mapa.agrega(2 * i + 1);
+        }
+        mapa.agrega(2 * total + random.nextInt(total));
+        Lista<Estudiante> l = columnas.registros(mapa);
+        int j = 0;
+        for (Estudiante e : l) {
+            while (!en[j])
+                j++;
+            Assert.assertTrue(e == estudiantes[j++]);
+        }
+        for (; j < total; j++)
+            Assert.assertFalse(en[j]);
+
+        int cuenta = TestEstudiante.cuentaAleatoria();
+        MapaDeBits c = columnas.conjunto(CampoEstudiante.CUENTA, cuenta);
+        l = columnas.registros(columnas.getOrdinales().menos(c));
+        int n = 0;
+        for (int i = 0; i < total; i++)
+            if (estudiantes[i].getCuenta() < cuenta)
+                Assert.assertTrue(l.get(n++) == estudiantes[i]);
+        Assert.assertTrue(l.getLongitud() == n);
+    }
+
+    /**
+     * Prueba unitaria para {@link ColumnasEstudiantes#elimina}, y para que los
+     * mapas de bits sigan siendo válidos después de eliminar.
+     */
+    @Test public void testElimina() {
+        MapaDeBits todos = columnas.getOrdinales();
+        boolean[] restantes = new boolean[total];
+        int n = 0;
+        for (int i = 0; i < total; i++) {
+            if (random.nextInt(4) == 0) {
+                restantes[i] = true;
+                n++;
+            } else {
+                columnas.elimina(2 * i);
+            }
+            columnas.elimina(2 * i + 1);
+        }
+        Assert.assertTrue(columnas.getNumRenglones() == n);
+        verifica(columnas.getOrdinales(), restantes);
+        int j = 0;
+        for (Estudiante e : columnas.registros(todos)) {
+            while (!restantes[j])
+                j++;
+            Assert.assertTrue(e == estudiantes[j++]);
+        }
+        for (int i = 0; i < total; i++) {
+            if (restantes[i]) {
+                Assert.assertTrue(columnas.getEstudiante(2 * i) ==
+                                  estudiantes[i]);
+                Assert.assertTrue(columnas.getNombre(2 * i).equals(
+                                      estudiantes[i].getNombre()));
+                continue;
+            }
+            try {
+                columnas.getCuenta(2 * i);
+                Assert.fail();
+            } catch (ExcepcionIndiceInvalido eii) {}
+        }
+        boolean[] c = new boolean[total];
+        int edad = TestEstudiante.edadAleatoria();
+        for (int i = 0; i < total; i++)
+            c[i] = restantes[i] && estudiantes[i].getEdad() >= edad;
+        verifica(columnas.conjunto(CampoEstudiante.EDAD, edad), c);
+        columnas.limpia();
+        Assert.assertTrue(columnas.getNumRenglones() == 0);
+        Assert.assertTrue(columnas.getOrdinales().esVacio());
+        Assert.assertTrue(columnas.registros(todos).esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link ColumnasEstudiantes#modifica}.
+     */
+    @Test public void testModifica() {
+        String[] nombres = new String[total];
+        for (int i = 0; i < total; i++)
+            nombres[i] = estudiantes[i].getNombre();
+        for (int k = 0; k < total; k++) {
+            int i = random.nextInt(total);
+            Estudiante e = TestEstudiante.estudianteAleatorio();
+            columnas.modifica(2 * i, e);
+            Assert.assertTrue(columnas.getNombre(2 * i).equals(e.getNombre()));
+            Assert.assertTrue(columnas.getCuenta(2 * i) == e.getCuenta());
+            Assert.assertTrue(columnas.getPromedio(2 * i) == e.getPromedio());
+            Assert.assertTrue(columnas.getEdad(2 * i) == e.getEdad());
+            Assert.assertTrue(columnas.getEstudiante(2 * i) == estudiantes[i]);
+            nombres[i] = e.getNombre();
+        }
+        columnas.modifica(1, TestEstudiante.estudianteAleatorio());
+        Assert.assertTrue(columnas.getNumRenglones() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(columnas.getNombre(2 * i).equals(nombres[i]));
+        int j = random.nextInt(total);
+        Lista<Estudiante> l = columnas.busca(CampoEstudiante.NOMBRE,
+                                             nombres[j]);
+        Assert.assertTrue(l.contiene(estudiantes[j]));
+    }
+}
@@ -0,0 +1,136 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import mx.unam.ciencias.icc.DiccionarioCadenas;
+import mx.unam.ciencias.icc.Estudiante;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioCadenas}.
+ */
+public class TestDiccionarioCadenas {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* El diccionario. */
+    private DiccionarioCadenas diccionario;
+    /* La capacidad del diccionario. */
+    private int capacidad;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba y un
+     * diccionario.
+     */
+    public TestDiccionarioCadenas() {
+        random = new Random();
+        capacidad = 10 + random.nextInt(90);
+        diccionario = new DiccionarioCadenas(capacidad);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCadenas#interna}.
+     */
+    @Test public void testInterna() {
+        Assert.assertTrue(diccionario.interna(null) == null);
+        String a = new String("Buendía");
+        String b = new String("Buendía");
+        Assert.assertTrue(diccionario.interna(a) == a);
+        Assert.assertTrue(diccionario.interna(b) == a);
+        Assert.assertTrue(diccionario.getNumCadenas() == 1);
+        Assert.assertTrue(diccionario.getConsultas() == 2);
+        Assert.assertTrue(diccionario.getAciertos() == 1);
+        try {
+            new DiccionarioCadenas(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCadenas#getCapacidad}.
+     */
+    @Test public void testCapacidad() {
+        Assert.assertTrue(diccionario.getCapacidad() == capacidad);
+        for (int i = 0; i < 2 * capacidad; i++)
+            diccionario.interna(String.valueOf(i));
+        Assert.assertTrue(diccionario.getNumCadenas() == capacidad);
+        String c = String.valueOf(2 * capacidad);
+        Assert.assertTrue(diccionario.interna(c) == c);
+        Assert.assertTrue(diccionario.interna(new String(c)) != c);
+        Assert.assertTrue(diccionario.getNumCadenas() == capacidad);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCadenas#limpia}.
+     */
+    @Test public void testLimpia() {
+        for (int i = 0; i < capacidad; i++)
+            diccionario.interna(String.valueOf(i % 3));
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.getNumCadenas() == 0);
+        Assert.assertTrue(diccionario.getConsultas() == 0);
+        Assert.assertTrue(diccionario.getAciertos() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link Estudiante#setDiccionario}.
+     */
+    @Test public void testEstudiante() {
+        Estudiante.setDiccionario(diccionario);
+        try {
+            String nombre = TestEstudiante.nombreAleatorio();
+            Estudiante e1 = new Estudiante(nombre, 1, 1.0, 18);
+            Estudiante e2 = new Estudiante(null, 0, 0.0, 0);
+            e2.setNombre(new String(nombre));
+            Assert.assertTrue(e1.getNombre() == e2.getNombre());
+            Estudiante e3 = new Estudiante(null, 0, 0.0, 0);
+            e3.deseria(String.format("%s\t%d\t%2.2f\t%d\n",
+                                     nombre, 2, 2.0, 19));
+            Assert.assertTrue(e1.getNombre() == e3.getNombre());
+            Assert.assertTrue(diccionario.getAciertos() == 2);
+        } finally {
+            Estudiante.setDiccionario(null);
+        }
+    }
+
+    /**
+     * Prueba que varios hilos puedan usar el diccionario a la vez sin
+     * rebasar su capacidad ni perder consultas.
+     * @throws InterruptedException si el hilo de la prueba es interrumpido.
+     */
+    @Test public void testConcurrencia() throws InterruptedException {
+        int hilos = 4, consultas = 10000;
+        AtomicBoolean distinta = new AtomicBoolean();
+        Thread[] t = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            t[i] = new Thread(() -> {
+                    for (int j = 0; j < consultas; j++) {
+                        String c = String.valueOf(j % (2 * capacidad));
+                        if (!diccionario.interna(new String(c)).equals(c))
+                            distinta.set(true);
+                    }
+                });
+        }
+        for (Thread h : t)
+            h.start();
+        for (Thread h : t)
+            h.join();
+        Assert.assertFalse(distinta.get());
+        Assert.assertTrue(diccionario.getNumCadenas() == capacidad);
+        Assert.assertTrue(diccionario.getConsultas() == hilos * consultas);
+        int guardadas = 0;
+        for (int i = 0; i < 2 * capacidad; i++) {
+            String c = String.valueOf(i);
+            String a = diccionario.interna(new String(c));
+            if (diccionario.interna(new String(c)) == a)
+                guardadas++;
+        }
+        Assert.assertTrue(guardadas == capacidad);
+    }
+}
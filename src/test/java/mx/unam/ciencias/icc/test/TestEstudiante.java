@@ -150,6 +150,13 @@ public class TestEstudiante {
         int edad = edadAleatoria();
         estudiante = new Estudiante(nombre, cuenta, promedio, edad);
         Assert.assertTrue(estudiante.nombreProperty().get().equals(nombre));
+        Assert.assertTrue(estudiante.nombreProperty() ==
+                          estudiante.nombreProperty());
+        String nuevoNombre = nombre + " X";
+        estudiante.setNombre(nuevoNombre);
+        String n = estudiante.nombreProperty().get();
+        Assert.assertTrue(n.equals(nuevoNombre));
+        Assert.assertTrue(estudiante.getNombre().equals(nuevoNombre));
     }
 
     /**
@@ -192,6 +199,12 @@ public class TestEstudiante {
         int edad = edadAleatoria();
         estudiante = new Estudiante(nombre, cuenta, promedio, edad);
         Assert.assertTrue(estudiante.cuentaProperty().get() == cuenta);
+        Assert.assertTrue(estudiante.cuentaProperty() ==
+                          estudiante.cuentaProperty());
+        int nuevaCuenta = cuenta + 100;
+        estudiante.setCuenta(nuevaCuenta);
+        Assert.assertTrue(estudiante.cuentaProperty().get() == nuevaCuenta);
+        Assert.assertTrue(estudiante.getCuenta() == nuevaCuenta);
     }
 
     /**
@@ -234,6 +247,12 @@ public class TestEstudiante {
         int edad = edadAleatoria();
         estudiante = new Estudiante(nombre, cuenta, promedio, edad);
         Assert.assertTrue(estudiante.promedioProperty().get() == promedio);
+        Assert.assertTrue(estudiante.promedioProperty() ==
+                          estudiante.promedioProperty());
+        double nuevoPromedio = promedio + 1.0;
+        estudiante.setPromedio(nuevoPromedio);
+        Assert.assertTrue(estudiante.promedioProperty().get() == nuevoPromedio);
+        Assert.assertTrue(estudiante.getPromedio() == nuevoPromedio);
     }
 
     /**
@@ -276,6 +295,12 @@ public class TestEstudiante {
         int edad = edadAleatoria();
         estudiante = new Estudiante(nombre, cuenta, promedio, edad);
         Assert.assertTrue(estudiante.edadProperty().get() == edad);
+        Assert.assertTrue(estudiante.edadProperty() ==
+                          estudiante.edadProperty());
+        int nuevaEdad = edad + 1;
+        estudiante.setEdad(nuevaEdad);
+        Assert.assertTrue(estudiante.edadProperty().get() == nuevaEdad);
+        Assert.assertTrue(estudiante.getEdad() == nuevaEdad);
     }
 
     /**
@@ -337,6 +362,44 @@ public class TestEstudiante {
         Assert.assertFalse(estudiante.equals(null));
     }
 
+    /**
+     * Prueba unitaria para {@link Estudiante#hashCode}.
+     */
+    @Test public void testHashCode() {
+        String nombre = nombreAleatorio();
+        int cuenta = cuentaAleatoria();
+        double promedio = promedioAleatorio();
+        int edad = edadAleatoria();
+        estudiante = new Estudiante(nombre, cuenta, promedio, edad);
+        Estudiante igual = new Estudiante(new String(nombre),
+                                          cuenta, promedio, edad);
+        Assert.assertTrue(estudiante.hashCode() == igual.hashCode());
+        Assert.assertTrue(estudiante.hashCode() == estudiante.hashCode());
+        igual.setCuenta(cuenta + 1);
+        Assert.assertFalse(estudiante.equals(igual));
+        estudiante.setCuenta(cuenta + 1);
+        Assert.assertTrue(estudiante.equals(igual));
+        Assert.assertTrue(estudiante.hashCode() == igual.hashCode());
+        igual.setNombre(nombre + " Segundo");
+        igual.setPromedio(promedio / 2.0);
+        igual.setEdad(edad + 1);
+        Assert.assertFalse(estudiante.equals(igual));
+        estudiante.nombreProperty().set(nombre + " Segundo");
+        estudiante.promedioProperty().set(promedio / 2.0);
+        estudiante.edadProperty().set(edad + 1);
+        Assert.assertTrue(estudiante.equals(igual));
+        Assert.assertTrue(estudiante.hashCode() == igual.hashCode());
+        estudiante.cuentaProperty().set(cuenta);
+        igual.cuentaProperty().set(cuenta);
+        Assert.assertTrue(estudiante.hashCode() == igual.hashCode());
+        estudiante.cuentaProperty().set(cuenta + 2);
+        Assert.assertFalse(estudiante.equals(igual));
+        igual = new Estudiante(nombre, cuenta, 0.0, edad);
+        estudiante = new Estudiante(nombre, cuenta, -0.0, edad);
+        Assert.assertTrue(estudiante.equals(igual));
+        Assert.assertTrue(estudiante.hashCode() == igual.hashCode());
+    }
+
     /**
      * Prueba unitaria para {@link Estudiante#seria}.
      */
@@ -400,6 +463,7 @@ public class TestEstudiante {
         estudiante.actualiza(e);
         Assert.assertFalse(estudiante == e);
         Assert.assertTrue(estudiante.equals(e));
+        Assert.assertTrue(estudiante.hashCode() == e.hashCode());
         Assert.assertTrue(estudiante.getNombre().equals("B"));
         Assert.assertFalse(estudiante.nombreProperty() ==
                            e.nombreProperty());
@@ -0,0 +1,194 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.icc.BaseDeDatosEstudiantes;
+import mx.unam.ciencias.icc.Estudiante;
+import mx.unam.ciencias.icc.ExcepcionIndiceInvalido;
+import mx.unam.ciencias.icc.Instantanea;
+import mx.unam.ciencias.icc.Lista;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Instantanea}.
+ */
+public class TestInstantanea {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Base de datos de estudiantes. */
+    private BaseDeDatosEstudiantes bdd;
+    /* Número total de estudiantes. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba y una base de
+     * datos con estudiantes aleatorios, con las instantáneas activadas antes
+     * o después de agregarlos.
+     */
+    public TestInstantanea() {
+        random = new Random();
+        bdd = new BaseDeDatosEstudiantes();
+        total = 100 + random.nextInt(300);
+        boolean antes = random.nextBoolean();
+        if (antes)
+            bdd.setInstantaneas(true);
+        for (int i = 0; i < total; i++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(i));
+        if (!antes)
+            bdd.setInstantaneas(true);
+    }
+
+    /* Regresa copias de los estudiantes de la base de datos. */
+    private ArrayList<Estudiante> copias() {
+        ArrayList<Estudiante> copias = new ArrayList<Estudiante>();
+        for (Estudiante e : bdd.getRegistros())
+            copias.add(new Estudiante(e.getNombre(), e.getCuenta(),
+                                      e.getPromedio(), e.getEdad()));
+        return copias;
+    }
+
+    /* Verifica que la instantánea tenga los estudiantes recibidos. */
+    private void verifica(Instantanea<Estudiante> instantanea,
+                          ArrayList<Estudiante> estudiantes) {
+        Assert.assertTrue(instantanea.getLongitud() == estudiantes.size());
+        Assert.assertTrue(instantanea.esVacia() == estudiantes.isEmpty());
+        int i = 0;
+        for (Estudiante e : instantanea) {
+            Assert.assertTrue(e.equals(estudiantes.get(i)));
+            Assert.assertTrue(instantanea.get(i++) == e);
+        }
+        Assert.assertTrue(i == estudiantes.size());
+    }
+
+    /**
+     * Prueba unitaria para {@link Instantanea#get}.
+     */
+    @Test public void testGet() {
+        Instantanea<Estudiante> instantanea = bdd.getInstantanea();
+        Lista<Estudiante> registros = bdd.getRegistros();
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(instantanea.get(i).equals(registros.get(i)));
+        try {
+            instantanea.get(-1);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        try {
+            instantanea.get(total);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Instantanea#iterator}.
+     */
+    @Test public void testIterator() {
+        Instantanea<Estudiante> instantanea = bdd.getInstantanea();
+        Iterator<Estudiante> iterador = instantanea.iterator();
+        for (Estudiante e : bdd.getRegistros())
+            Assert.assertTrue(iterador.next().equals(e));
+        Assert.assertFalse(iterador.hasNext());
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Instantanea#contiene} y {@link
+     * Instantanea#getRegistros}.
+     */
+    @Test public void testContiene() {
+        Instantanea<Estudiante> instantanea = bdd.getInstantanea();
+        Assert.assertTrue(instantanea.getRegistros().equals(
+                              bdd.getRegistros()));
+        Estudiante e = bdd.getRegistros().get(random.nextInt(total));
+        Assert.assertTrue(instantanea.contiene(e));
+        Estudiante f = TestEstudiante.estudianteAleatorio(total);
+        Assert.assertFalse(instantanea.contiene(f));
+        bdd.agregaRegistro(f);
+        Assert.assertFalse(instantanea.contiene(f));
+        Assert.assertTrue(bdd.getInstantanea().contiene(f));
+    }
+
+    /**
+     * Prueba unitaria para {@link Instantanea#getVersion}, y para que las
+     * instantáneas no cambien al modificar la base de datos.
+     */
+    @Test public void testGetVersion() {
+        ArrayList<Instantanea<Estudiante>> instantaneas =
+            new ArrayList<Instantanea<Estudiante>>();
+        ArrayList<ArrayList<Estudiante>> esperados =
+            new ArrayList<ArrayList<Estudiante>>();
+        long version = -1;
+        int cuenta = total;
+        for (int i = 0; i < 200; i++) {
+            if (random.nextInt(10) == 0) {
+                Instantanea<Estudiante> instantanea = bdd.getInstantanea();
+                Assert.assertTrue(instantanea.getVersion() >= version);
+                version = instantanea.getVersion();
+                instantaneas.add(instantanea);
+                esperados.add(copias());
+            }
+            int n = bdd.getNumRegistros();
+            switch (n == 0 ? 0 : random.nextInt(4)) {
+            case 0:
+                bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(cuenta));
+                break;
+            case 1:
+                bdd.eliminaRegistro(bdd.getRegistros().get(random.nextInt(n)));
+                break;
+            default:
+                Estudiante e = bdd.getRegistros().get(random.nextInt(n));
+                Estudiante f = TestEstudiante.estudianteAleatorio(cuenta);
+                bdd.modificaRegistro(e, f);
+            }
+            cuenta++;
+        }
+        Instantanea<Estudiante> ultima = bdd.getInstantanea();
+        Assert.assertTrue(ultima.getVersion() > version);
+        for (int i = 0; i < instantaneas.size(); i++)
+            verifica(instantaneas.get(i), esperados.get(i));
+        ArrayList<Estudiante> antes = copias();
+        verifica(ultima, antes);
+        bdd.limpia();
+        verifica(ultima, antes);
+        Assert.assertTrue(bdd.getInstantanea().esVacia());
+    }
+
+    /**
+     * Prueba unitaria para que las instantáneas no cambien al eliminar la
+     * mayoría de los registros, ni al modificar en su lugar los registros de
+     * la base de datos.
+     */
+    @Test public void testHuecos() {
+        Instantanea<Estudiante> antes = bdd.getInstantanea();
+        ArrayList<Estudiante> esperados = copias();
+        Lista<Estudiante> registros = bdd.getRegistros();
+        int i = 0;
+        for (Estudiante e : registros)
+            if (i++ % 8 != 0)
+                bdd.eliminaRegistro(e);
+        Instantanea<Estudiante> despues = bdd.getInstantanea();
+        ArrayList<Estudiante> quedan = copias();
+        Estudiante e = bdd.getRegistros().get(0);
+        Estudiante f = TestEstudiante.estudianteAleatorio(total);
+        bdd.modificaRegistro(e, f);
+        Assert.assertTrue(e.equals(f));
+        verifica(antes, esperados);
+        verifica(despues, quedan);
+        for (int j = 0; j < total; j++)
+            bdd.agregaRegistro(TestEstudiante.estudianteAleatorio(j));
+        verifica(despues, quedan);
+        Assert.assertTrue(bdd.getInstantanea().getRegistros().equals(
+                              bdd.getRegistros()));
+    }
+}
@@ -1,8 +1,13 @@
 package mx.unam.ciencias.icc.test;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import mx.unam.ciencias.icc.ExcepcionIndiceInvalido;
 import mx.unam.ciencias.icc.IteradorLista;
 import mx.unam.ciencias.icc.Lista;
@@ -314,6 +319,53 @@ public class TestLista {
         Assert.assertTrue(lista.get(1).equals("3"));
     }
 
+    /**
+     * Prueba unitaria para {@link Lista#eliminaSi}.
+     */
+    @Test public void testEliminaSi() {
+        List<String> elementos = new ArrayList<String>();
+        for (int i = 0; i < total; i++) {
+            String e = str(random.nextInt(total / 2));
+            lista.agregaFinal(e);
+            elementos.add(e);
+        }
+        String x = str(random.nextInt(total / 2));
+        int n = lista.eliminaSi(e -> e.equals(x));
+        int m = elementos.size();
+        elementos.removeIf(e -> e.equals(x));
+        Assert.assertTrue(n == m - elementos.size());
+        Assert.assertTrue(lista.getLongitud() == elementos.size());
+        Assert.assertFalse(lista.contiene(x));
+        int c = 0;
+        for (String e : lista)
+            Assert.assertTrue(e.equals(elementos.get(c++)));
+        validaLista(lista);
+        Assert.assertTrue(lista.eliminaSi(e -> false) == 0);
+        Assert.assertTrue(lista.getLongitud() == elementos.size());
+
+        Lista<String> copia = lista.copia();
+        Lista<String> reversa = lista.reversa();
+        n = reversa.eliminaSi(e -> e.length() == 1);
+        Assert.assertTrue(lista.equals(copia));
+        for (String e : reversa)
+            Assert.assertTrue(e.length() > 1);
+        Assert.assertTrue(reversa.getLongitud() + n == lista.getLongitud());
+        validaLista(reversa);
+
+        lista.setIndizada(true);
+        String y = lista.getPrimero();
+        lista.eliminaSi(e -> e.equals(y));
+        Assert.assertFalse(lista.contiene(y));
+        m = lista.getLongitud();
+        Assert.assertTrue(lista.eliminaSi(e -> true) == m);
+        Assert.assertTrue(lista.esVacia());
+        validaLista(lista);
+        try {
+            lista.eliminaSi(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
     /**
      * Prueba unitaria para {@link Lista#eliminaPrimero}.
      */
@@ -429,6 +481,77 @@ public class TestLista {
         Assert.assertFalse(il.hasNext());
         Assert.assertFalse(ir.hasPrevious());
         validaLista(reversa);
+        String primero = reversa.getPrimero();
+        lista.eliminaUltimo();
+        Assert.assertTrue(reversa.getLongitud() == lista.getLongitud() + 1);
+        Assert.assertTrue(reversa.getPrimero().equals(primero));
+        reversa.agregaFinal("x");
+        Assert.assertFalse(lista.contiene("x"));
+        validaLista(lista);
+        validaLista(reversa);
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#vistaReversa}: la vista no ve las
+     * modificaciones de la lista original ni la lista original las de la
+     * vista.
+     */
+    @Test public void testVistaReversa() {
+        String[] a = new String[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = str(i);
+            lista.agregaFinal(a[i]);
+        }
+        Lista<String> reversa = lista.vistaReversa();
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(reversa.get(i).equals(a[total - i - 1]));
+            Assert.assertTrue(reversa.indiceDe(a[i]) == total - i - 1);
+            Assert.assertTrue(reversa.contiene(a[i]));
+        }
+        Assert.assertTrue(reversa.getPrimero().equals(a[total - 1]));
+        Assert.assertTrue(reversa.getUltimo().equals(a[0]));
+        Assert.assertTrue(reversa.vistaReversa().equals(lista));
+        reversa.agregaFinal("x");
+        lista.eliminaPrimero();
+        Assert.assertTrue(reversa.getLongitud() == total + 1);
+        Assert.assertTrue(reversa.getUltimo().equals("x"));
+        Assert.assertTrue(reversa.contiene(a[0]));
+        Assert.assertFalse(lista.contiene(a[0]));
+        Assert.assertFalse(lista.contiene("x"));
+        validaLista(lista);
+        validaLista(reversa);
+        reversa = lista.vistaReversa();
+        Lista<String> otra = reversa.vistaReversa();
+        otra.agregaInicio("y");
+        lista.elimina(a[1]);
+        Assert.assertTrue(otra.getPrimero().equals("y"));
+        Assert.assertTrue(otra.get(1).equals(a[1]));
+        Assert.assertTrue(lista.getPrimero().equals(a[2]));
+        try {
+            reversa.getUltimo();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        try {
+            reversa.contiene(a[1]);
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        try {
+            reversa.agregaFinal("z");
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        validaLista(lista);
+        validaLista(otra);
+        reversa = lista.vistaReversa();
+        Iterator<String> iterador = reversa.iterator();
+        iterador.next();
+        IteradorLista<String> il = lista.iteradorLista();
+        il.next();
+        il.set("w");
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        validaLista(lista);
     }
 
     /**
@@ -722,6 +845,419 @@ public class TestLista {
         Assert.assertTrue(iterador.previous().equals(str(total - 1)));
     }
 
+    /**
+     * Prueba que los iteradores de {@link Lista} detecten modificaciones
+     * concurrentes.
+     */
+    @Test public void testIteradorModificado() {
+        for (int i = 0; i < total; i++)
+            lista.agregaFinal(str(i));
+        Iterator<String> iterador = lista.iterator();
+        iterador.next();
+        lista.agregaFinal(str(total));
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        IteradorLista<String> i = lista.iteradorLista();
+        i.next();
+        lista.eliminaPrimero();
+        try {
+            i.previous();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        i.start();
+        Assert.assertTrue(i.next().equals(str(1)));
+        Iterator<String> otro = lista.iterator();
+        otro.next();
+        i.remove();
+        try {
+            otro.next();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        i.next();
+        lista.reversa();
+        i.next();
+        lista.limpia();
+        try {
+            i.next();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link IteradorLista#remove}, {@link
+     * IteradorLista#set} y {@link IteradorLista#add} en {@link Lista}.
+     */
+    @Test public void testIteradorModifica() {
+        ArrayList<String> otra = new ArrayList<String>();
+        for (int i = 0; i < total; i++) {
+            String r = str(random.nextInt(total));
+            lista.agregaFinal(r);
+            otra.add(r);
+        }
+        lista.setIndizada(random.nextBoolean());
+        Lista<String> reversa = lista.vistaReversa();
+        IteradorLista<String> iterador = lista.iteradorLista();
+        try {
+            iterador.remove();
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        try {
+            iterador.set("x");
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        int j = 0;
+        while (iterador.hasNext()) {
+            String e = iterador.next();
+            Assert.assertTrue(e.equals(otra.get(j)));
+            switch (random.nextInt(4)) {
+            case 0:
+                iterador.remove();
+                otra.remove(j);
+                try {
+                    iterador.remove();
+                    Assert.fail();
+                } catch (IllegalStateException ise) {}
+                break;
+            case 1:
+                iterador.set(e + "x");
+                otra.set(j++, e + "x");
+                break;
+            case 2:
+                iterador.add(e + "y");
+                otra.add(++j, e + "y");
+                j++;
+                Assert.assertTrue(iterador.previous().equals(e + "y"));
+                Assert.assertTrue(iterador.next().equals(e + "y"));
+                break;
+            default:
+                j++;
+            }
+            Assert.assertTrue(lista.getLongitud() == otra.size());
+        }
+        iterador.add("z");
+        otra.add("z");
+        while (iterador.hasPrevious()) {
+            String e = iterador.previous();
+            if (e.endsWith("x")) {
+                iterador.remove();
+                otra.remove(otra.lastIndexOf(e));
+            }
+        }
+        Assert.assertTrue(lista.getLongitud() == otra.size());
+        j = 0;
+        for (String e : lista) {
+            Assert.assertTrue(e.equals(otra.get(j++)));
+            Assert.assertTrue(lista.contiene(e));
+            Assert.assertTrue(lista.contiene(e + "x") ==
+                              otra.contains(e + "x"));
+        }
+        validaLista(lista);
+        try {
+            reversa.getPrimero();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        try {
+            iterador.add(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#setIndizada} y {@link
+     * Lista#getMemoriaIndice}.
+     */
+    @Test public void testSetIndizada() {
+        Assert.assertFalse(lista.esIndizada());
+        Assert.assertTrue(lista.getMemoriaIndice() == 0);
+        Lista<String> otra = new Lista<String>();
+        for (int i = 0; i < total; i++) {
+            String r = str(random.nextInt(total));
+            lista.agregaFinal(r);
+            otra.agregaFinal(r);
+        }
+        lista.setIndizada(true);
+        Assert.assertTrue(lista.esIndizada());
+        long memoria = lista.getMemoriaIndice();
+        Assert.assertTrue(memoria > 0);
+        Assert.assertTrue(lista.copia().esIndizada());
+        for (int i = 0; i < total * 10; i++) {
+            String r = str(random.nextInt(total));
+            switch (random.nextInt(6)) {
+            case 0:
+                lista.agregaInicio(r);
+                otra.agregaInicio(r);
+                break;
+            case 1:
+                int j = random.nextInt(total);
+                lista.inserta(j, r);
+                otra.inserta(j, r);
+                break;
+            case 2:
+                if (!otra.esVacia()) {
+                    Assert.assertTrue(lista.eliminaUltimo().equals(
+                                          otra.eliminaUltimo()));
+                }
+                break;
+            case 3:
+                lista.agregaFinal(r);
+                otra.agregaFinal(r);
+                break;
+            default:
+                lista.elimina(r);
+                otra.elimina(r);
+            }
+            Assert.assertTrue(lista.contiene(r) == otra.contiene(r));
+            Assert.assertTrue(lista.indiceDe(r) == otra.indiceDe(r));
+        }
+        Assert.assertTrue(lista.equals(otra));
+        validaLista(lista);
+        Lista<String> reversa = lista.vistaReversa();
+        Assert.assertFalse(reversa.esIndizada());
+        lista.agregaFinal("x");
+        Assert.assertTrue(lista.contiene("x"));
+        try {
+            reversa.contiene("x");
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        lista.elimina("x");
+        Assert.assertFalse(lista.contiene("x"));
+        Assert.assertTrue(lista.equals(otra));
+        lista.limpia();
+        Assert.assertFalse(lista.contiene(otra.getPrimero()));
+        Assert.assertTrue(lista.getMemoriaIndice() < memoria);
+        lista.setIndizada(false);
+        Assert.assertFalse(lista.esIndizada());
+        Assert.assertTrue(lista.getMemoriaIndice() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#agregaTodos}.
+     */
+    @Test public void testAgregaTodos() {
+        List<String> elementos = new ArrayList<String>();
+        for (int i = 0; i < total; i++)
+            elementos.add(str(i));
+        lista.agregaFinal("a");
+        lista.agregaTodos(elementos);
+        Assert.assertTrue(lista.getLongitud() == total + 1);
+        Assert.assertTrue(lista.getPrimero().equals("a"));
+        int c = -1;
+        for (String e : lista)
+            if (c++ >= 0)
+                Assert.assertTrue(e.equals(str(c - 1)));
+        validaLista(lista);
+        lista.agregaTodos(lista);
+        Assert.assertTrue(lista.getLongitud() == 2 * (total + 1));
+        validaLista(lista);
+        Lista<String> reversa = lista.vistaReversa();
+        lista.agregaTodos(elementos);
+        try {
+            reversa.getPrimero();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        Assert.assertTrue(lista.getUltimo().equals(str(total - 1)));
+        elementos.add(null);
+        int longitud = lista.getLongitud();
+        try {
+            lista.agregaTodos(elementos);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertTrue(lista.getLongitud() == longitud);
+        try {
+            lista.agregaTodos(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        lista.limpia();
+        lista.setIndizada(true);
+        lista.agregaTodos(elementos.subList(0, total));
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(lista.contiene(str(i)));
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#empalmaInicio}, {@link
+     * Lista#empalmaFinal} y {@link Lista#empalma}.
+     */
+    @Test public void testEmpalma() {
+        Lista<String> otra = new Lista<String>();
+        for (int i = 0; i < total; i++) {
+            lista.agregaFinal(str(i));
+            otra.agregaFinal(str(total + i));
+        }
+        lista.empalmaFinal(otra);
+        Assert.assertTrue(otra.esVacia());
+        validaLista(otra);
+        Assert.assertTrue(lista.getLongitud() == 2 * total);
+        for (int i = 0; i < 2 * total; i++)
+            Assert.assertTrue(lista.get(i).equals(str(i)));
+        validaLista(lista);
+        for (int i = 0; i < total; i++)
+            otra.agregaFinal(str(-i));
+        otra.setIndizada(true);
+        lista.setIndizada(true);
+        lista.empalmaInicio(otra.vistaReversa());
+        Assert.assertTrue(otra.getLongitud() == total);
+        Assert.assertTrue(lista.getLongitud() == 3 * total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(lista.get(i).equals(str(i - total + 1)));
+            Assert.assertTrue(lista.contiene(str(-i)));
+        }
+        validaLista(lista);
+
+        int j = random.nextInt(lista.getLongitud() + 1);
+        IteradorLista<String> iterador = lista.iteradorLista();
+        for (int i = 0; i < j; i++)
+            iterador.next();
+        Lista<String> reversa = lista.vistaReversa();
+        Lista<String> esperada = new Lista<String>();
+        for (int i = 0; i < lista.getLongitud(); i++) {
+            if (i == j)
+                for (String e : otra)
+                    esperada.agregaFinal(e);
+            esperada.agregaFinal(lista.get(i));
+        }
+        if (j == lista.getLongitud())
+            for (String e : otra)
+                esperada.agregaFinal(e);
+        String ultimo = otra.getUltimo();
+        lista.empalma(iterador, otra);
+        Assert.assertTrue(otra.esVacia());
+        Assert.assertTrue(lista.equals(esperada));
+        Assert.assertTrue(iterador.hasPrevious());
+        Assert.assertTrue(iterador.previous().equals(ultimo));
+        try {
+            reversa.getPrimero();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        validaLista(lista);
+        for (String e : esperada)
+            Assert.assertTrue(lista.contiene(e));
+
+        try {
+            lista.empalmaFinal(lista);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            lista.empalmaInicio(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            lista.empalma(otra.iteradorLista(), new Lista<String>());
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#setMaxNodosLibres} y {@link
+     * Lista#getMaxNodosLibres}.
+     */
+    @Test public void testSetMaxNodosLibres() {
+        Assert.assertTrue(lista.getMaxNodosLibres() == 0);
+        try {
+            lista.setMaxNodosLibres(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        lista.setMaxNodosLibres(total / 2);
+        Assert.assertTrue(lista.getMaxNodosLibres() == total / 2);
+        lista.setIndizada(random.nextBoolean());
+        Lista<String> otra = new Lista<String>();
+        for (int i = 0; i < total * 10; i++) {
+            String r = str(random.nextInt(total));
+            switch (otra.esVacia() ? 0 : random.nextInt(6)) {
+            case 0:
+                lista.agregaFinal(r);
+                otra.agregaFinal(r);
+                break;
+            case 1:
+                lista.agregaInicio(r);
+                otra.agregaInicio(r);
+                break;
+            case 2:
+                int j = random.nextInt(total);
+                lista.inserta(j, r);
+                otra.inserta(j, r);
+                break;
+            case 3:
+                Assert.assertTrue(lista.eliminaPrimero().equals(
+                                      otra.eliminaPrimero()));
+                break;
+            case 4:
+                Assert.assertTrue(lista.eliminaUltimo().equals(
+                                      otra.eliminaUltimo()));
+                break;
+            default:
+                lista.elimina(r);
+                otra.elimina(r);
+            }
+            Assert.assertTrue(lista.equals(otra));
+            Assert.assertTrue(lista.contiene(r) == otra.contiene(r));
+        }
+        validaLista(lista);
+        Lista<String> reversa = lista.vistaReversa();
+        while (!lista.esVacia())
+            lista.eliminaPrimero();
+        try {
+            reversa.equals(otra.reversa());
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        lista.setMaxNodosLibres(0);
+        Assert.assertTrue(lista.getMaxNodosLibres() == 0);
+        for (int i = 0; i < total; i++)
+            lista.agregaFinal(str(i));
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(lista.eliminaPrimero().equals(str(i)));
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#spliterator}.
+     */
+    @Test public void testSpliterator() {
+        for (int i = 0; i < total; i++)
+            lista.agregaFinal(str(i));
+        Spliterator<String> s = lista.spliterator();
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.SIZED));
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.SUBSIZED));
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.ORDERED));
+        Assert.assertTrue(s.getExactSizeIfKnown() == total);
+        Spliterator<String> p = s.trySplit();
+        Assert.assertTrue(p.getExactSizeIfKnown() == total / 2);
+        Assert.assertTrue(s.getExactSizeIfKnown() == total - total / 2);
+        int[] c = { 0 };
+        p.forEachRemaining(e -> Assert.assertTrue(e.equals(str(c[0]++))));
+        while (s.tryAdvance(e -> Assert.assertTrue(e.equals(str(c[0]++)))))
+            ;
+        Assert.assertTrue(c[0] == total);
+        Assert.assertTrue(s.getExactSizeIfKnown() == 0);
+        Assert.assertTrue(s.trySplit() == null);
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#stream} y {@link
+     * Lista#parallelStream}.
+     */
+    @Test public void testStream() {
+        Assert.assertTrue(lista.stream().count() == 0);
+        Assert.assertTrue(lista.parallelStream().count() == 0);
+        total *= 100;
+        long suma = 0;
+        for (int i = 0; i < total; i++) {
+            lista.agregaFinal(str(i));
+            suma += i;
+        }
+        Assert.assertTrue(lista.stream().mapToLong(Long::parseLong).sum()
+                          == suma);
+        Assert.assertTrue(lista.parallelStream()
+                          .mapToLong(Long::parseLong).sum() == suma);
+        Assert.assertTrue(lista.parallelStream().isParallel());
+        Lista<String> reversa = lista.reversa();
+        List<String> l = reversa.parallelStream()
+            .collect(Collectors.toList());
+        Assert.assertTrue(l.size() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(l.get(i).equals(str(total - i - 1)));
+    }
 
     /**
      * Prueba unitaria para {@link Lista#mergeSort}.
@@ -803,6 +1339,73 @@ public class TestLista {
         }
     }
 
+    /**
+     * Prueba unitaria para {@link Lista#ordena}.
+     */
+    @Test public void testOrdena() {
+        for (int i = 0; i < total; i++)
+            lista.agregaFinal(str(random.nextInt(total)));
+        Lista<String> ordenada = lista.mergeSort((a, b) -> a.compareTo(b));
+        Lista<String> reversa = lista.vistaReversa();
+        Lista<String> copia = lista.copia();
+        lista.setIndizada(true);
+        lista.ordena((a, b) -> a.compareTo(b));
+        Assert.assertTrue(lista.equals(ordenada));
+        try {
+            reversa.vistaReversa();
+            Assert.fail();
+        } catch (ConcurrentModificationException cme) {}
+        validaLista(lista);
+        for (String e : copia) {
+            Assert.assertTrue(lista.contiene(e));
+            lista.elimina(e);
+        }
+        Assert.assertTrue(lista.esVacia());
+        lista.ordena((a, b) -> a.compareTo(b));
+        lista.agregaFinal("a");
+        lista.ordena((a, b) -> a.compareTo(b));
+        Assert.assertTrue(lista.getPrimero().equals("a"));
+        validaLista(lista);
+        /* Prueba estabilidad. */
+        total = 100 + total * 10;
+        int m = 7 + random.nextInt(20);
+        Lista<Par> pares = new Lista<Par>();
+        for (int i = 0; i < total; i++) {
+            int v = ((i % m) == 0) ? m : random.nextInt(total);
+            pares.agregaFinal(new Par(v, i));
+        }
+        pares.ordena((a, b) -> a.compareTo(b));
+        Assert.assertTrue(pares.getLongitud() == total);
+        Par u = null;
+        for (Par par : pares) {
+            if (u != null) {
+                Assert.assertTrue(u.getValor() <= par.getValor());
+                if (u.getValor() == par.getValor())
+                    Assert.assertTrue(u.getEtiqueta() < par.getEtiqueta());
+            }
+            u = par;
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#ordena(Lista)}.
+     */
+    @Test public void testOrdenaLista() {
+        for (int i = 0; i < total; i++)
+            lista.agregaFinal(str(random.nextInt(total)));
+        Lista<String> ordenada = Lista.mergeSort(lista);
+        Lista.ordena(lista);
+        Assert.assertTrue(lista.equals(ordenada));
+        validaLista(lista);
+        Iterator<String> iterador = lista.iterator();
+        String a = iterador.next();
+        while (iterador.hasNext()) {
+            String e = iterador.next();
+            Assert.assertTrue(a.compareTo(e) <= 0);
+            a = e;
+        }
+    }
+
     /**
      * Prueba unitaria para {@link Lista#busquedaLineal}.
      */
@@ -0,0 +1,218 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import mx.unam.ciencias.icc.IteradorLista;
+import mx.unam.ciencias.icc.Lista;
+import mx.unam.ciencias.icc.ListaConcurrente;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ListaConcurrente}.
+ */
+public class TestListaConcurrente {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La lista concurrente. */
+    private ListaConcurrente<Integer> lista;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba y una lista
+     * concurrente.
+     */
+    public TestListaConcurrente() {
+        random = new Random();
+        total = 10 + random.nextInt(90);
+        lista = new ListaConcurrente<Integer>();
+    }
+
+    /* Verifica que la lista tenga los elementos de la bicola, en orden. */
+    private void verifica(ArrayDeque<Integer> elementos) {
+        Assert.assertTrue(lista.getLongitud() == elementos.size());
+        Assert.assertTrue(lista.esVacia() == elementos.isEmpty());
+        Iterator<Integer> i = elementos.iterator();
+        for (Integer n : lista)
+            Assert.assertTrue(n.equals(i.next()));
+        Assert.assertFalse(i.hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaConcurrente#agregaFinal}, {@link
+     * ListaConcurrente#agregaInicio}, {@link ListaConcurrente#eliminaPrimero}
+     * y {@link ListaConcurrente#eliminaUltimo}.
+     */
+    @Test public void testAgregaElimina() {
+        ArrayDeque<Integer> elementos = new ArrayDeque<Integer>();
+        for (int i = 0; i < total * 10; i++) {
+            switch (elementos.isEmpty() ? random.nextInt(2)
+                    : random.nextInt(4)) {
+            case 0:
+                lista.agregaFinal(i);
+                elementos.addLast(i);
+                Assert.assertTrue(lista.getUltimo() == i);
+                break;
+            case 1:
+                lista.agregaInicio(i);
+                elementos.addFirst(i);
+                Assert.assertTrue(lista.getPrimero() == i);
+                break;
+            case 2:
+                Assert.assertTrue(lista.eliminaPrimero().equals(
+                                      elementos.removeFirst()));
+                break;
+            default:
+                Assert.assertTrue(lista.eliminaUltimo().equals(
+                                      elementos.removeLast()));
+            }
+            verifica(elementos);
+        }
+        try {
+            lista.agregaFinal(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            lista.agregaInicio(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        lista.limpia();
+        verifica(new ArrayDeque<Integer>());
+        try {
+            lista.eliminaPrimero();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            lista.eliminaUltimo();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            lista.getPrimero();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            lista.getUltimo();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaConcurrente#elimina}, {@link
+     * ListaConcurrente#contiene} y {@link ListaConcurrente#aLista}.
+     */
+    @Test public void testElimina() {
+        Lista<Integer> l = new Lista<Integer>();
+        for (int i = 0; i < total; i++) {
+            lista.agregaFinal(i);
+            l.agregaFinal(i);
+        }
+        Assert.assertTrue(lista.aLista().equals(l));
+        Assert.assertTrue(lista.toString().equals(l.toString()));
+        for (int i = 0; i < total; i++) {
+            int n = random.nextInt(total);
+            Assert.assertTrue(lista.contiene(n) == l.contiene(n));
+            lista.elimina(n);
+            l.elimina(n);
+            Assert.assertFalse(lista.contiene(n));
+            Assert.assertTrue(lista.getLongitud() == l.getLongitud());
+        }
+        Assert.assertTrue(lista.aLista().equals(l));
+        Assert.assertFalse(lista.contiene(null));
+        lista.elimina(null);
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaConcurrente#iteradorLista}.
+     */
+    @Test public void testIteradorLista() {
+        for (int i = 0; i < total; i++)
+            lista.agregaFinal(i);
+        IteradorLista<Integer> iterador = lista.iteradorLista();
+        lista.agregaFinal(total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(iterador.next() == i);
+        Assert.assertFalse(iterador.hasNext());
+        for (int i = total - 1; i >= 0; i--)
+            Assert.assertTrue(iterador.previous() == i);
+        Assert.assertFalse(iterador.hasPrevious());
+        try {
+            iterador.previous();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        iterador.end();
+        Assert.assertTrue(iterador.previous() == total);
+        iterador.start();
+        Assert.assertTrue(iterador.next() == 0);
+        Iterator<Integer> i = lista.iterator();
+        i.next();
+        try {
+            i.remove();
+            Assert.fail();
+        } catch (UnsupportedOperationException uoe) {}
+        Assert.assertTrue(lista.getLongitud() == total + 1);
+    }
+
+    /**
+     * Prueba que varios productores y consumidores concurrentes no pierdan
+     * ni repitan elementos.
+     * @throws InterruptedException si el hilo de la prueba es interrumpido.
+     */
+    @Test public void testConcurrencia() throws InterruptedException {
+        int hilos = 4, elementos = 10000;
+        boolean[] vistos = new boolean[hilos * elementos];
+        AtomicInteger consumidos = new AtomicInteger();
+        AtomicBoolean repetido = new AtomicBoolean();
+        Thread[] t = new Thread[2 * hilos];
+        for (int i = 0; i < hilos; i++) {
+            int base = i * elementos;
+            boolean alFinal = i % 2 == 0;
+            t[i] = new Thread(() -> {
+                    for (int j = 0; j < elementos; j++)
+                        if (alFinal)
+                            lista.agregaFinal(base + j);
+                        else
+                            lista.agregaInicio(base + j);
+                });
+            boolean primero = i % 2 == 0;
+            t[hilos + i] = new Thread(() -> {
+                    while (consumidos.get() < hilos * elementos) {
+                        Integer n;
+                        try {
+                            n = primero ? lista.eliminaPrimero()
+                                : lista.eliminaUltimo();
+                        } catch (NoSuchElementException nsee) {
+                            Thread.yield();
+                            continue;
+                        }
+                        synchronized (vistos) {
+                            if (vistos[n])
+                                repetido.set(true);
+                            vistos[n] = true;
+                        }
+                        consumidos.incrementAndGet();
+                    }
+                });
+        }
+        for (Thread h : t)
+            h.start();
+        for (Thread h : t)
+            h.join();
+        Assert.assertFalse(repetido.get());
+        Assert.assertTrue(consumidos.get() == hilos * elementos);
+        for (boolean visto : vistos)
+            Assert.assertTrue(visto);
+        Assert.assertTrue(lista.esVacia());
+        Assert.assertTrue(lista.getLongitud() == 0);
+    }
+}
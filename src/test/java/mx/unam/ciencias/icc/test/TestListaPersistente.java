@@ -0,0 +1,322 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.icc.ExcepcionIndiceInvalido;
+import mx.unam.ciencias.icc.Lista;
+import mx.unam.ciencias.icc.ListaPersistente;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ListaPersistente}.
+ */
+public class TestListaPersistente {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestListaPersistente() {
+        random = new Random();
+        total = 10 + random.nextInt(90);
+    }
+
+    /* Verifica que la lista persistente tenga los elementos recibidos. */
+    private void verifica(ListaPersistente<Integer> lista,
+                          ArrayList<Integer> elementos) {
+        Assert.assertTrue(lista.getLongitud() == elementos.size());
+        Assert.assertTrue(lista.esVacia() == elementos.isEmpty());
+        int i = 0;
+        for (Integer n : lista) {
+            Assert.assertTrue(n.equals(elementos.get(i)));
+            Assert.assertTrue(lista.get(i++).equals(n));
+        }
+        Assert.assertTrue(i == elementos.size());
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#ListaPersistente()} y
+     * {@link ListaPersistente#ListaPersistente(Iterable)}.
+     */
+    @Test public void testConstructor() {
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        Assert.assertTrue(lista.esVacia());
+        Assert.assertTrue(lista.getLongitud() == 0);
+        ArrayList<Integer> elementos = new ArrayList<Integer>();
+        Lista<Integer> l = new Lista<Integer>();
+        for (int i = 0; i < total; i++) {
+            int n = random.nextInt(total);
+            elementos.add(n);
+            l.agregaFinal(n);
+        }
+        verifica(new ListaPersistente<Integer>(l), elementos);
+        verifica(new ListaPersistente<Integer>(elementos), elementos);
+        try {
+            new ListaPersistente<Integer>(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#agregaFinal} y {@link
+     * ListaPersistente#agregaInicio}.
+     */
+    @Test public void testAgrega() {
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        ArrayList<Integer> elementos = new ArrayList<Integer>();
+        for (int i = 0; i < total; i++) {
+            ListaPersistente<Integer> anterior = lista;
+            int longitud = lista.getLongitud();
+            if (random.nextBoolean()) {
+                lista = lista.agregaFinal(i);
+                elementos.add(i);
+                Assert.assertTrue(lista.getUltimo() == i);
+            } else {
+                lista = lista.agregaInicio(i);
+                elementos.add(0, i);
+                Assert.assertTrue(lista.getPrimero() == i);
+            }
+            Assert.assertTrue(anterior.getLongitud() == longitud);
+            verifica(lista, elementos);
+        }
+        try {
+            lista.agregaFinal(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            lista.agregaInicio(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#inserta}.
+     */
+    @Test public void testInserta() {
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        ArrayList<Integer> elementos = new ArrayList<Integer>();
+        for (int i = 0; i < total; i++) {
+            int j = random.nextInt(elementos.size() + 3) - 1;
+            lista = lista.inserta(j, i);
+            elementos.add(Math.max(0, Math.min(j, elementos.size())), i);
+            verifica(lista, elementos);
+        }
+        try {
+            lista.inserta(0, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#elimina}, {@link
+     * ListaPersistente#eliminaEn}, {@link ListaPersistente#eliminaPrimero} y
+     * {@link ListaPersistente#eliminaUltimo}.
+     */
+    @Test public void testElimina() {
+        ArrayList<Integer> elementos = new ArrayList<Integer>();
+        for (int i = 0; i < total; i++)
+            elementos.add(i);
+        ListaPersistente<Integer> lista =
+            new ListaPersistente<Integer>(elementos);
+        Assert.assertTrue(lista.elimina(total) == lista);
+        while (!elementos.isEmpty()) {
+            switch (random.nextInt(4)) {
+            case 0:
+                Integer n = elementos.get(random.nextInt(elementos.size()));
+                lista = lista.elimina(n);
+                elementos.remove(n);
+                break;
+            case 1:
+                int j = random.nextInt(elementos.size());
+                lista = lista.eliminaEn(j);
+                elementos.remove(j);
+                break;
+            case 2:
+                lista = lista.eliminaPrimero();
+                elementos.remove(0);
+                break;
+            default:
+                lista = lista.eliminaUltimo();
+                elementos.remove(elementos.size() - 1);
+            }
+            verifica(lista, elementos);
+        }
+        try {
+            lista.eliminaPrimero();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            lista.eliminaUltimo();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            lista.eliminaEn(0);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#get} y {@link
+     * ListaPersistente#set}.
+     */
+    @Test public void testSet() {
+        ArrayList<Integer> elementos = new ArrayList<Integer>();
+        for (int i = 0; i < total; i++)
+            elementos.add(i);
+        ListaPersistente<Integer> lista =
+            new ListaPersistente<Integer>(elementos);
+        for (int i = 0; i < total; i++) {
+            int j = random.nextInt(total);
+            lista = lista.set(j, -i);
+            elementos.set(j, -i);
+            verifica(lista, elementos);
+        }
+        try {
+            lista.get(-1);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        try {
+            lista.get(total);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        try {
+            lista.set(total, 0);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        try {
+            lista.set(0, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para que las versiones anteriores de una lista
+     * persistente no cambien.
+     */
+    @Test public void testPersistencia() {
+        ArrayList<ListaPersistente<Integer>> versiones =
+            new ArrayList<ListaPersistente<Integer>>();
+        ArrayList<ArrayList<Integer>> esperados =
+            new ArrayList<ArrayList<Integer>>();
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        ArrayList<Integer> elementos = new ArrayList<Integer>();
+        for (int i = 0; i < 4 * total; i++) {
+            versiones.add(lista);
+            esperados.add(new ArrayList<Integer>(elementos));
+            int n = elementos.size();
+            switch (n == 0 ? 0 : random.nextInt(3)) {
+            case 0:
+                int j = random.nextInt(n + 1);
+                lista = lista.inserta(j, i);
+                elementos.add(j, i);
+                break;
+            case 1:
+                int k = random.nextInt(n);
+                lista = lista.eliminaEn(k);
+                elementos.remove(k);
+                break;
+            default:
+                int m = random.nextInt(n);
+                lista = lista.set(m, i);
+                elementos.set(m, i);
+            }
+        }
+        for (int i = 0; i < versiones.size(); i++)
+            verifica(versiones.get(i), esperados.get(i));
+        Assert.assertTrue(lista.copia() == lista);
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#contiene} y {@link
+     * ListaPersistente#indiceDe}.
+     */
+    @Test public void testContiene() {
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        for (int i = 0; i < total; i++)
+            lista = lista.agregaFinal(2 * i);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(lista.contiene(2 * i));
+            Assert.assertTrue(lista.indiceDe(2 * i) == i);
+            Assert.assertFalse(lista.contiene(2 * i + 1));
+            Assert.assertTrue(lista.indiceDe(2 * i + 1) == -1);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#reversa} y {@link
+     * ListaPersistente#aLista}.
+     */
+    @Test public void testReversa() {
+        Lista<Integer> l = new Lista<Integer>();
+        for (int i = 0; i < total; i++)
+            l.agregaFinal(random.nextInt(total));
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>(l);
+        Assert.assertTrue(lista.aLista().equals(l));
+        ListaPersistente<Integer> reversa = lista.reversa();
+        Assert.assertTrue(reversa.aLista().equals(l.reversa()));
+        Assert.assertTrue(lista.aLista().equals(l));
+        Assert.assertTrue(reversa.reversa().equals(lista));
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#toString}.
+     */
+    @Test public void testToString() {
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        Assert.assertTrue(lista.toString().equals("[]"));
+        String s = "[";
+        for (int i = 0; i < total; i++) {
+            lista = lista.agregaFinal(i);
+            s += (i == 0 ? "" : ", ") + i;
+        }
+        Assert.assertTrue(lista.toString().equals(s + "]"));
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#equals} y {@link
+     * ListaPersistente#hashCode}.
+     */
+    @Test public void testEquals() {
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        ListaPersistente<Integer> otra = new ListaPersistente<Integer>();
+        Assert.assertFalse(lista.equals(null));
+        Assert.assertTrue(lista.equals(otra));
+        for (int i = 0; i < total; i++) {
+            lista = lista.agregaFinal(i);
+            otra = otra.inserta(i, i);
+            Assert.assertTrue(lista.equals(otra));
+            Assert.assertTrue(lista.hashCode() == otra.hashCode());
+        }
+        Assert.assertFalse(lista.equals(otra.set(0, -1)));
+        Assert.assertFalse(lista.equals(otra.eliminaUltimo()));
+    }
+
+    /**
+     * Prueba unitaria para {@link ListaPersistente#iterator}.
+     */
+    @Test public void testIterator() {
+        ListaPersistente<Integer> lista = new ListaPersistente<Integer>();
+        for (int i = 0; i < total; i++)
+            lista = lista.agregaInicio(i);
+        Iterator<Integer> iterador = lista.iterator();
+        for (int i = total - 1; i >= 0; i--)
+            Assert.assertTrue(iterador.next() == i);
+        Assert.assertFalse(iterador.hasNext());
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+}
@@ -0,0 +1,187 @@
+package mx.unam.ciencias.icc.test;
+
+import java.util.Iterator;
+import java.util.Random;
+import mx.unam.ciencias.icc.MapaDeBits;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link MapaDeBits}.
+ */
+public class TestMapaDeBits {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Límite de los enteros en las pruebas. */
+    private int total;
+    /* Enteros del primer mapa. */
+    private boolean[] a;
+    /* Enteros del segundo mapa. */
+    private boolean[] b;
+    /* El primer mapa. */
+    private MapaDeBits mapaA;
+    /* El segundo mapa. */
+    private MapaDeBits mapaB;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba y dos mapas de
+     * bits aleatorios, uno disperso y uno denso, que abarcan varios
+     * contenedores.
+     */
+    public TestMapaDeBits() {
+        random = new Random();
+        total = 70000 + random.nextInt(100000);
+        a = new boolean[total];
+        b = new boolean[total];
+        mapaA = new MapaDeBits();
+        mapaB = new MapaDeBits();
+        for (int i = 0; i < total; i++) {
+            if (random.nextInt(100) == 0) {
+                a[i] = true;
+                mapaA.agrega(i);
+            }
+            if (random.nextInt(4) != 0) {
+                b[i] = true;
+                mapaB.agrega(i);
+            }
+        }
+    }
+
+    /* Verifica que el mapa tenga exactamente los enteros del arreglo. */
+    private void verifica(MapaDeBits mapa, boolean[] enteros) {
+        int n = 0;
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(mapa.contiene(i) == enteros[i]);
+            if (enteros[i])
+                n++;
+        }
+        Assert.assertTrue(mapa.getCardinalidad() == n);
+        int anterior = -1;
+        for (int i : mapa) {
+            Assert.assertTrue(i > anterior);
+            Assert.assertTrue(enteros[i]);
+            anterior = i;
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#agrega} y {@link
+     * MapaDeBits#contiene}.
+     */
+    @Test public void testAgrega() {
+        verifica(mapaA, a);
+        verifica(mapaB, b);
+        int n = mapaA.getCardinalidad();
+        int i = random.nextInt(total);
+        mapaA.agrega(i);
+        Assert.assertTrue(mapaA.contiene(i));
+        Assert.assertTrue(mapaA.getCardinalidad() == (a[i] ? n : n + 1));
+        Assert.assertFalse(mapaA.contiene(-1));
+        try {
+            mapaA.agrega(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#MapaDeBits(long[])}.
+     */
+    @Test public void testMascara() {
+        long[] mascara = new long[(total + 63) / 64];
+        for (int i = 0; i < total; i++)
+            if (b[i])
+                mascara[i / 64] |= 1L << (i % 64);
+        MapaDeBits mapa = new MapaDeBits(mascara);
+        verifica(mapa, b);
+        Assert.assertTrue(mapa.equals(mapaB));
+        Assert.assertTrue(mapa.hashCode() == mapaB.hashCode());
+        Assert.assertTrue(new MapaDeBits(new long[10]).esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#y}.
+     */
+    @Test public void testY() {
+        boolean[] r = new boolean[total];
+        for (int i = 0; i < total; i++)
+            r[i] = a[i] && b[i];
+        verifica(mapaA.y(mapaB), r);
+        verifica(mapaA, a);
+        verifica(mapaB, b);
+        Assert.assertTrue(mapaA.y(new MapaDeBits()).esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#o}.
+     */
+    @Test public void testO() {
+        boolean[] r = new boolean[total];
+        for (int i = 0; i < total; i++)
+            r[i] = a[i] || b[i];
+        verifica(mapaA.o(mapaB), r);
+        verifica(mapaA, a);
+        verifica(mapaB, b);
+        Assert.assertTrue(mapaA.o(new MapaDeBits()).equals(mapaA));
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#menos}.
+     */
+    @Test public void testMenos() {
+        boolean[] r = new boolean[total];
+        for (int i = 0; i < total; i++)
+            r[i] = a[i] && !b[i];
+        verifica(mapaA.menos(mapaB), r);
+        for (int i = 0; i < total; i++)
+            r[i] = b[i] && !a[i];
+        verifica(mapaB.menos(mapaA), r);
+        Assert.assertTrue(mapaA.menos(mapaA).esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#complemento}.
+     */
+    @Test public void testComplemento() {
+        boolean[] r = new boolean[total];
+        for (int i = 0; i < total; i++)
+            r[i] = !b[i];
+        verifica(mapaB.complemento(total), r);
+        Assert.assertTrue(MapaDeBits.rango(total).getCardinalidad() == total);
+        Assert.assertTrue(mapaB.complemento(0).esVacio());
+        try {
+            mapaB.complemento(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#iterator}.
+     */
+    @Test public void testIterador() {
+        Iterator<Integer> iterador = new MapaDeBits().iterator();
+        Assert.assertFalse(iterador.hasNext());
+        iterador = mapaA.iterator();
+        for (int i = 0; i < total; i++)
+            if (a[i])
+                Assert.assertTrue(iterador.next() == i);
+        Assert.assertFalse(iterador.hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link MapaDeBits#toString}.
+     */
+    @Test public void testToString() {
+        MapaDeBits mapa = new MapaDeBits();
+        Assert.assertTrue(mapa.toString().equals("{}"));
+        mapa.agrega(70000);
+        mapa.agrega(3);
+        mapa.agrega(1);
+        Assert.assertTrue(mapa.toString().equals("{1, 3, 70000}"));
+    }
+}